@@ -20,7 +20,7 @@ import org.jetbrains.annotations.NotNull;
 /**
  * @author peter.lawrey
  */
-public interface ExcerptCommon<E extends ExcerptCommon<E>> {
+public interface ExcerptCommon<E extends ExcerptCommon<E>> extends AutoCloseable {
 
     /**
      * @return the sourceId for the queue which created this.
@@ -29,4 +29,12 @@ public interface ExcerptCommon<E extends ExcerptCommon<E>> {
 
     @NotNull
     ChronicleQueue queue();
+
+    /**
+     * Releases the resources held for the current cycle in the calling thread. Without this they are released
+     * some time after this is garbage collected.
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StreamCorruptedException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks the checksum of every excerpt of a queue written with {@link SingleChronicleQueueBuilder#checksums()},
+ * reading the cycles in parallel, one per thread. The number of threads defaults to the number of processors and can
+ * be set with -Dthreads=n. Exits with 3 if any checksum doesn't match.
+ */
+public class QueueVerifyMain {
+    private static final int THREADS = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+
+    static {
+        SingleChronicleQueueBuilder.addAliases();
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException, ParseException {
+        File path = new File(args[0]);
+        if (!path.isDirectory()) {
+            System.err.println("Path argument must be a queue directory");
+            System.exit(1);
+        }
+        if (verify(path, THREADS, System.out) > 0)
+            System.exit(3);
+    }
+
+    /**
+     * @return the number of excerpts whose checksum doesn't match.
+     */
+    public static long verify(@NotNull File path, int threads, @NotNull PrintStream out)
+            throws InterruptedException, ExecutionException, ParseException {
+        long start = System.nanoTime();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(path)
+                .readOnly(true)
+                .verifyChecksums(true)
+                .build()) {
+            ExecutorService service = Executors.newFixedThreadPool(threads,
+                    new NamedThreadFactory(path.getName() + "-verify", true));
+            try {
+                List<Future<long[]>> futures = new ArrayList<>();
+                for (long cycle : queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()))
+                    futures.add(service.submit(() -> verifyCycle(queue, (int) cycle, out)));
+
+                long excerpts = 0, mismatches = 0;
+                for (Future<long[]> future : futures) {
+                    long[] counts = future.get();
+                    excerpts += counts[0];
+                    mismatches += counts[1];
+                }
+                out.printf("Read %,d excerpts in %,d cycles of %s in %,d ms, %,d checksum mismatches%n",
+                        excerpts, futures.size(), path, (System.nanoTime() - start) / 1_000_000, mismatches);
+                return mismatches;
+
+            } finally {
+                service.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * @return the number of excerpts read and the number whose checksum doesn't match.
+     */
+    @NotNull
+    private static long[] verifyCycle(@NotNull SingleChronicleQueue queue, int cycle, @NotNull PrintStream out) {
+        RollCycle rollCycle = queue.rollCycle();
+        long excerpts = 0, mismatches = 0;
+        try (ExcerptTailer tailer = queue.createTailer()) {
+            if (!tailer.moveToIndex(rollCycle.toIndex(cycle, 0)))
+                return new long[]{0, 0};
+            for (; ; ) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    // stop at the start of the next cycle.
+                    if (!dc.isPresent() || tailer.cycle() != cycle)
+                        break;
+                    excerpts++;
+
+                } catch (IllegalStateException e) {
+                    if (!(e.getCause() instanceof StreamCorruptedException) || rollCycle.toCycle(tailer.index()) != cycle)
+                        throw e;
+                    excerpts++;
+                    mismatches++;
+                    synchronized (out) {
+                        out.println(e.getCause().getMessage());
+                    }
+                    // carry on from the next excerpt.
+                    if (!tailer.moveToIndex(tailer.index() + 1))
+                        break;
+                }
+            }
+        }
+        return new long[]{excerpts, mismatches};
+    }
+}
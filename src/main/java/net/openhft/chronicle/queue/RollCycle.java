@@ -38,4 +38,19 @@ public interface RollCycle {
     long toSequenceNumber(long index);
 
     int toCycle(long index);
+
+    /**
+     * @return how many cycles each period of {@link #length()} can be split into, 1 unless cycles also roll on
+     * size. The cycles of a period are numbered consecutively from {@link #current(TimeProvider, long)}.
+     */
+    default int subCycles() {
+        return 1;
+    }
+
+    /**
+     * @return the size a cycle grows to before the next sub cycle of the same period is started.
+     */
+    default long maxCycleSize() {
+        return Long.MAX_VALUE;
+    }
 }
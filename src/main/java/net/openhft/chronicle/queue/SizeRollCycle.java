@@ -0,0 +1,123 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.core.time.SystemTimeProvider;
+import net.openhft.chronicle.core.time.TimeProvider;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A roll cycle which rolls on time like the {@link RollCycle} it wraps, and also starts a new cycle within the same
+ * period when the current one has grown past {@link #maxCycleSize()}. The files for the cycles of a period are
+ * named with their sub cycle, e.g. {@code 20181016.000.cq4}, {@code 20181016.001.cq4}.
+ * <p>
+ * Each period has up to {@value #SUB_CYCLES} cycles, after which the last one keeps growing. The cycle number of
+ * every sub cycle has to fit in the bits of the index above the sequence number, which suits most of the daily and
+ * hourly roll cycles, but not the shorter ones or those with very large sequence numbers, which are rejected.
+ * <p>
+ * A queue written with a size roll cycle must always be opened with one.
+ */
+public final class SizeRollCycle implements RollCycle {
+    public static final int SUB_CYCLES = 1000;
+
+    @NotNull
+    private final RollCycle rollCycle;
+    private final long maxCycleSize;
+
+    private SizeRollCycle(@NotNull RollCycle rollCycle, long maxCycleSize) {
+        if (rollCycle.subCycles() != 1)
+            throw new IllegalArgumentException(rollCycle + " already rolls on size");
+        if (maxCycleSize <= 0)
+            throw new IllegalArgumentException("maxCycleSize must be positive, was " + maxCycleSize);
+        // at least until the end of the next period.
+        long lastSubCycle = (rollCycle.current(SystemTimeProvider.INSTANCE, 0) + 2L) * SUB_CYCLES - 1;
+        if (lastSubCycle > maxCycle(rollCycle))
+            throw new IllegalArgumentException(rollCycle + " leaves too few bits in the index for the cycle number of "
+                    + SUB_CYCLES + " sub cycles per period, cycles up to " + lastSubCycle + " are needed but only up to "
+                    + maxCycle(rollCycle) + " fit");
+        this.rollCycle = rollCycle;
+        this.maxCycleSize = maxCycleSize;
+    }
+
+    /**
+     * @param maxCycleSize the write position after which a new cycle is started.
+     */
+    @NotNull
+    public static SizeRollCycle of(@NotNull RollCycle rollCycle, long maxCycleSize) {
+        return new SizeRollCycle(rollCycle, maxCycleSize);
+    }
+
+    /**
+     * @return the largest cycle number the index of the roll cycle has room for, above the bits of the sequence
+     * number and keeping the index positive.
+     */
+    static long maxCycle(@NotNull RollCycle rollCycle) {
+        int sequenceBits = 64 - Long.numberOfLeadingZeros(rollCycle.toSequenceNumber(-1L));
+        return (1L << Math.min(Integer.SIZE - 1, Long.SIZE - 1 - sequenceBits)) - 1;
+    }
+
+    @NotNull
+    public RollCycle rollCycle() {
+        return rollCycle;
+    }
+
+    @Override
+    public String format() {
+        return rollCycle.format();
+    }
+
+    @Override
+    public int length() {
+        return rollCycle.length();
+    }
+
+    @Override
+    public int defaultIndexCount() {
+        return rollCycle.defaultIndexCount();
+    }
+
+    @Override
+    public int defaultIndexSpacing() {
+        return rollCycle.defaultIndexSpacing();
+    }
+
+    /**
+     * @return the first cycle of the current period, the queue knows which sub cycle is being written to.
+     */
+    @Override
+    public int current(TimeProvider time, long epoch) {
+        return rollCycle.current(time, epoch) * SUB_CYCLES;
+    }
+
+    @Override
+    public long toIndex(int cycle, long sequenceNumber) {
+        return rollCycle.toIndex(cycle, sequenceNumber);
+    }
+
+    @Override
+    public long toSequenceNumber(long index) {
+        return rollCycle.toSequenceNumber(index);
+    }
+
+    @Override
+    public int toCycle(long index) {
+        return rollCycle.toCycle(index);
+    }
+
+    @Override
+    public int subCycles() {
+        return SUB_CYCLES;
+    }
+
+    @Override
+    public long maxCycleSize() {
+        return maxCycleSize;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "SizeRollCycle{" +
+                "rollCycle=" + rollCycle +
+                ", maxCycleSize=" + maxCycleSize +
+                '}';
+    }
+}
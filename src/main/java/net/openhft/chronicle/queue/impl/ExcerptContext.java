@@ -30,6 +30,15 @@ public interface ExcerptContext {
     @Nullable
     Wire wireForIndex();
 
+    /**
+     * @return the wire used to read and write the index arrays. This is the same as {@link #wireForIndex()} unless
+     * the store keeps its index in a separate file.
+     */
+    @Nullable
+    default Wire indexWire() {
+        return wireForIndex();
+    }
+
     long timeoutMS();
 
 }
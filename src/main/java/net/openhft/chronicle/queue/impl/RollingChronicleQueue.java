@@ -98,6 +98,16 @@ public interface RollingChronicleQueue extends ChronicleQueue, StoreReleasable {
      */
     int indexSpacing();
 
+    /**
+     * @return true if new cycle files hold their index in a separate file rather than between the excerpts.
+     */
+    boolean separateIndexFile();
+
+    /**
+     * @return true if new cycle files end every data excerpt with a checksum of its content.
+     */
+    boolean checksums();
+
     @NotNull
     RollCycle rollCycle();
 
@@ -44,6 +44,7 @@ public class RollingResourcesCache {
     @NotNull
     private final Resource[] values;
     private final int length;
+    private final int subCycles;
     @NotNull
     private final Function<File, String> fileToName;
     private final String format;
@@ -55,14 +56,15 @@ public class RollingResourcesCache {
     public RollingResourcesCache(@NotNull final RollCycle cycle, long epoch,
                                  @NotNull Function<String, File> nameToFile,
                                  @NotNull Function<File, String> fileToName) {
-        this(cycle.length(), cycle.format(), epoch, nameToFile, fileToName);
+        this(cycle.length(), cycle.subCycles(), cycle.format(), epoch, nameToFile, fileToName);
     }
 
-    private RollingResourcesCache(final int length,
+    private RollingResourcesCache(final int length, final int subCycles,
                                   @NotNull String format, long epoch,
                                   @NotNull Function<String, File> nameToFile,
                                   @NotNull Function<File, String> fileToName) {
         this.length = length;
+        this.subCycles = subCycles;
         this.fileToName = fileToName;
         this.values = new Resource[CACHE_SIZE];
 
@@ -83,13 +85,16 @@ public class RollingResourcesCache {
      */
     @NotNull
     public Resource resourceFor(long cycle) {
-        long millisSinceBeginningOfEpoch = (cycle * length);
-        int hash = Maths.hash32(millisSinceBeginningOfEpoch) & (CACHE_SIZE - 1);
+        int hash = Maths.hash32(cycle) & (CACHE_SIZE - 1);
         Resource dv = values[hash];
-        if (dv == null || dv.millis != millisSinceBeginningOfEpoch) {
+        if (dv == null || dv.cycle != cycle) {
+            long millisSinceBeginningOfEpoch = (cycle / subCycles * length);
             final Instant instant = Instant.ofEpochMilli(millisSinceBeginningOfEpoch + epoch);
             @NotNull String text = formatter.format(instant);
-            values[hash] = dv = new Resource(millisSinceBeginningOfEpoch, text, fileFactory.apply(text));
+            // cycles which roll on size are named with their sub cycle, e.g. 20181016.003
+            if (subCycles > 1)
+                text += String.format(".%03d", cycle % subCycles);
+            values[hash] = dv = new Resource(cycle, millisSinceBeginningOfEpoch, text, fileFactory.apply(text));
         }
         return dv;
     }
@@ -104,6 +109,17 @@ public class RollingResourcesCache {
     }
 
     private int parseCount0(@NotNull String name) {
+        if (subCycles > 1) {
+            int dot = name.lastIndexOf('.');
+            if (dot < 0)
+                throw new RuntimeException(String.format(
+                        "Unable to parse %s using format %s with a sub cycle", name, format));
+            return parsePeriod(name.substring(0, dot)) * subCycles + Integer.parseInt(name.substring(dot + 1));
+        }
+        return parsePeriod(name);
+    }
+
+    private int parsePeriod(@NotNull String name) {
         try {
             TemporalAccessor parse = formatter.parse(name);
 
@@ -124,11 +140,15 @@ public class RollingResourcesCache {
             return cachedValue;
         }
 
-        final TemporalAccessor parse = formatter.parse(fileToName.apply(file));
         final long value;
-        if (length == ONE_DAY_IN_MILLIS) {
+        if (subCycles > 1) {
+            // the cycle, as the time alone doesn't identify the file.
+            value = parseCount(fileToName.apply(file));
+        } else if (length == ONE_DAY_IN_MILLIS) {
+            final TemporalAccessor parse = formatter.parse(fileToName.apply(file));
             value = parse.getLong(ChronoField.EPOCH_DAY);
         } else {
+            final TemporalAccessor parse = formatter.parse(fileToName.apply(file));
             value = Instant.from(parse).toEpochMilli() / length;
         }
         if (filenameToTimestampCache.size() >= MAX_TIMESTAMP_CACHE_SIZE) {
@@ -150,13 +170,15 @@ public class RollingResourcesCache {
     }
 
     public static class Resource {
+        public final long cycle;
         public final long millis;
         public final String text;
         public final File path;
         public final File parentPath;
         public boolean pathExists;
 
-        Resource(long millis, String text, File path) {
+        Resource(long cycle, long millis, String text, File path) {
+            this.cycle = cycle;
             this.millis = millis;
             this.text = text;
             this.path = path;
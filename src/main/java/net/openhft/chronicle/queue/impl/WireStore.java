@@ -15,6 +15,7 @@
  */
 package net.openhft.chronicle.queue.impl;
 
+import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.queue.impl.single.ScanResult;
 import net.openhft.chronicle.wire.UnrecoverableTimeoutException;
 import net.openhft.chronicle.wire.Wire;
@@ -24,6 +25,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.StreamCorruptedException;
 
 public interface WireStore extends CommonStore {
+    int UNKNOWN_CYCLE = Integer.MIN_VALUE;
 
     /**
      * @param position the start of the last written excerpt to this cycle/store
@@ -67,4 +69,35 @@ public interface WireStore extends CommonStore {
     long moveToEndForRead(@NotNull Wire w);
 
     void initIndex(Wire wire);
+
+    /**
+     * @return a new instance of bytes for the index if it is held in a separate file, otherwise {@code null}
+     */
+    @Nullable
+    default MappedBytes indexBytes() {
+        return null;
+    }
+
+    /**
+     * @return true if every data excerpt of this store ends with a checksum of its content, which isn't part of the
+     * excerpt as read.
+     */
+    default boolean checksums() {
+        return false;
+    }
+
+    /**
+     * @return the cycle this store was acquired for, or {@link #UNKNOWN_CYCLE}
+     */
+    default int cycle() {
+        return UNKNOWN_CYCLE;
+    }
+
+    /**
+     * Records the cycle this store was acquired for so it can be released without a search.
+     *
+     * @param cycle of this store
+     */
+    default void cycle(int cycle) {
+    }
 }
@@ -17,35 +17,37 @@ package net.openhft.chronicle.queue.impl;
 
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.annotation.Nullable;
-import net.openhft.chronicle.queue.RollDetails;
 import net.openhft.chronicle.queue.TailerDirection;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.text.ParseException;
-import java.util.Map;
 import java.util.NavigableSet;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
 
+/**
+ * Holds the stores acquired for each cycle. Stores are held by cycle in a fixed number of slots, an acquire of a
+ * store which is already held is lock free, and creating or removing a store only locks the slot for its cycle.
+ * A store is released in O(1) using its {@link WireStore#cycle()}.
+ */
 public class WireStorePool implements StoreReleasable {
     // must be power-of-two
-    private static final int ROLL_CYCLE_CACHE_SIZE = 64;
-    private static final int INDEX_MASK = ROLL_CYCLE_CACHE_SIZE - 1;
+    private static final int SLOTS = 64;
+    private static final int INDEX_MASK = SLOTS - 1;
     @NotNull
     private final WireStoreSupplier supplier;
-    @NotNull
-    private final Map<RollDetails, WeakReference<WireStore>> stores;
     private final StoreFileListener storeFileListener;
-    // protected by synchronized on acquire()
-    private final RollDetails[] cache = new RollDetails[ROLL_CYCLE_CACHE_SIZE];
-    private boolean isClosed = false;
+    // each slot holds an immutable chain of the stores for cycles with the same low bits.
+    private final AtomicReferenceArray<StoreEntry> slots = new AtomicReferenceArray<>(SLOTS);
+    private final Object[] locks = new Object[SLOTS];
+    private volatile boolean isClosed = false;
 
     private WireStorePool(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener) {
         this.supplier = supplier;
         this.storeFileListener = storeFileListener;
-        this.stores = new ConcurrentHashMap<>();
+        for (int i = 0; i < SLOTS; i++)
+            locks[i] = new Object();
     }
 
     @NotNull
@@ -53,54 +55,91 @@ public class WireStorePool implements StoreReleasable {
         return new WireStorePool(supplier, storeFileListener);
     }
 
-    private static int cacheIndex(final int cycle) {
+    private static int slotIndex(final int cycle) {
         return cycle & INDEX_MASK;
     }
 
-    public synchronized void close() {
+    public void close() {
         if (isClosed)
             return;
         isClosed = true;
 
-        stores.values().stream()
-                .map(Reference::get)
-                .filter(Objects::nonNull)
-                .forEach(this::release);
+        for (int i = 0; i < SLOTS; i++) {
+            for (StoreEntry entry = slots.get(i); entry != null; entry = entry.next) {
+                WireStore store = entry.get();
+                if (store != null)
+                    release(store);
+            }
+        }
     }
 
     @org.jetbrains.annotations.Nullable
     @Nullable
-    public synchronized WireStore acquire(final int cycle, final long epoch, boolean createIfAbsent) {
-        final int cacheIndex = cacheIndex(cycle);
-        RollDetails rollDetails;
-        rollDetails = cache[cacheIndex];
-        if (rollDetails == null || rollDetails.cycle() != cycle) {
-            rollDetails = new RollDetails(cycle, epoch);
-            cache[cacheIndex] = rollDetails;
-        }
-
-        WeakReference<WireStore> reference = stores.get(rollDetails);
-        WireStore store;
-        if (reference != null) {
-            store = reference.get();
+    public WireStore acquire(final int cycle, final long epoch, boolean createIfAbsent) {
+        final int slotIndex = slotIndex(cycle);
+        WireStore store = reserve(slots.get(slotIndex), cycle);
+        if (store != null)
+            return store;
+
+        synchronized (locks[slotIndex]) {
+            StoreEntry head = slots.get(slotIndex);
+            store = reserve(head, cycle);
+            if (store != null)
+                return store;
+
+            store = this.supplier.acquire(cycle, createIfAbsent);
             if (store != null) {
-                if (store.tryReserve())
-                    return store;
-                else
-                    /// this should never happen,
-                    // this method is synchronized
-                    // and this remove below, is only any use if the acquire method below that fails
-                    Jvm.warn().on(getClass(), "Logic failure - should never happen "+store);
-                    stores.remove(rollDetails);
+                store.cycle(cycle);
+                slots.set(slotIndex, new StoreEntry(cycle, store, without(head, cycle, null)));
+                storeFileListener.onAcquired(cycle, store.file());
             }
+            return store;
         }
+    }
 
-        store = this.supplier.acquire(cycle, createIfAbsent);
-        if (store != null) {
-            stores.put(rollDetails, new WeakReference<>(store));
-            storeFileListener.onAcquired(cycle, store.file());
+    private static WireStore reserve(StoreEntry entry, int cycle) {
+        for (; entry != null; entry = entry.next) {
+            if (entry.cycle != cycle)
+                continue;
+            WireStore store = entry.get();
+            // fails once the last reference has been released, that store is on its way out.
+            if (store != null && store.tryReserve())
+                return store;
+        }
+        return null;
+    }
+
+    /**
+     * @return a copy of the chain without the entries for the cycle, or only the entry for the store if not null
+     */
+    private static StoreEntry without(StoreEntry entry, int cycle, CommonStore store) {
+        if (entry == null)
+            return null;
+        StoreEntry next = without(entry.next, cycle, store);
+        WireStore value = entry.get();
+        boolean remove = value == null
+                || (entry.cycle == cycle && (store == null || value == store));
+        if (remove)
+            return next;
+        return next == entry.next ? entry : new StoreEntry(entry.cycle, value, next);
+    }
+
+    /**
+     * Runs an action on the files of a cycle while this pool holds no store for it. The slot for the cycle is
+     * locked while the action runs so no store for the cycle can be acquired until it completes.
+     *
+     * @return false if a store for the cycle is held, otherwise the result of the action.
+     */
+    public boolean ifNotAcquired(final int cycle, @NotNull BooleanSupplier action) {
+        final int slotIndex = slotIndex(cycle);
+        synchronized (locks[slotIndex]) {
+            for (StoreEntry entry = slots.get(slotIndex); entry != null; entry = entry.next) {
+                WireStore store = entry.get();
+                if (entry.cycle == cycle && store != null && store.refCount() > 0)
+                    return false;
+            }
+            return action.getAsBoolean();
         }
-        return store;
     }
 
     public int nextCycle(final int currentCycle, @NotNull TailerDirection direction) throws ParseException {
@@ -108,22 +147,39 @@ public class WireStorePool implements StoreReleasable {
     }
 
     @Override
-    public synchronized void release(@NotNull CommonStore store) {
-        store.release();
-
-        long refCount = store.refCount();
-        assert refCount >= 0;
-        if (refCount == 0) {
-            for (Map.Entry<RollDetails, WeakReference<WireStore>> entry : stores.entrySet()) {
-                WeakReference<WireStore> ref = entry.getValue();
-                if (ref != null && ref.get() == store) {
-                    stores.remove(entry.getKey());
-                    storeFileListener.onReleased(entry.getKey().cycle(), store.file());
-                    return;
+    public void release(@NotNull CommonStore store) {
+        int cycle = store instanceof WireStore ? ((WireStore) store).cycle() : WireStore.UNKNOWN_CYCLE;
+        if (cycle == WireStore.UNKNOWN_CYCLE) {
+            for (int i = 0; i < SLOTS; i++) {
+                for (StoreEntry entry = slots.get(i); entry != null; entry = entry.next) {
+                    if (entry.get() == store) {
+                        cycle = entry.cycle;
+                        break;
+                    }
                 }
             }
-            if (Jvm.isDebugEnabled(getClass()))
-                Jvm.debug().on(getClass(), "Store was not registered: " + store.file());
+            if (cycle == WireStore.UNKNOWN_CYCLE) {
+                store.release();
+                if (store.refCount() == 0 && Jvm.isDebugEnabled(getClass()))
+                    Jvm.debug().on(getClass(), "Store was not registered: " + store.file());
+                return;
+            }
+        }
+
+        // released under the lock of the slot, so the last release and its listener call are ordered with the
+        // acquisition of a new store for the cycle.
+        final int slotIndex = slotIndex(cycle);
+        synchronized (locks[slotIndex]) {
+            store.release();
+
+            long refCount = store.refCount();
+            assert refCount >= 0;
+            if (refCount != 0)
+                return;
+
+            StoreEntry head = slots.get(slotIndex);
+            slots.set(slotIndex, without(head, cycle, store));
+            storeFileListener.onReleased(cycle, store.file());
         }
     }
 
@@ -139,6 +195,23 @@ public class WireStorePool implements StoreReleasable {
     }
 
     public boolean isEmpty() {
-        return stores.isEmpty();
+        for (int i = 0; i < SLOTS; i++) {
+            for (StoreEntry entry = slots.get(i); entry != null; entry = entry.next) {
+                if (entry.get() != null)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    static final class StoreEntry extends WeakReference<WireStore> {
+        final int cycle;
+        final StoreEntry next;
+
+        StoreEntry(int cycle, WireStore store, StoreEntry next) {
+            super(store);
+            this.cycle = cycle;
+            this.next = next;
+        }
     }
 }
@@ -0,0 +1,273 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static net.openhft.chronicle.queue.impl.single.CycleArchiver.*;
+
+/**
+ * Reads the excerpts of a cycle archived by {@link CycleArchiver} without restoring the cycle file.
+ * <p>
+ * Only the block holding the requested excerpt is inflated, into a buffer which is reused for every block. This
+ * class is not thread safe.
+ */
+public final class ArchivedCycleReader implements Closeable {
+    @NotNull
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final Inflater inflater = new Inflater();
+    private final int indexSpacing;
+    private final long length;
+    private final long excerpts;
+    private final long[] firstSequences;
+    private final int[] lengths;
+    private final long[] compressedOffsets;
+    private final int[] compressedLengths;
+    private byte[] compressed = new byte[1 << 16];
+    private byte[] inflated = new byte[1 << 16];
+    private int block = -1;
+    private int position;
+    private long sequence;
+    private long blocksInflated;
+
+    public ArchivedCycleReader(@NotNull File file) throws IOException {
+        this.file = file;
+        raf = new RandomAccessFile(file, "r");
+        channel = raf.getChannel();
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + FOOTER_SIZE)
+                throw new StreamCorruptedException(file + " is too short to be an archived cycle");
+            ByteBuffer header = read(0, HEADER_SIZE);
+            if (header.getInt() != MAGIC)
+                throw new StreamCorruptedException(file + " is not an archived cycle");
+            if (header.getInt() != VERSION)
+                throw new StreamCorruptedException(file + " has an unsupported version");
+            indexSpacing = header.getInt();
+
+            ByteBuffer footer = read(size - FOOTER_SIZE, FOOTER_SIZE);
+            long directoryOffset = footer.getLong();
+            int blocks = footer.getInt();
+            length = footer.getLong();
+            excerpts = footer.getLong();
+            if (footer.getInt() != MAGIC)
+                throw new StreamCorruptedException(file + " is incomplete");
+
+            firstSequences = new long[blocks];
+            lengths = new int[blocks];
+            compressedOffsets = new long[blocks];
+            compressedLengths = new int[blocks];
+            ByteBuffer directory = read(directoryOffset, blocks * DIRECTORY_ENTRY_SIZE);
+            for (int i = 0; i < blocks; i++) {
+                firstSequences[i] = directory.getLong();
+                directory.getLong(); // the offset of the block in the cycle file
+                lengths[i] = directory.getInt();
+                compressedOffsets[i] = directory.getLong();
+                compressedLengths[i] = directory.getInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private static int intAt(@NotNull byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    @NotNull
+    private ByteBuffer read(long offset, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        read(offset, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void read(long offset, @NotNull ByteBuffer buffer) throws IOException {
+        while (buffer.remaining() > 0) {
+            int n = channel.read(buffer, offset);
+            if (n < 0)
+                throw new EOFException("Unexpected end of " + file);
+            offset += n;
+        }
+    }
+
+    private void loadBlock(int block) throws IOException {
+        if (this.block == block)
+            return;
+        // the buffer is overwritten, so no block is loaded until this one inflates cleanly.
+        this.block = -1;
+        int compressedLength = compressedLengths[block];
+        if (compressed.length < compressedLength)
+            compressed = new byte[compressedLength];
+        read(compressedOffsets[block], ByteBuffer.wrap(compressed, 0, compressedLength));
+
+        int length = lengths[block];
+        if (inflated.length < length)
+            inflated = new byte[length];
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflatedLength = 0;
+            while (inflatedLength < length && !inflater.finished()) {
+                int n = inflater.inflate(inflated, inflatedLength, length - inflatedLength);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                inflatedLength += n;
+            }
+            if (inflatedLength != length)
+                throw new StreamCorruptedException("Block " + block + " of " + file + " inflated to " +
+                        inflatedLength + " bytes, expected " + length);
+        } catch (DataFormatException e) {
+            throw new StreamCorruptedException("Block " + block + " of " + file + " is corrupt, " + e.getMessage());
+        }
+        this.block = block;
+        blocksInflated++;
+    }
+
+    /**
+     * Moves to an excerpt so it is the next one read.
+     *
+     * @param sequence the sequence number of the excerpt within the cycle.
+     * @return false if the cycle has no such excerpt.
+     */
+    public boolean moveToSequence(long sequence) throws IOException {
+        if (sequence < 0 || sequence >= excerpts)
+            return false;
+        int lo = 0, hi = firstSequences.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (firstSequences[mid] <= sequence)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        loadBlock(lo);
+        long s = firstSequences[lo];
+        for (int pos = 0, end = lengths[lo]; pos + 4 <= end; ) {
+            int header = intAt(inflated, pos);
+            if (header == Wires.END_OF_DATA)
+                break;
+            if (Wires.isData(header)) {
+                if (s == sequence) {
+                    this.position = pos;
+                    this.sequence = sequence;
+                    return true;
+                }
+                s++;
+            }
+            pos += Wires.lengthOf(header) + 4;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next excerpt, moving on to the next block as needed.
+     *
+     * @param using to append the content of the excerpt to.
+     * @return false if there are no more excerpts in this cycle.
+     */
+    public boolean readExcerpt(@NotNull Bytes<?> using) throws IOException {
+        if (block < 0) {
+            if (firstSequences.length == 0)
+                return false;
+            loadBlock(0);
+            position = 0;
+            sequence = 0;
+        }
+        for (; ; ) {
+            if (position + 4 > lengths[block]) {
+                if (block + 1 >= lengths.length)
+                    return false;
+                loadBlock(block + 1);
+                position = 0;
+                continue;
+            }
+            int header = intAt(inflated, position);
+            if (header == Wires.END_OF_DATA)
+                return false;
+            int len = Wires.lengthOf(header);
+            if (Wires.isData(header)) {
+                using.write(inflated, position + 4, len);
+                position += len + 4;
+                sequence++;
+                return true;
+            }
+            position += len + 4;
+        }
+    }
+
+    /**
+     * Writes the original cycle file content.
+     */
+    void writeTo(@NotNull OutputStream out) throws IOException {
+        for (int i = 0; i < lengths.length; i++) {
+            loadBlock(i);
+            out.write(inflated, 0, lengths[i]);
+        }
+    }
+
+    /**
+     * @return the sequence number of the next excerpt read.
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the number of excerpts in the cycle.
+     */
+    public long excerpts() {
+        return excerpts;
+    }
+
+    /**
+     * @return the size of the original cycle file content.
+     */
+    public long length() {
+        return length;
+    }
+
+    public int indexSpacing() {
+        return indexSpacing;
+    }
+
+    public int blocks() {
+        return lengths.length;
+    }
+
+    /**
+     * @return how many times a block has been inflated by this reader.
+     */
+    public long blocksInflated() {
+        return blocksInflated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        raf.close();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "ArchivedCycleReader{" +
+                "file=" + file +
+                ", blocks=" + lengths.length +
+                ", excerpts=" + excerpts +
+                ", length=" + length +
+                '}';
+    }
+}
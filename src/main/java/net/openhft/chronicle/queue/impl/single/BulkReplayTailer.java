@@ -0,0 +1,271 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.NativeBytesStore;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Replays the sealed cycles of a queue, i.e. every cycle before the last, without memory mapping them.
+ * <p>
+ * Each cycle file is read sequentially with a {@link FileChannel} into one reusable off heap buffer, and the excerpts
+ * are parsed from that buffer, each read starting at the page holding the next excerpt. Cycles archived by
+ * {@link CycleArchiver} are read with an {@link ArchivedCycleReader}.
+ * <p>
+ * This is meant for batch jobs reading a lot of history: no mappings or chunks are held while replaying, so the
+ * history read doesn't add to the mapped memory of this process. The reads still go through the page cache, as
+ * direct I/O isn't available on Java 8. This class is not thread safe.
+ * <p>
+ * Excerpts are read as they are held in the file, so those of a cycle written with
+ * {@link SingleChronicleQueueBuilder#checksums()} end with their checksum.
+ */
+public final class BulkReplayTailer implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = Integer.getInteger("chronicle.queue.bulkReplay.bufferSize", 4 << 20);
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private NativeBytesStore<ByteBuffer> buffer;
+    private int cycle = Integer.MIN_VALUE;
+    @Nullable
+    private File file;
+    @Nullable
+    private RandomAccessFile raf;
+    @Nullable
+    private ArchivedCycleReader archivedReader;
+    private long fileSize;
+    // the offset in the file of the start of the buffer, and the limit of what was read into it.
+    private long bufferOffset;
+    private int bufferLimit;
+    private long position;
+    private long sequence;
+    private long index = -1;
+    private long bytesRead;
+
+    public BulkReplayTailer(@NotNull SingleChronicleQueue queue) {
+        this(queue, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize the size of the buffer read into, rounded up to whole pages. It grows to hold the largest
+     *                   excerpt.
+     */
+    public BulkReplayTailer(@NotNull SingleChronicleQueue queue, int bufferSize) {
+        this.queue = queue;
+        this.buffer = allocate(bufferSize);
+    }
+
+    @NotNull
+    private static NativeBytesStore<ByteBuffer> allocate(long size) {
+        int capacity = Math.toIntExact(OS.pageAlign(Math.max(OS.pageSize(), size)));
+        return NativeBytesStore.elasticByteBuffer(capacity, capacity);
+    }
+
+    /**
+     * @return the cycle files which are no longer written to, by cycle.
+     */
+    @NotNull
+    private TreeMap<Integer, File> sealedCycles() {
+        int lastCycle = queue.lastCycle();
+        TreeMap<Integer, File> cycles = new TreeMap<>();
+        for (File f : SingleChronicleQueue.listCycleFiles(queue.path, queue.cycleDirectories())) {
+            int c = queue.fileToCycle(f);
+            if (c >= lastCycle)
+                continue;
+            // prefer the cycle file to its archive, in case it is being archived.
+            File existing = cycles.get(c);
+            if (existing == null || f.getName().endsWith(SingleChronicleQueue.SUFFIX))
+                cycles.put(c, f);
+        }
+        return cycles;
+    }
+
+    /**
+     * Moves to the start of the first sealed cycle at or after this cycle.
+     *
+     * @return false if there is no such cycle.
+     */
+    public boolean moveToCycle(int cycle) throws IOException {
+        Map.Entry<Integer, File> entry = sealedCycles().ceilingEntry(cycle);
+        closeCycle();
+        if (entry == null) {
+            this.cycle = Integer.MAX_VALUE;
+            return false;
+        }
+        openCycle(entry.getKey(), entry.getValue());
+        return true;
+    }
+
+    private boolean nextCycle() throws IOException {
+        Map.Entry<Integer, File> entry = cycle == Integer.MIN_VALUE
+                ? sealedCycles().firstEntry()
+                : cycle == Integer.MAX_VALUE ? null : sealedCycles().higherEntry(cycle);
+        closeCycle();
+        if (entry == null)
+            return false;
+        openCycle(entry.getKey(), entry.getValue());
+        return true;
+    }
+
+    private void openCycle(int cycle, @NotNull File file) throws IOException {
+        this.cycle = cycle;
+        this.file = file;
+        this.sequence = 0;
+        if (file.getName().endsWith(SingleChronicleQueue.ARCHIVE_SUFFIX)) {
+            archivedReader = new ArchivedCycleReader(file);
+            return;
+        }
+        raf = new RandomAccessFile(file, "r");
+        fileSize = raf.length();
+        bufferOffset = 0;
+        bufferLimit = 0;
+        // the first header is the metadata of the store.
+        position = 0;
+    }
+
+    private void closeCycle() throws IOException {
+        try {
+            if (raf != null)
+                raf.close();
+            if (archivedReader != null)
+                archivedReader.close();
+        } finally {
+            raf = null;
+            archivedReader = null;
+            file = null;
+        }
+    }
+
+    /**
+     * Makes sure the buffer holds the bytes from position to position + length.
+     *
+     * @return false if the file is shorter than that.
+     */
+    private boolean fill(long length) throws IOException {
+        if (position >= bufferOffset && position + length <= bufferOffset + bufferLimit)
+            return true;
+        if (position + length > fileSize)
+            return false;
+
+        long pageSize = OS.pageSize();
+        long offset = position / pageSize * pageSize;
+        long required = position + length - offset;
+        if (required > buffer.realCapacity()) {
+            buffer.release();
+            buffer = allocate(required);
+        }
+
+        ByteBuffer bb = buffer.underlyingObject();
+        bb.clear();
+        bb.limit((int) Math.min(bb.capacity(), fileSize - offset));
+        FileChannel channel = raf.getChannel();
+        for (long o = offset; bb.remaining() > 0; ) {
+            int n = channel.read(bb, o);
+            if (n < 0)
+                break;
+            o += n;
+        }
+        bufferOffset = offset;
+        bufferLimit = bb.position();
+        bytesRead += bufferLimit;
+        return position + length <= bufferOffset + bufferLimit;
+    }
+
+    /**
+     * Reads the next excerpt, moving on to the next sealed cycle as needed.
+     *
+     * @param using to append the content of the excerpt to.
+     * @return false if all the sealed cycles have been read.
+     */
+    public boolean readExcerpt(@NotNull Bytes<?> using) throws IOException {
+        for (; ; ) {
+            if (file == null && !nextCycle())
+                return false;
+            if (archivedReader != null ? readArchivedExcerpt(using) : readCycleExcerpt(using))
+                return true;
+            closeCycle();
+        }
+    }
+
+    private boolean readArchivedExcerpt(@NotNull Bytes<?> using) throws IOException {
+        long s = archivedReader.sequence();
+        if (!archivedReader.readExcerpt(using))
+            return false;
+        index = queue.rollCycle().toIndex(cycle, s);
+        return true;
+    }
+
+    private boolean readCycleExcerpt(@NotNull Bytes<?> using) throws IOException {
+        for (; ; ) {
+            if (!fill(4))
+                return false;
+            int header = buffer.readVolatileInt(position - bufferOffset);
+            if (header == 0 || header == Wires.END_OF_DATA)
+                return false;
+            if (Wires.isNotComplete(header))
+                throw new StreamCorruptedException("Incomplete excerpt at " + position + " of sealed cycle " + file);
+            int len = Wires.lengthOf(header);
+            if (Wires.isData(header)) {
+                if (!fill(4L + len))
+                    throw new StreamCorruptedException("Truncated excerpt at " + position + " of " + file);
+                using.write(buffer, position - bufferOffset + 4, len);
+                index = queue.rollCycle().toIndex(cycle, sequence++);
+                position += len + 4;
+                return true;
+            }
+            position += len + 4;
+        }
+    }
+
+    /**
+     * @return the index of the last excerpt read, or -1 if none has been read.
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * @return the cycle being read.
+     */
+    public int cycle() {
+        return cycle;
+    }
+
+    /**
+     * @return the number of bytes read from cycle files so far.
+     */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closeCycle();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "BulkReplayTailer{" +
+                "queue=" + queue.fileAbsolutePath() +
+                ", cycle=" + cycle +
+                ", index=" + Long.toHexString(index) +
+                ", bytesRead=" + bytesRead +
+                '}';
+    }
+}
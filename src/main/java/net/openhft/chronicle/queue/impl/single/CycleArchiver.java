@@ -0,0 +1,326 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueue.ARCHIVE_SUFFIX;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueue.SUFFIX;
+
+/**
+ * Converts sealed cycle files into the block compressed, seekable {@code .cq4z} format.
+ * <p>
+ * A sealed cycle is split into blocks which always start at an excerpt whose sequence number is a multiple of the
+ * index spacing, so a block lines up with the groups of excerpts the cycle's index points to. Each block is
+ * compressed on its own and the file ends with a directory of the blocks, so a reader only has to inflate the
+ * block holding the excerpt it wants, see {@link ArchivedCycleReader}.
+ * <p>
+ * Once archived, the {@code .cq4} file can be deleted. A queue built with
+ * {@link SingleChronicleQueueBuilder#archivedCycles(boolean)} treats the {@code .cq4z} file as the cycle, and a
+ * tailer reads it a block at a time as it needs them. The {@code .cq4} file is only restored when the store of the
+ * cycle itself is needed, e.g. by {@link SingleChronicleQueue#storeForCycle}. Restored files are removed again the
+ * next time the archiver runs with {@link #deleteSource(boolean)} set. A separate {@code .cq4i} index file is
+ * never archived or deleted.
+ * <p>
+ * Layout, big endian:
+ * <pre>
+ * header:    int magic, int version, int indexSpacing
+ * blocks:    deflated bytes of each block
+ * directory: per block long firstSequence, long offset, int length, long compressedOffset, int compressedLength
+ * footer:    long directoryOffset, int blocks, long length, long excerpts, int magic
+ * </pre>
+ */
+public final class CycleArchiver {
+    static final int MAGIC = 0x43513441; // CQ4A
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int FOOTER_SIZE = 32;
+    static final int DIRECTORY_ENTRY_SIZE = 32;
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private int blockSize = 256 << 10;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private boolean deleteSource = false;
+
+    private CycleArchiver(@NotNull SingleChronicleQueue queue) {
+        this.queue = queue;
+    }
+
+    @NotNull
+    public static CycleArchiver of(@NotNull SingleChronicleQueue queue) {
+        return new CycleArchiver(queue);
+    }
+
+    /**
+     * @return the archive file for a cycle file.
+     */
+    @NotNull
+    public static File archiveFileFor(@NotNull File cycleFile) {
+        String name = cycleFile.getName();
+        return new File(cycleFile.getParentFile(), name.substring(0, name.length() - SUFFIX.length()) + ARCHIVE_SUFFIX);
+    }
+
+    /**
+     * @return the cycle file an archive file restores to.
+     */
+    @NotNull
+    public static File cycleFileFor(@NotNull File archiveFile) {
+        String name = archiveFile.getName();
+        return new File(archiveFile.getParentFile(), name.substring(0, name.length() - ARCHIVE_SUFFIX.length()) + SUFFIX);
+    }
+
+    /**
+     * Archives a single cycle file.
+     *
+     * @param blockSize the uncompressed size a block grows to before the next index spacing boundary ends it.
+     * @return false if the cycle has not been sealed yet, in which case nothing is written.
+     */
+    public static boolean archive(@NotNull File cycleFile, @NotNull File archiveFile, int indexSpacing, int blockSize,
+                                  int compressionLevel) throws IOException {
+        File tmp = new File(archiveFile.getPath() + ".tmp");
+        boolean sealed = false;
+        Deflater deflater = new Deflater(compressionLevel);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cycleFile), 1 << 16));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(indexSpacing);
+
+            BlockWriter writer = new BlockWriter(out, deflater, HEADER_SIZE);
+            long sequence = 0;
+            long length = cycleFile.length();
+            for (long position = 0; position + 4 <= length; ) {
+                int header = Integer.reverseBytes(in.readInt());
+                if (header == Wires.END_OF_DATA) {
+                    writer.append(header, in, 0);
+                    sealed = true;
+                    break;
+                }
+                if (header == 0 || Wires.isNotComplete(header))
+                    break;
+                int len = Wires.lengthOf(header);
+                if (Wires.isData(header)) {
+                    if (sequence % indexSpacing == 0 && writer.length >= blockSize)
+                        writer.flush(sequence);
+                    sequence++;
+                }
+                writer.append(header, in, len);
+                position += len + 4;
+            }
+            if (sealed) {
+                writer.flush(sequence);
+                long directoryOffset = writer.compressedOffset;
+                for (long[] block : writer.blocks) {
+                    out.writeLong(block[0]);
+                    out.writeLong(block[1]);
+                    out.writeInt((int) block[2]);
+                    out.writeLong(block[3]);
+                    out.writeInt((int) block[4]);
+                }
+                out.writeLong(directoryOffset);
+                out.writeInt(writer.blocks.size());
+                out.writeLong(writer.offset);
+                out.writeLong(sequence);
+                out.writeInt(MAGIC);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        if (!sealed) {
+            Files.deleteIfExists(tmp.toPath());
+            return false;
+        }
+        //noinspection ResultOfMethodCallIgnored
+        tmp.setLastModified(cycleFile.lastModified());
+        Files.move(tmp.toPath(), archiveFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * Restores a cycle file from its archive. The file is written under a temporary name and renamed so other
+     * threads and processes never see it partly written.
+     */
+    public static void restore(@NotNull File archiveFile, @NotNull File cycleFile) throws IOException {
+        File tmp = new File(cycleFile.getPath() + "." + System.nanoTime() + ".tmp");
+        try (ArchivedCycleReader reader = new ArchivedCycleReader(archiveFile);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16)) {
+            reader.writeTo(out);
+        }
+        //noinspection ResultOfMethodCallIgnored
+        tmp.setLastModified(archiveFile.lastModified());
+        try {
+            Files.move(tmp.toPath(), cycleFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    /**
+     * @param blockSize the uncompressed size a block grows to before the next index spacing boundary ends it.
+     */
+    @NotNull
+    public CycleArchiver blockSize(int blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * @param threads the number of cycles compressed in parallel.
+     */
+    @NotNull
+    public CycleArchiver threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param compressionLevel a {@link Deflater} compression level.
+     */
+    @NotNull
+    public CycleArchiver compressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     * @param deleteSource whether to delete the {@code .cq4} files of archived cycles.
+     */
+    @NotNull
+    public CycleArchiver deleteSource(boolean deleteSource) {
+        this.deleteSource = deleteSource;
+        return this;
+    }
+
+    /**
+     * Archives every sealed cycle of the queue which has not been archived yet, one cycle per thread, in whichever of
+     * the queue's directories it is, next to its cycle file. The last cycle is never archived.
+     *
+     * @return the cycles archived.
+     */
+    @NotNull
+    public int[] archiveSealedCycles() throws IOException {
+        List<File> files = new ArrayList<>();
+        for (File file : SingleChronicleQueue.listCycleFiles(queue.path, queue.cycleDirectories()))
+            if (file.getName().endsWith(SUFFIX))
+                files.add(file);
+        if (files.size() < 2)
+            return new int[0];
+        // by cycle, as they can be in different directories.
+        files.sort(Comparator.comparingInt(queue::fileToCycle));
+        List<File> toArchive = new ArrayList<>();
+        // the last cycle is skipped as it might still be written to.
+        for (int i = 0; i < files.size() - 1; i++) {
+            File file = files.get(i);
+            File archiveFile = archiveFileFor(file);
+            if (!archiveFile.exists())
+                toArchive.add(file);
+            else if (deleteSource)
+                deleteSource(file);
+        }
+
+        ExecutorService service = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, toArchive.size())),
+                new NamedThreadFactory(queue.path.getName() + "-archiver", true));
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (File file : toArchive)
+                futures.add(service.submit(() ->
+                        archive(file, archiveFileFor(file), queue.indexSpacing(), blockSize, compressionLevel)));
+
+            int[] cycles = new int[toArchive.size()];
+            int count = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                File file = toArchive.get(i);
+                if (!futures.get(i).get())
+                    continue;
+                cycles[count++] = queue.fileToCycle(file);
+                if (deleteSource)
+                    deleteSource(file);
+            }
+            return Arrays.copyOf(cycles, count);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+
+        } catch (Exception e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            throw Jvm.rethrow(cause);
+
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    private void deleteSource(@NotNull File file) {
+        // a store still mapped keeps its data until it is released, where the OS allows the file to be deleted.
+        if (!file.delete())
+            Jvm.warn().on(getClass(), "Unable to delete " + file + " after archiving it");
+    }
+
+    static final class BlockWriter {
+        final List<long[]> blocks = new ArrayList<>();
+        private final DataOutputStream out;
+        private final Deflater deflater;
+        private final byte[] compressed = new byte[1 << 16];
+        long compressedOffset;
+        long offset;
+        int length;
+        private byte[] block = new byte[1 << 16];
+        private long firstSequence;
+
+        BlockWriter(DataOutputStream out, Deflater deflater, long compressedOffset) {
+            this.out = out;
+            this.deflater = deflater;
+            this.compressedOffset = compressedOffset;
+        }
+
+        void append(int header, @NotNull DataInputStream in, int len) throws IOException {
+            int required = length + 4 + len;
+            if (required > block.length)
+                block = Arrays.copyOf(block, Math.max(required, block.length * 2));
+            block[length++] = (byte) header;
+            block[length++] = (byte) (header >>> 8);
+            block[length++] = (byte) (header >>> 16);
+            block[length++] = (byte) (header >>> 24);
+            in.readFully(block, length, len);
+            length += len;
+        }
+
+        void flush(long nextSequence) throws IOException {
+            if (length == 0)
+                return;
+            deflater.reset();
+            deflater.setInput(block, 0, length);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                int n = deflater.deflate(compressed);
+                out.write(compressed, 0, n);
+                compressedLength += n;
+            }
+            blocks.add(new long[]{firstSequence, offset, length, compressedOffset, compressedLength});
+            compressedOffset += compressedLength;
+            offset += length;
+            length = 0;
+            firstSequence = nextSequence;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps the cycle files of a queue, in the queue directory and its stripes and tiers, up to date with a
+ * {@link WatchService}, which is backed by inotify on Linux, rather than listing the directories again whenever they
+ * might have changed. Each event only looks up the cycle it is for, and a full listing is only needed if events are
+ * lost.
+ * <p>
+ * One watcher is shared by every queue in this process for the same directory with the same stripes and tiers.
+ */
+final class CycleDirectoryWatcher {
+    // how often directories which don't exist yet are checked for.
+    static final long PENDING_CHECK_MS = Long.getLong("chronicle.queue.directoryWatcher.pendingMS", 1000);
+    private static final Map<List<File>, CycleDirectoryWatcher> WATCHERS = new HashMap<>();
+
+    @NotNull
+    private final File queueDir;
+    // the queue directory first, in the order a cycle file is looked for.
+    @NotNull
+    private final List<File> directories;
+    @NotNull
+    private final Function<File, Long> toKey;
+    @NotNull
+    private final ToIntFunction<File> toCycle;
+    private final ConcurrentSkipListMap<Long, File> cycleTree = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, File> cycleTreeView = Collections.unmodifiableNavigableMap(cycleTree);
+    private final AtomicLong modCount = new AtomicLong();
+    // directories which couldn't be watched yet as they don't exist.
+    private final List<File> pending = new CopyOnWriteArrayList<>();
+    @NotNull
+    private final WatchService watchService;
+    @NotNull
+    private final Thread thread;
+    private int references;
+
+    private CycleDirectoryWatcher(@NotNull List<File> directories,
+                                  @NotNull Function<File, Long> toKey,
+                                  @NotNull ToIntFunction<File> toCycle) {
+        this.queueDir = directories.get(0);
+        this.directories = directories;
+        this.toKey = toKey;
+        this.toCycle = toCycle;
+        try {
+            this.watchService = queueDir.toPath().getFileSystem().newWatchService();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // watch before listing, so no file is missed.
+        for (File directory : directories) {
+            if (!register(directory))
+                pending.add(directory);
+        }
+        rescan();
+        this.thread = new NamedThreadFactory(queueDir.getName() + "-directory-watcher", true).newThread(this::run);
+    }
+
+    /**
+     * @return the watcher for this queue directory and these other directories, which must be released once no
+     * longer used.
+     */
+    @NotNull
+    static CycleDirectoryWatcher acquire(@NotNull File queueDir,
+                                         @NotNull List<File> otherDirectories,
+                                         @NotNull Function<File, Long> toKey,
+                                         @NotNull ToIntFunction<File> toCycle) {
+        List<File> key = new ArrayList<>();
+        key.add(queueDir.getAbsoluteFile());
+        for (File directory : otherDirectories)
+            key.add(directory.getAbsoluteFile());
+        key = Collections.unmodifiableList(key);
+        synchronized (WATCHERS) {
+            CycleDirectoryWatcher watcher = WATCHERS.get(key);
+            if (watcher == null) {
+                watcher = new CycleDirectoryWatcher(key, toKey, toCycle);
+                watcher.thread.start();
+                WATCHERS.put(key, watcher);
+            }
+            watcher.references++;
+            return watcher;
+        }
+    }
+
+    void release() {
+        synchronized (WATCHERS) {
+            if (--references > 0)
+                return;
+            WATCHERS.remove(directories);
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            Jvm.debug().on(getClass(), "Unable to close the watch service of " + queueDir, e);
+        }
+    }
+
+    private boolean register(@NotNull File directory) {
+        if (!directory.isDirectory())
+            return false;
+        try {
+            directory.toPath().register(watchService, ENTRY_CREATE, ENTRY_DELETE);
+            return true;
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to watch " + directory, e);
+            return false;
+        }
+    }
+
+    private void run() {
+        boolean failed = false;
+        while (true) {
+            try {
+                // events may have been lost while failing.
+                if (failed) {
+                    rescan();
+                    failed = false;
+                }
+                watch();
+                return;
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                // released.
+                return;
+            } catch (Throwable t) {
+                if (failed)
+                    Jvm.debug().on(getClass(), "Still unable to watch " + queueDir, t);
+                else
+                    Jvm.warn().on(getClass(), "Unable to watch " + queueDir + ", listing it again", t);
+                failed = true;
+            }
+            // so a failure which persists isn't retried in a busy loop.
+            try {
+                Thread.sleep(PENDING_CHECK_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void watch() throws InterruptedException {
+        while (true) {
+            WatchKey key = watchService.poll(PENDING_CHECK_MS, TimeUnit.MILLISECONDS);
+            registerPending();
+            if (key == null)
+                continue;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    rescan();
+                    continue;
+                }
+                String name = event.context().toString();
+                if (SingleChronicleQueue.isCycleFile(name))
+                    refresh(SingleChronicleQueue.cycleName(name));
+            }
+            // the directory is no longer accessible.
+            if (!key.reset())
+                pending.add(((Path) key.watchable()).toFile());
+        }
+    }
+
+    private void registerPending() {
+        if (pending.isEmpty())
+            return;
+        for (File directory : pending) {
+            if (register(directory)) {
+                pending.remove(directory);
+                rescan();
+            }
+        }
+    }
+
+    /**
+     * Looks up the file for one cycle, in the queue directory if it is there, otherwise in the first stripe or tier
+     * which holds it. A cycle file is preferred to its archive.
+     */
+    synchronized void refresh(@NotNull String cycleName) {
+        File found = find(cycleName + SingleChronicleQueue.SUFFIX);
+        if (found == null)
+            found = find(cycleName + SingleChronicleQueue.ARCHIVE_SUFFIX);
+        Long key = toKey.apply(found == null ? new File(queueDir, cycleName + SingleChronicleQueue.SUFFIX) : found);
+        File previous = found == null ? cycleTree.remove(key) : cycleTree.put(key, found);
+        if (!Objects.equals(previous, found))
+            modCount.incrementAndGet();
+    }
+
+    private File find(@NotNull String name) {
+        for (File directory : directories) {
+            File file = new File(directory, name);
+            if (file.exists())
+                return file;
+        }
+        return null;
+    }
+
+    /**
+     * Lists every directory again, which is only needed when events may have been lost.
+     */
+    synchronized void rescan() {
+        Set<String> cycleNames = new HashSet<>();
+        for (File file : SingleChronicleQueue.listCycleFiles(queueDir, directories.subList(1, directories.size())))
+            cycleNames.add(SingleChronicleQueue.cycleName(file.getName()));
+        for (File file : cycleTree.values())
+            cycleNames.add(SingleChronicleQueue.cycleName(file.getName()));
+        for (String cycleName : cycleNames)
+            refresh(cycleName);
+    }
+
+    /**
+     * @return the cycle files by the key of their name, see
+     * {@link net.openhft.chronicle.queue.impl.RollingResourcesCache#toLong(File)}, which is kept up to date.
+     */
+    @NotNull
+    NavigableMap<Long, File> cycleTree() {
+        return cycleTreeView;
+    }
+
+    int minCycle() {
+        Map.Entry<Long, File> entry = cycleTree.firstEntry();
+        return entry == null ? Integer.MAX_VALUE : toCycle.applyAsInt(entry.getValue());
+    }
+
+    int maxCycle() {
+        Map.Entry<Long, File> entry = cycleTree.lastEntry();
+        return entry == null ? Integer.MIN_VALUE : toCycle.applyAsInt(entry.getValue());
+    }
+
+    /**
+     * @return the number of changes seen so far.
+     */
+    long modCount() {
+        return modCount.get();
+    }
+}
@@ -0,0 +1,242 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.impl.WireStore;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the disk space of the latest cycle a number of chunks ahead of the writer in the background, so the
+ * writer doesn't stall on the file system allocating extents as it reaches them.
+ * <p>
+ * Space is allocated by writing zeros, starting two chunks and the overlap past the chunk being written, which no
+ * mapping of the writer can reach, and the writer is checked again before each slice is written, so it would have to
+ * write more than a chunk while one slice is written to reach the zeros.
+ * <p>
+ * With <code>chronicle.queue.preallocator.truncate</code> set, once a cycle has been sealed and is no longer used in
+ * this process, its file is truncated back to the size it would have had without preallocation, i.e. the end of the
+ * chunk holding the end of file marker plus the overlap. Only set it when no other process uses the queue, as a
+ * mapping of another process past the new end of the file would fail with a SIGBUS when accessed.
+ */
+final class CyclePreallocator {
+    static final long CHECK_INTERVAL_MS = Long.getLong("chronicle.queue.preallocator.intervalMS", 50);
+    private static final int SLICE_SIZE = 1 << 20;
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final int chunks;
+    private final boolean truncate = Boolean.getBoolean("chronicle.queue.preallocator.truncate");
+    @NotNull
+    private final ScheduledExecutorService executor;
+    private final AtomicLong bytesAllocated = new AtomicLong();
+    private final AtomicLong cyclesTruncated = new AtomicLong();
+    // the files of the cycles which have been preallocated and are waiting to be truncated.
+    private final TreeMap<Integer, File> toTruncate = new TreeMap<>();
+    // where to look for the end of file marker of those cycles.
+    private final Map<Integer, Long> lastWritePositions = new HashMap<>();
+    private int cycle = Integer.MIN_VALUE;
+    @Nullable
+    private WireStore store;
+    @Nullable
+    private FileChannel channel;
+    private long allocatedTo;
+    private ByteBuffer zeros;
+
+    CyclePreallocator(@NotNull SingleChronicleQueue queue, int chunks) {
+        this.queue = queue;
+        this.chunks = chunks;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory(queue.path.getName() + "-preallocator", true));
+    }
+
+    void start() {
+        executor.scheduleWithFixedDelay(this::preallocate, CHECK_INTERVAL_MS, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the bytes allocated so far.
+     */
+    long bytesAllocated() {
+        return bytesAllocated.get();
+    }
+
+    long cyclesTruncated() {
+        return cyclesTruncated.get();
+    }
+
+    /**
+     * @return the number of bytes allocated by this check.
+     */
+    synchronized long preallocate() {
+        if (queue.isClosed())
+            return 0;
+        try {
+            int lastCycle = queue.lastCycle();
+            if (lastCycle != cycle)
+                switchTo(lastCycle);
+            if (truncate)
+                truncateSealedCycles();
+            return store == null ? 0 : allocate();
+
+        } catch (Throwable t) {
+            Jvm.warn().on(getClass(), "Unable to preallocate cycles of " + queue.path, t);
+            return 0;
+        }
+    }
+
+    private void switchTo(int lastCycle) throws IOException {
+        closeCycle();
+        if (lastCycle < 0)
+            return;
+        store = queue.storeForCycle(lastCycle, queue.epoch(), false);
+        if (store == null)
+            return;
+        cycle = lastCycle;
+        File file = store.file();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        allocatedTo = 0;
+        toTruncate.put(cycle, file);
+    }
+
+    private long allocate() throws IOException {
+        long chunkSize = queue.chunkSize();
+        long safeFrom = safeFrom(chunkSize);
+        long target = safeFrom + chunks * chunkSize;
+        long position = Math.max(allocatedTo, safeFrom);
+        if (position >= target)
+            return 0;
+
+        int sliceSize = (int) Math.min(SLICE_SIZE, chunkSize);
+        if (zeros == null || zeros.capacity() < sliceSize)
+            zeros = ByteBuffer.allocateDirect(sliceSize);
+        long allocated = 0;
+        while (position < target) {
+            // stop if the writer has caught up, so it is never overwritten.
+            if (position < safeFrom(chunkSize))
+                break;
+            ByteBuffer slice = zeros.duplicate();
+            slice.clear().limit((int) Math.min(sliceSize, target - position));
+            while (slice.remaining() > 0)
+                position += channel.write(slice, position);
+            allocated += slice.limit();
+        }
+        allocatedTo = position;
+        bytesAllocated.addAndGet(allocated);
+        return allocated;
+    }
+
+    /**
+     * @return the first position past any mapping of the chunk being written and the next one, leaving a chunk
+     * between the writer and the zeros.
+     */
+    private long safeFrom(long chunkSize) {
+        return (store.writePosition() / chunkSize + 2) * chunkSize + queue.mappedOverlapSize();
+    }
+
+    private void truncateSealedCycles() {
+        for (Iterator<Map.Entry<Integer, File>> iterator = toTruncate.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Integer, File> entry = iterator.next();
+            int c = entry.getKey();
+            if (c >= cycle)
+                break;
+            File file = entry.getValue();
+            Long from = lastWritePositions.get(c);
+            if (!file.exists() || from == null) {
+                // moved or deleted.
+                iterator.remove();
+                lastWritePositions.remove(c);
+                continue;
+            }
+            if (queue.ifNotAcquired(c, () -> truncate(file, from))) {
+                iterator.remove();
+                lastWritePositions.remove(c);
+            }
+        }
+    }
+
+    /**
+     * @return false if the cycle has not been sealed yet.
+     */
+    private boolean truncate(@NotNull File file, long lastWritePosition) {
+        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = endOfData(fc, lastWritePosition);
+            if (end < 0)
+                return false;
+            long chunkSize = queue.chunkSize();
+            long length = (end / chunkSize + 1) * chunkSize + queue.mappedOverlapSize();
+            if (fc.size() > length) {
+                fc.truncate(length);
+                cyclesTruncated.incrementAndGet();
+                if (Jvm.isDebugEnabled(getClass()))
+                    Jvm.debug().on(getClass(), "Truncated " + file + " to " + length);
+            }
+            return true;
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to truncate " + file, e);
+            return true;
+        }
+    }
+
+    /**
+     * @param from the position of a header at or before the end of file marker.
+     * @return the position of the end of file marker, or -1 if there isn't one.
+     */
+    private static long endOfData(@NotNull FileChannel fc, long from) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+        long size = fc.size();
+        for (long position = from; position + 4 <= size; ) {
+            header.clear();
+            while (header.remaining() > 0)
+                if (fc.read(header, position + header.position()) < 0)
+                    return -1;
+            int h = header.getInt(0);
+            if (h == Wires.END_OF_DATA)
+                return position;
+            if (h == 0 || Wires.isNotComplete(h))
+                return -1;
+            position += Wires.lengthOf(h) + 4;
+        }
+        return -1;
+    }
+
+    private void closeCycle() throws IOException {
+        WireStore store = this.store;
+        FileChannel channel = this.channel;
+        this.store = null;
+        this.channel = null;
+        if (store != null) {
+            lastWritePositions.put(cycle, store.writePosition());
+            queue.release(store);
+        }
+        if (channel != null)
+            channel.close();
+    }
+
+    void close() {
+        executor.shutdownNow();
+        synchronized (this) {
+            try {
+                closeCycle();
+            } catch (IOException e) {
+                Jvm.debug().on(getClass(), "Unable to close the cycle of " + queue.path, e);
+            }
+        }
+    }
+}
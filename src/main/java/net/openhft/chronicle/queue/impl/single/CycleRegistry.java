@@ -0,0 +1,109 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.impl.TableStore;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An append only log of the cycles created and deleted, kept in the queue's metadata so a reader can apply the changes
+ * since it last looked rather than listing the directories again.
+ * <p>
+ * The log is a ring of {@link #capacity()} entries. Each entry holds its sequence number, so a reader which has fallen
+ * behind by more than the capacity, or reads an entry still being written, can tell, and has to list the directories.
+ * As a cycle file is created or deleted before its entry is added, a listing made after reading {@link #length()}
+ * includes every entry before it.
+ */
+final class CycleRegistry implements Closeable {
+    static final int DEFAULT_CAPACITY = Integer.getInteger("chronicle.queue.cycleRegistry.capacity", 32);
+    private static final String LENGTH = "listing.registry.length";
+    private static final String CAPACITY = "listing.registry.capacity";
+    private static final String ENTRY = "listing.registry.";
+    private static final long DELETED = 1L << 32;
+
+    @NotNull
+    private final LongValue length;
+    @NotNull
+    private final LongValue[] entries;
+
+    private CycleRegistry(@NotNull LongValue length, @NotNull LongValue[] entries) {
+        this.length = length;
+        this.entries = entries;
+    }
+
+    /**
+     * Acquires every value of the registry up front, so none have to be looked up later. This must be called with the
+     * table store locked, see {@link TableStore#doWithExclusiveLock(java.util.function.Function)}.
+     */
+    @NotNull
+    static CycleRegistry acquire(@NotNull TableStore<?> tableStore, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive, was " + capacity);
+        // the first process to use the registry decides its capacity.
+        LongValue capacityValue = tableStore.acquireValueFor(CAPACITY);
+        capacityValue.compareAndSwapValue(Long.MIN_VALUE, capacity);
+        capacity = (int) capacityValue.getVolatileValue();
+        capacityValue.close();
+
+        LongValue length = tableStore.acquireValueFor(LENGTH);
+        length.compareAndSwapValue(Long.MIN_VALUE, 0);
+        LongValue[] entries = new LongValue[capacity];
+        for (int i = 0; i < capacity; i++)
+            entries[i] = tableStore.acquireValueFor(ENTRY + i, -1L);
+        return new CycleRegistry(length, entries);
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * @return the number of entries ever added.
+     */
+    long length() {
+        return length.getVolatileValue();
+    }
+
+    void onCreated(int cycle) {
+        add(cycle, false);
+    }
+
+    void onDeleted(int cycle) {
+        add(cycle, true);
+    }
+
+    private void add(int cycle, boolean deleted) {
+        long sequence = length.addAtomicValue(1) - 1;
+        entries[(int) (sequence % entries.length)]
+                .setOrderedValue((sequence << 33) | (deleted ? DELETED : 0) | (cycle & 0xFFFF_FFFFL));
+    }
+
+    /**
+     * Passes the entries from {@code from} up to {@code to} to the consumer in the order they were added.
+     *
+     * @return false if one of the entries has been overwritten, or hasn't been written yet, so the reader has to list
+     * the directories instead. The consumer may have been passed some of the entries.
+     */
+    boolean read(long from, long to, @NotNull CycleConsumer consumer) {
+        if (to - from > entries.length)
+            return false;
+        for (long sequence = from; sequence < to; sequence++) {
+            long entry = entries[(int) (sequence % entries.length)].getVolatileValue();
+            if (entry == -1 || entry >>> 33 != sequence)
+                return false;
+            consumer.accept((int) entry, (entry & DELETED) != 0);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        Closeable.closeQuietly(length);
+        Closeable.closeQuietly((Object[]) entries);
+    }
+
+    @FunctionalInterface
+    interface CycleConsumer {
+        void accept(int cycle, boolean deleted);
+    }
+}
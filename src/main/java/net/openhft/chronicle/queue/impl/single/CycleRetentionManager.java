@@ -0,0 +1,153 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes the cycles of a queue according to its {@link RetentionPolicy} in the background.
+ */
+final class CycleRetentionManager {
+    @NotNull
+    private final SingleChronicleQueue queue;
+    @NotNull
+    private final RetentionPolicy policy;
+    @NotNull
+    private final ScheduledExecutorService executor;
+    private final AtomicLong deleted = new AtomicLong();
+
+    CycleRetentionManager(@NotNull SingleChronicleQueue queue, @NotNull RetentionPolicy policy) {
+        this.queue = queue;
+        this.policy = policy;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory(queue.path.getName() + "-retention", true));
+    }
+
+    void start() {
+        long interval = policy.checkIntervalMS();
+        executor.scheduleWithFixedDelay(this::deleteExpiredCycles, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the number of cycles deleted so far.
+     */
+    long deleted() {
+        return deleted.get();
+    }
+
+    /**
+     * @return the number of cycles deleted by this check.
+     */
+    synchronized int deleteExpiredCycles() {
+        if (queue.isClosed())
+            return 0;
+        try {
+            // the files of each cycle, including archives, separate indexes and copies in other tiers.
+            TreeMap<Integer, List<File>> cycles = new TreeMap<>();
+            for (File file : SingleChronicleQueue.listCycleFiles(queue.path, queue.cycleDirectories())) {
+                List<File> files = cycles.computeIfAbsent(queue.fileToCycle(file), c -> new ArrayList<>());
+                files.add(file);
+                File index = SingleChronicleQueueStore.indexFileFor(file);
+                if (file.getName().endsWith(SingleChronicleQueue.SUFFIX) && index.exists())
+                    files.add(index);
+            }
+            if (cycles.size() < 2)
+                return 0;
+
+            long totalBytes = 0;
+            for (List<File> files : cycles.values())
+                totalBytes += length(files);
+            int lastCycle = Math.max(cycles.lastKey(), queue.lastCycle());
+            int minTailerCycle = minNamedTailerCycle();
+            long now = queue.time().currentTimeMillis();
+            long cycleLength = queue.rollCycle().length();
+
+            int count = 0;
+            for (Map.Entry<Integer, List<File>> entry : cycles.entrySet()) {
+                int cycle = entry.getKey();
+                if (cycle >= lastCycle)
+                    break;
+                long age = now - (queue.epoch() + (cycle / queue.rollCycle().subCycles() + 1L) * cycleLength);
+                boolean expired = age > policy.maxAgeMS()
+                        || totalBytes > policy.maxBytes()
+                        || cycle < minTailerCycle;
+                if (!expired)
+                    break;
+                long length = length(entry.getValue());
+                // the last cycle listed may be followed only by one created since, not yet listed.
+                Integer nextCycle = cycles.higherKey(cycle);
+                // stop at the first cycle in use so the remaining cycles are never split.
+                if (!delete(cycle, entry.getValue(), nextCycle == null ? lastCycle : nextCycle))
+                    break;
+                totalBytes -= length;
+                count++;
+            }
+            return count;
+
+        } catch (Throwable t) {
+            Jvm.warn().on(getClass(), "Unable to apply the retention policy to " + queue.path, t);
+            return 0;
+        }
+    }
+
+    private static long length(@NotNull List<File> files) {
+        long length = 0;
+        for (File file : files)
+            length += file.length();
+        return length;
+    }
+
+    /**
+     * @return the lowest cycle a named tailer is reading, {@link Integer#MIN_VALUE} if one hasn't recorded an index.
+     */
+    private int minNamedTailerCycle() {
+        List<String> namedTailers = policy.namedTailers();
+        if (namedTailers.isEmpty())
+            return Integer.MIN_VALUE;
+        int min = Integer.MAX_VALUE;
+        for (String name : namedTailers) {
+            long index = queue.namedTailerIndex(name).getVolatileValue();
+            if (index < 0)
+                return Integer.MIN_VALUE;
+            min = Math.min(min, queue.rollCycle().toCycle(index));
+        }
+        return min;
+    }
+
+    private boolean delete(int cycle, @NotNull List<File> files, int nextCycle) {
+        boolean done = queue.ifNotAcquired(cycle, () -> {
+            try {
+                // data files before their separate index files, so no cycle is left without its index.
+                for (File file : files)
+                    Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                Jvm.warn().on(getClass(), "Unable to delete cycle " + cycle + " of " + queue.path, e);
+                return false;
+            }
+            queue.onCycleDeleted(cycle, nextCycle);
+            return true;
+        });
+        if (done) {
+            deleted.incrementAndGet();
+            if (Jvm.isDebugEnabled(getClass()))
+                Jvm.debug().on(getClass(), "Deleted " + files);
+        }
+        return done;
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+}
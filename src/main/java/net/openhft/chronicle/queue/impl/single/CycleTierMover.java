@@ -0,0 +1,192 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.impl.StoreFileListener;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueue.SUFFIX;
+
+/**
+ * Moves the cycles of a queue between the tiers of its {@link TieringPolicy} in the background. It checks
+ * periodically and whenever a store is released, as that is when a cycle may have become free to move.
+ */
+final class CycleTierMover implements StoreFileListener {
+    @NotNull
+    private final SingleChronicleQueue queue;
+    @NotNull
+    private final TieringPolicy policy;
+    @NotNull
+    private final StoreFileListener listener;
+    @NotNull
+    private final ScheduledExecutorService executor;
+    private final AtomicLong moved = new AtomicLong();
+
+    CycleTierMover(@NotNull SingleChronicleQueue queue, @NotNull TieringPolicy policy, @NotNull StoreFileListener listener) {
+        this.queue = queue;
+        this.policy = policy;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory(queue.path.getName() + "-tier-mover", true));
+    }
+
+    void start() {
+        long interval = policy.checkIntervalMS();
+        executor.scheduleWithFixedDelay(this::moveCycles, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onAcquired(int cycle, File file) {
+        listener.onAcquired(cycle, file);
+    }
+
+    @Override
+    public void onReleased(int cycle, File file) {
+        listener.onReleased(cycle, file);
+        try {
+            executor.execute(this::moveCycles);
+        } catch (RejectedExecutionException e) {
+            // closed
+        }
+    }
+
+    /**
+     * @return the number of cycles moved so far.
+     */
+    long moved() {
+        return moved.get();
+    }
+
+    synchronized void moveCycles() {
+        if (queue.isClosed())
+            return;
+        try {
+            List<File> directories = new ArrayList<>();
+            directories.add(queue.path);
+            directories.addAll(policy.directories());
+            int lastCycle = queue.lastCycle();
+            long now = queue.time().currentTimeMillis();
+            long cycleLength = queue.rollCycle().length();
+
+            // by age, oldest tiers first so a cycle is only moved once.
+            for (int tier = directories.size() - 2; tier >= 0; tier--) {
+                for (File file : cycleFiles(directories.get(tier))) {
+                    int cycle = queue.fileToCycle(file);
+                    if (cycle >= lastCycle)
+                        continue;
+                    long age = now - (queue.epoch() + (cycle / queue.rollCycle().subCycles() + 1L) * cycleLength);
+                    int target = policy.tierFor(age) + 1;
+                    if (target > tier)
+                        move(cycle, file, directories.get(target));
+                }
+            }
+
+            // by size, the oldest cycles make way for the newer ones.
+            long maxHotBytes = policy.maxHotBytes();
+            if (maxHotBytes == Long.MAX_VALUE || directories.size() < 2)
+                return;
+            File[] hot = cycleFiles(queue.path);
+            long hotBytes = 0;
+            for (File file : hot)
+                hotBytes += file.length() + SingleChronicleQueueStore.indexFileFor(file).length();
+            for (int i = 0; i < hot.length && hotBytes > maxHotBytes; i++) {
+                int cycle = queue.fileToCycle(hot[i]);
+                if (cycle >= lastCycle)
+                    break;
+                long length = hot[i].length() + SingleChronicleQueueStore.indexFileFor(hot[i]).length();
+                if (move(cycle, hot[i], directories.get(1)))
+                    hotBytes -= length;
+            }
+        } catch (Throwable t) {
+            Jvm.warn().on(getClass(), "Unable to move cycles of " + queue.path, t);
+        }
+    }
+
+    @NotNull
+    private static File[] cycleFiles(@NotNull File directory) {
+        File[] files = directory.listFiles((d, n) -> n.endsWith(SUFFIX));
+        if (files == null)
+            return new File[0];
+        // the names sort by cycle
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Copies the cycle to the target directory then, while no store holds the cycle, renames the copy into place
+     * and deletes the original. Readers see the original until it is deleted, and the copy after that.
+     */
+    private boolean move(int cycle, @NotNull File file, @NotNull File targetDirectory) {
+        File index = SingleChronicleQueueStore.indexFileFor(file);
+        File target = new File(targetDirectory, file.getName());
+        File targetIndex = new File(targetDirectory, index.getName());
+        File tmp = new File(target.getPath() + ".tmp");
+        File tmpIndex = new File(targetIndex.getPath() + ".tmp");
+        try {
+            long length = file.length();
+            long lastModified = file.lastModified();
+            // don't bother copying a cycle which is in use.
+            if (!queue.ifNotAcquired(cycle, () -> true))
+                return false;
+
+            //noinspection ResultOfMethodCallIgnored
+            targetDirectory.mkdirs();
+            Files.copy(file.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            if (index.exists())
+                Files.copy(index.toPath(), tmpIndex.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+
+            boolean done = queue.ifNotAcquired(cycle, () -> {
+                // changed while it was being copied, try again later.
+                if (file.length() != length || file.lastModified() != lastModified)
+                    return false;
+                try {
+                    if (tmpIndex.exists())
+                        Files.move(tmpIndex.toPath(), targetIndex.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    // the data file goes first so the index is never missing for a data file which can be found.
+                    Files.delete(file.toPath());
+                    Files.deleteIfExists(index.toPath());
+                    return true;
+                } catch (IOException e) {
+                    Jvm.warn().on(getClass(), "Unable to move " + file + " to " + targetDirectory, e);
+                    return false;
+                }
+            });
+            if (done) {
+                moved.incrementAndGet();
+                if (Jvm.isDebugEnabled(getClass()))
+                    Jvm.debug().on(getClass(), "Moved " + file + " to " + targetDirectory);
+            }
+            return done;
+
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to copy " + file + " to " + targetDirectory, e);
+            return false;
+
+        } finally {
+            try {
+                Files.deleteIfExists(tmp.toPath());
+                Files.deleteIfExists(tmpIndex.toPath());
+            } catch (IOException e) {
+                Jvm.warn().on(getClass(), "Unable to delete " + tmp, e);
+            }
+        }
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+}
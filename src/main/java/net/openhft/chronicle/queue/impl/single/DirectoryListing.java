@@ -1,8 +1,10 @@
 package net.openhft.chronicle.queue.impl.single;
 
 import net.openhft.chronicle.core.io.Closeable;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.NavigableMap;
 
 public interface DirectoryListing extends Closeable {
     void init();
@@ -15,9 +17,36 @@ public interface DirectoryListing extends Closeable {
 
     void onFileCreated(File file, int cycle);
 
+    /**
+     * Called once the files of the oldest cycle have been deleted.
+     *
+     * @param nextCycle the cycle which is now the oldest.
+     */
+    default void onCycleDeleted(int cycle, int nextCycle) {
+        // no-op
+    }
+
     int getMaxCreatedCycle();
 
     int getMinCreatedCycle();
 
     long modCount();
+
+    /**
+     * @return the cycle files by the key of their name, kept up to date by this listing, or {@code null} if they have
+     * to be listed.
+     */
+    @Nullable
+    default NavigableMap<Long, File> cycleTree() {
+        return null;
+    }
+
+    /**
+     * @return the log of cycles created and deleted, which every change to {@link #modCount()} is added to, or
+     * {@code null} if there is none.
+     */
+    @Nullable
+    default CycleRegistry cycleRegistry() {
+        return null;
+    }
 }
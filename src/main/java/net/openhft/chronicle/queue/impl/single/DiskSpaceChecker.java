@@ -0,0 +1,111 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the free space of the directories queues create cycles in on a background thread, so a writer rolling to a
+ * new cycle only reads the last value rather than asking the file system, which can stall for 500 ms or more under
+ * load.
+ * <p>
+ * A directory is checked from when a cycle is first created in it, and a warning logged when the space left drops below
+ * {@code -Dchronicle.queue.diskSpace.warnPercent} of the disk, 5% by default, or
+ * {@code -Dchronicle.queue.diskSpace.warnMB}, 200 MB by default, whichever is more.
+ */
+final class DiskSpaceChecker {
+    static final long UNKNOWN = -1;
+    private static final long INTERVAL_MS = Long.getLong("chronicle.queue.diskSpace.intervalMS", 1000);
+    private static final double WARN_PERCENT = Double.parseDouble(System.getProperty("chronicle.queue.diskSpace.warnPercent", "5"));
+    private static final long WARN_BYTES = Long.getLong("chronicle.queue.diskSpace.warnMB", 200) << 20;
+
+    static final DiskSpaceChecker INSTANCE = new DiskSpaceChecker(INTERVAL_MS, WARN_PERCENT, WARN_BYTES);
+
+    private final Map<File, Directory> directories = new ConcurrentHashMap<>();
+    private final double warnPercent;
+    private final long warnBytes;
+
+    /**
+     * @param intervalMS how often to check, or 0 to only check when {@link #poll()} is called.
+     */
+    DiskSpaceChecker(long intervalMS, double warnPercent, long warnBytes) {
+        this.warnPercent = warnPercent;
+        this.warnBytes = warnBytes;
+        if (intervalMS > 0) {
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                    new NamedThreadFactory(SingleChronicleQueue.DISK_SPACE_CHECKER_NAME, true));
+            executor.scheduleWithFixedDelay(this::poll, intervalMS, intervalMS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the free space of the directory when it was last checked, or {@link #UNKNOWN} if it hasn't been checked
+     * yet, in which case it is checked from now on. This never waits for the file system.
+     */
+    long bytesFree(@NotNull File dir) {
+        return directories.computeIfAbsent(dir, Directory::new).bytesFree;
+    }
+
+    /**
+     * @return true if the free space of the directory was below the threshold when it was last checked.
+     */
+    boolean isLow(@NotNull File dir) {
+        return directories.computeIfAbsent(dir, Directory::new).low;
+    }
+
+    /**
+     * Checks every directory, called on the background thread.
+     */
+    void poll() {
+        for (Directory directory : directories.values()) {
+            try {
+                directory.check();
+
+            } catch (Throwable t) {
+                Jvm.warn().on(getClass(), "Unable to check the disk space of " + directory.dir, t);
+            }
+        }
+    }
+
+    private final class Directory {
+        @NotNull
+        final File dir;
+        @Nullable
+        FileStore fileStore;
+        volatile long bytesFree = UNKNOWN;
+        volatile boolean low;
+
+        Directory(@NotNull File dir) {
+            this.dir = dir;
+        }
+
+        void check() throws IOException {
+            if (!dir.exists()) {
+                // the queue was deleted, it is checked again if a cycle is created.
+                directories.remove(dir, this);
+                return;
+            }
+            if (fileStore == null)
+                fileStore = Files.getFileStore(dir.toPath());
+            long total = fileStore.getTotalSpace();
+            long free = fileStore.getUsableSpace();
+            boolean low = free < Math.max(warnBytes, (long) (total * warnPercent / 100));
+            bytesFree = free;
+            if (low && !this.low)
+                Jvm.warn().on(DiskSpaceChecker.class, "your disk " + fileStore + " for " + dir + " is almost full, only "
+                        + (free >> 20) + " MB of " + (total >> 20) + " MB left");
+            this.low = low;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.RandomDataInput;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * Computes the checksum ending each data excerpt of a cycle written with
+ * {@link SingleChronicleQueueBuilder#checksums()}, a CRC32 of the content of the excerpt including any padding.
+ * <p>
+ * The content is copied a long at a time into a reusable array, as the CRC32 of an array is an intrinsic on x86 and
+ * ARM. This class is not thread safe.
+ */
+final class ExcerptChecksum {
+    static final int LENGTH = Integer.BYTES;
+    private static final int SLICE_SIZE = 1 << 10;
+
+    private final CRC32 crc32 = new CRC32();
+    private final byte[] slice = new byte[SLICE_SIZE];
+    private final ByteBuffer sliceBuffer = ByteBuffer.wrap(slice).order(ByteOrder.nativeOrder());
+
+    /**
+     * @return the checksum of the bytes from start to end.
+     */
+    int checksum(@NotNull RandomDataInput bytes, long start, long end) {
+        crc32.reset();
+        for (long position = start; position < end; ) {
+            int length = (int) Math.min(SLICE_SIZE, end - position);
+            int i = 0;
+            for (; i <= length - Long.BYTES; i += Long.BYTES)
+                sliceBuffer.putLong(i, bytes.readLong(position + i));
+            for (; i < length; i++)
+                slice[i] = bytes.readByte(position + i);
+            crc32.update(slice, 0, length);
+            position += length;
+        }
+        return (int) crc32.getValue();
+    }
+}
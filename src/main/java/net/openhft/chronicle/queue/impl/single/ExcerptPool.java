@@ -0,0 +1,129 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.queue.ExcerptCommon;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded set of appenders or tailers which any thread can lease, use and return, see
+ * {@link SingleChronicleQueue#appenderPool(int)} and {@link SingleChronicleQueue#tailerPool(int)}.
+ * <p>
+ * {@link SingleChronicleQueue#acquireAppender()} keeps an appender per thread, so many short lived threads, or tasks
+ * which move between threads, create one each, with its own wires and a weak reference for the cleaner. A pool creates
+ * no more than its size, however many threads use it, as an excerpt isn't tied to a thread, only used by one thread at
+ * a time.
+ * <p>
+ * An excerpt must not be used, or a document context left open, after it is released. A tailer keeps its position
+ * while it is in the pool, so should be moved to where it is to read from after it is acquired.
+ */
+public final class ExcerptPool<E extends ExcerptCommon<E>> implements Closeable {
+    private final Supplier<E> factory;
+    private final int size;
+    private final long timeoutMS;
+    private final BlockingQueue<E> free;
+    private int created;
+    private volatile boolean closed;
+
+    ExcerptPool(@NotNull Supplier<E> factory, int size, long timeoutMS) {
+        if (size < 1)
+            throw new IllegalArgumentException("size: " + size);
+        this.factory = factory;
+        this.size = size;
+        this.timeoutMS = timeoutMS;
+        this.free = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * @return an excerpt which only the calling thread uses until it is passed to {@link #release(ExcerptCommon)},
+     * waiting for one to be released if all of them are in use.
+     * @throws IllegalStateException if none is released within the queue's timeout, or the pool is closed.
+     */
+    @NotNull
+    public E acquire() {
+        throwIfClosed();
+        E excerpt = free.poll();
+        if (excerpt != null)
+            return excerpt;
+        excerpt = create();
+        if (excerpt != null)
+            return excerpt;
+        try {
+            excerpt = free.poll(timeoutMS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for one of the " + size + " pooled excerpts");
+        }
+        if (excerpt == null)
+            throw new IllegalStateException("None of the " + size + " pooled excerpts were released after " + timeoutMS + "ms");
+        throwIfClosed();
+        return excerpt;
+    }
+
+    /**
+     * Returns an excerpt from {@link #acquire()} to the pool for another thread to use.
+     */
+    public void release(@NotNull E excerpt) {
+        if (!free.offer(excerpt))
+            throw new IllegalStateException("Released more excerpts than were acquired");
+        // released after the pool was closed.
+        if (closed && free.remove(excerpt))
+            excerpt.close();
+    }
+
+    /**
+     * Acquires an excerpt, passes it to the consumer, then releases it, even if the consumer throws.
+     */
+    public void use(@NotNull Consumer<E> consumer) {
+        E excerpt = acquire();
+        try {
+            consumer.accept(excerpt);
+        } finally {
+            release(excerpt);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return how many excerpts have been created so far, never more than the size.
+     */
+    public synchronized int created() {
+        return created;
+    }
+
+    private synchronized E create() {
+        if (created >= size)
+            return null;
+        E excerpt = factory.get();
+        created++;
+        return excerpt;
+    }
+
+    private void throwIfClosed() {
+        if (closed)
+            throw new IllegalStateException("Closed");
+    }
+
+    /**
+     * Closes the excerpts in the pool, and any in use when they are released. This is called when the queue is closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (E excerpt; (excerpt = free.poll()) != null; )
+            excerpt.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,49 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Rolls back an excerpt which a writer left unfinished when it died, so the next writer writes at exactly the same
+ * position, rather than waiting for a timeout and skipping past it as {@link TimedStoreRecovery} does, and no reader
+ * sees what had been written.
+ * <p>
+ * The header and the extent the writer reserved after it are cleared, whatever they contain, as an unfinished header
+ * doesn't say how much was written. A queue's writers reserve its overlap size for every excerpt, so anything a writer
+ * wrote past that, into the next chunk, isn't cleared.
+ */
+public final class ExcerptRollback {
+    private ExcerptRollback() {
+    }
+
+    /**
+     * @param position of a header which isn't complete, written by a writer which has died.
+     * @param reserved the bytes the writer reserved after the header, cleared even if the header has no length.
+     * @return the number of bytes cleared, including the header.
+     */
+    public static long rollBack(@NotNull Bytes<?> bytes, long position, long reserved) {
+        int header = bytes.readVolatileInt(position);
+        assert header != 0 && Wires.isNotComplete(header);
+        long readLimit = bytes.readLimit();
+        // as the excerpt can extend past the end of what this has read.
+        bytes.readLimit(bytes.capacity());
+        try {
+            long start = position + Integer.BYTES;
+            long end = Math.min(start + Math.max(Wires.lengthOf(header), reserved), bytes.capacity());
+            long offset = start;
+            for (; offset + Long.BYTES <= end; offset += Long.BYTES)
+                if (bytes.readLong(offset) != 0)
+                    bytes.writeLong(offset, 0L);
+            for (; offset < end; offset++)
+                if (bytes.readByte(offset) != 0)
+                    bytes.writeByte(offset, (byte) 0);
+            // the header last, so a reader waiting for it never reads the excerpt as it is cleared.
+            bytes.writeOrderedInt(position, 0);
+            return end - position;
+
+        } finally {
+            bytes.readLimit(readLimit);
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package net.openhft.chronicle.queue.impl.single;
 
 import java.io.File;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.ToIntFunction;
 
 final class FileSystemDirectoryListing implements DirectoryListing {
     private final File queueDir;
+    private final List<File> tiers;
     private final ToIntFunction<File> fileToCycleFunction;
 
     FileSystemDirectoryListing(final File queueDir,
+                               final List<File> tiers,
                                final ToIntFunction<File> fileToCycleFunction) {
         this.queueDir = queueDir;
+        this.tiers = tiers;
         this.fileToCycleFunction = fileToCycleFunction;
     }
 
@@ -31,11 +35,8 @@ final class FileSystemDirectoryListing implements DirectoryListing {
     @Override
     public int getMaxCreatedCycle() {
         int maxCycle = Integer.MIN_VALUE;
-        final File[] files = queueDir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
-        if (files != null) {
-            for (File file : files) {
-                maxCycle = Math.max(maxCycle, fileToCycleFunction.applyAsInt(file));
-            }
+        for (File file : SingleChronicleQueue.listCycleFiles(queueDir, tiers)) {
+            maxCycle = Math.max(maxCycle, fileToCycleFunction.applyAsInt(file));
         }
         return maxCycle;
     }
@@ -43,11 +44,8 @@ final class FileSystemDirectoryListing implements DirectoryListing {
     @Override
     public int getMinCreatedCycle() {
         int minCycle = Integer.MAX_VALUE;
-        final File[] files = queueDir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
-        if (files != null) {
-            for (File file : files) {
-                minCycle = Math.min(minCycle, fileToCycleFunction.applyAsInt(file));
-            }
+        for (File file : SingleChronicleQueue.listCycleFiles(queueDir, tiers)) {
+            minCycle = Math.min(minCycle, fileToCycleFunction.applyAsInt(file));
         }
         return minCycle;
     }
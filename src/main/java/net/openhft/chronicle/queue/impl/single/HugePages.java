@@ -0,0 +1,125 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How cycle files are mapped with huge pages on Linux.
+ * <p>
+ * A queue is mapped with huge pages either because its directory is on a hugetlbfs mount, e.g.
+ * {@code mount -t hugetlbfs -o size=8G none /mnt/huge}, or because the files are on a tmpfs mounted with
+ * {@code huge=always} (or {@code within_size}). In both cases the chunks mapped have to start and end on a huge page
+ * boundary, on hugetlbfs the mapping fails otherwise, so {@link SingleChronicleQueueBuilder#hugePages()} aligns the
+ * block size and the overlap to {@link #HUGE_PAGE_SIZE}.
+ * <p>
+ * The JVM can't call {@code madvise(MADV_HUGEPAGE)} on a mapping itself, so where transparent huge pages are only
+ * enabled on advice, the mappings of a queue on any other file system use normal pages.
+ */
+public final class HugePages {
+    /**
+     * The default huge page size, usually 2 MB, from /proc/meminfo or -Dchronicle.queue.hugePageSize
+     */
+    public static final long HUGE_PAGE_SIZE = Long.getLong("chronicle.queue.hugePageSize", hugePageSize());
+
+    private static volatile List<String> hugeTlbMounts;
+
+    private HugePages() {
+    }
+
+    private static long hugePageSize() {
+        if (OS.isLinux()) {
+            try {
+                for (String line : Files.readAllLines(Paths.get("/proc/meminfo"), StandardCharsets.ISO_8859_1)) {
+                    // Hugepagesize:       2048 kB
+                    if (line.startsWith("Hugepagesize:")) {
+                        String[] words = line.substring("Hugepagesize:".length()).trim().split("\\s+");
+                        return Long.parseLong(words[0]) << 10;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                Jvm.debug().on(HugePages.class, "Unable to read the huge page size " + e);
+            }
+        }
+        return 2 << 20;
+    }
+
+    /**
+     * @return the size rounded up to a whole number of huge pages.
+     */
+    public static long align(long size) {
+        long pages = (Math.max(1, size) + HUGE_PAGE_SIZE - 1) / HUGE_PAGE_SIZE;
+        return pages * HUGE_PAGE_SIZE;
+    }
+
+    /**
+     * @return whether the file or directory is on a hugetlbfs mount, where every mapping must be a whole number of
+     * huge pages.
+     */
+    public static boolean isHugeTlbFs(@NotNull File file) {
+        List<String> mounts = hugeTlbMounts();
+        if (mounts.isEmpty())
+            return false;
+        String path = file.getAbsoluteFile().toPath().normalize().toString();
+        for (String mount : mounts) {
+            if (path.equals(mount) || path.startsWith(mount.endsWith("/") ? mount : mount + "/"))
+                return true;
+        }
+        return false;
+    }
+
+    @NotNull
+    private static List<String> hugeTlbMounts() {
+        List<String> mounts = hugeTlbMounts;
+        if (mounts == null)
+            hugeTlbMounts = mounts = readHugeTlbMounts();
+        return mounts;
+    }
+
+    @NotNull
+    private static List<String> readHugeTlbMounts() {
+        if (!OS.isLinux())
+            return Collections.emptyList();
+        List<String> mounts = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/mounts"), StandardCharsets.ISO_8859_1)) {
+                // none /mnt/huge hugetlbfs rw,relatime,pagesize=2M 0 0
+                String[] words = line.split(" ");
+                if (words.length > 2 && "hugetlbfs".equals(words[2]))
+                    mounts.add(words[1].replace("\\040", " "));
+            }
+        } catch (IOException e) {
+            Jvm.debug().on(HugePages.class, "Unable to read the mounts " + e);
+        }
+        return mounts;
+    }
+
+    /**
+     * @return the transparent huge page mode, one of always, madvise or never, or never if not supported.
+     */
+    @NotNull
+    public static String transparentHugePages() {
+        if (OS.isLinux()) {
+            try {
+                // always [madvise] never
+                String modes = new String(Files.readAllBytes(Paths.get("/sys/kernel/mm/transparent_hugepage/enabled")), StandardCharsets.ISO_8859_1);
+                int start = modes.indexOf('[');
+                int end = modes.indexOf(']', start);
+                if (start >= 0 && end > start)
+                    return modes.substring(start + 1, end);
+            } catch (IOException e) {
+                Jvm.debug().on(HugePages.class, "Unable to read the transparent huge page mode " + e);
+            }
+        }
+        return "never";
+    }
+}
@@ -0,0 +1,90 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Bounds the memory used by the on-heap snapshots of sealed cycle indexes, see {@link SCQIndexing}.
+ * <p>
+ * Snapshots are evicted using a second chance (clock) policy. Lookups only set a flag on the snapshot so reads
+ * never contend on this cache.
+ */
+enum IndexSnapshotCache {
+    INSTANCE;
+
+    // set to 0 to disable the snapshots.
+    static final long MAX_BYTES = Long.getLong("chronicle.queue.indexSnapshot.maxBytes", 32L << 20);
+
+    private final ArrayDeque<SCQIndexing> snapshots = new ArrayDeque<>();
+    private long bytesUsed;
+    private long evictions;
+
+    /**
+     * @return true if a snapshot of up to {@code entries} positions can be held at all.
+     */
+    static boolean fits(long entries) {
+        return entries * 8 <= MAX_BYTES;
+    }
+
+    /**
+     * @return the snapshot to use, which is the existing one if another thread installed it first.
+     */
+    @NotNull
+    synchronized long[] install(@NotNull SCQIndexing indexing, @NotNull long[] positions) {
+        long[] existing = indexing.snapshot;
+        if (existing != null)
+            return existing;
+        // closed, so use it this once but don't retain it.
+        if (indexing.snapshotUnavailable)
+            return positions;
+        indexing.snapshot = positions;
+        indexing.snapshotUsed = true;
+        bytesUsed += positions.length * 8L;
+        snapshots.addLast(indexing);
+        evict();
+        return positions;
+    }
+
+    synchronized void remove(@NotNull SCQIndexing indexing) {
+        if (snapshots.remove(indexing))
+            release(indexing);
+    }
+
+    private void evict() {
+        Iterator<SCQIndexing> iterator = snapshots.iterator();
+        // two passes at most, the first clears the recently used flags.
+        for (int i = 0, max = snapshots.size() * 2; bytesUsed > MAX_BYTES && i < max; i++) {
+            if (!iterator.hasNext())
+                iterator = snapshots.iterator();
+            SCQIndexing indexing = iterator.next();
+            if (indexing.snapshotUsed) {
+                indexing.snapshotUsed = false;
+                continue;
+            }
+            iterator.remove();
+            release(indexing);
+            evictions++;
+        }
+    }
+
+    private void release(@NotNull SCQIndexing indexing) {
+        long[] positions = indexing.snapshot;
+        indexing.snapshot = null;
+        if (positions != null)
+            bytesUsed -= positions.length * 8L;
+    }
+
+    synchronized long bytesUsed() {
+        return bytesUsed;
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    synchronized int size() {
+        return snapshots.size();
+    }
+}
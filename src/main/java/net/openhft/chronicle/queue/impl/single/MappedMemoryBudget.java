@@ -0,0 +1,153 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A per process budget for the cycle files of all queues mapped into memory.
+ * <p>
+ * Every file mapped by {@link SingleChronicleQueue} is tracked until its last reference is released, with an estimate
+ * of its mapped size taken when it is opened, from its length rounded up to whole chunks, each with the overlap. The
+ * budget is only checked when a file is opened. The chunks a file already open maps later, e.g. as a tailer replays
+ * it, aren't checked or counted, as a MappedFile doesn't report them, and a chunk is unmapped by chronicle-bytes as
+ * soon as nothing uses it rather than being evicted by this budget.
+ * <ul>
+ * <li>Above the {@link #limit()} opening a file first releases everything which is only waiting for the periodic
+ * {@link StoreComponentReferenceHandler} sweep, i.e. the resources of appenders and tailers which were garbage
+ * collected without being closed.</li>
+ * <li>Above the {@link #openLimit()} opening a file fails with an {@link IllegalStateException}.</li>
+ * </ul>
+ * Both limits default to unlimited, and are set with -Dchronicle.queue.mappedMemory.limit and
+ * -Dchronicle.queue.mappedMemory.openLimit or the setters here.
+ */
+public enum MappedMemoryBudget {
+    INSTANCE;
+
+    // the estimate of each file when it was opened.
+    private final Map<MappedFile, Long> mappedFiles = new ConcurrentHashMap<>();
+    private final AtomicLong mappedBytes = new AtomicLong();
+    private final AtomicLong reclaims = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long limit = Long.getLong("chronicle.queue.mappedMemory.limit", Long.MAX_VALUE);
+    private volatile long openLimit = Long.getLong("chronicle.queue.mappedMemory.openLimit", Long.MAX_VALUE);
+
+    private static long estimate(@NotNull File file, long chunkSize, long overlapSize) {
+        long chunks = Math.max(1, (file.length() + chunkSize - 1) / chunkSize);
+        return chunks * (chunkSize + overlapSize);
+    }
+
+    /**
+     * Called before a file is mapped.
+     *
+     * @throws IllegalStateException if the open limit would be exceeded.
+     */
+    void beforeMapping(@NotNull File file, long chunkSize, long overlapSize) throws IllegalStateException {
+        long limit = this.limit;
+        long openLimit = this.openLimit;
+        if (limit == Long.MAX_VALUE && openLimit == Long.MAX_VALUE)
+            return;
+
+        long required = estimate(file, chunkSize, overlapSize);
+        long mapped = mappedBytes.get();
+        if (mapped + required <= limit && mapped + required <= openLimit)
+            return;
+
+        // only looked for when over a limit.
+        removeReleased();
+        StoreComponentReferenceHandler.releasePending();
+        reclaims.incrementAndGet();
+        removeReleased();
+        mapped = mappedBytes.get();
+        if (mapped + required <= openLimit)
+            return;
+
+        rejected.incrementAndGet();
+        throw new IllegalStateException("Unable to map " + file + ", " + (mapped + required) +
+                " bytes would exceed the mapped memory open limit of " + openLimit + " bytes across " +
+                mappedFiles() + " files");
+    }
+
+    void onMapped(@NotNull MappedFile mappedFile, long overlapSize) {
+        long estimate = estimate(mappedFile.file(), mappedFile.chunkSize(), overlapSize);
+        if (mappedFiles.put(mappedFile, estimate) == null)
+            mappedBytes.addAndGet(estimate);
+        if (Jvm.isDebugEnabled(getClass()))
+            Jvm.debug().on(getClass(), "Mapped " + mappedFile.file() + ", " + mappedFiles() + " files mapped");
+    }
+
+    private void removeReleased() {
+        for (Map.Entry<MappedFile, Long> entry : mappedFiles.entrySet()) {
+            if (entry.getKey().refCount() <= 0 && mappedFiles.remove(entry.getKey(), entry.getValue()))
+                mappedBytes.addAndGet(-entry.getValue());
+        }
+    }
+
+    /**
+     * @return an estimate of the bytes mapped by cycle files which have not been released, taken as each was opened.
+     */
+    public long mappedBytes() {
+        removeReleased();
+        return mappedBytes.get();
+    }
+
+    /**
+     * @return the number of cycle files which have not been released.
+     */
+    public int mappedFiles() {
+        removeReleased();
+        return mappedFiles.size();
+    }
+
+    /**
+     * @return how many times pending releases were processed early to stay within the limit.
+     */
+    public long reclaims() {
+        return reclaims.get();
+    }
+
+    /**
+     * @return how many files were refused by the open limit.
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    public long limit() {
+        return limit;
+    }
+
+    public MappedMemoryBudget limit(long limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @return the estimate of the bytes mapped above which no more files are opened.
+     */
+    public long openLimit() {
+        return openLimit;
+    }
+
+    public MappedMemoryBudget openLimit(long openLimit) {
+        this.openLimit = openLimit;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedMemoryBudget{" +
+                "mappedFiles=" + mappedFiles() +
+                ", mappedBytes=" + mappedBytes() +
+                ", limit=" + limit +
+                ", openLimit=" + openLimit +
+                ", reclaims=" + reclaims +
+                ", rejected=" + rejected +
+                '}';
+    }
+}
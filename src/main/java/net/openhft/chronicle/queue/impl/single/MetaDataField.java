@@ -15,7 +15,8 @@ public enum MetaDataField implements WireKey {
     encodedSequence,
     lastIndexReplicated,
     sourceId,
-    metadata;
+    metadata,
+    hashSlots;
 
     @Nullable
     @Override
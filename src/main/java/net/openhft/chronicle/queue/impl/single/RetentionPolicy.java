@@ -0,0 +1,92 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When the cycles of a queue are deleted. A cycle is deleted once any of the rules set applies to it:
+ * <ul>
+ * <li>it ended more than {@link #maxAgeMS()} ago,</li>
+ * <li>the cycles of the queue, in all its tiers, take up more than {@link #maxBytes()}, oldest first,</li>
+ * <li>every one of the {@link #namedTailers()} has moved past it, as recorded with
+ * {@link SingleChronicleQueue#namedTailerIndex(String)}.</li>
+ * </ul>
+ * Cycles are only deleted oldest first, the newest cycle is never deleted, and a cycle is left alone while this
+ * process holds a store for it.
+ */
+public final class RetentionPolicy {
+    private long maxAgeMS = Long.MAX_VALUE;
+    private long maxBytes = Long.MAX_VALUE;
+    private List<String> namedTailers = Collections.emptyList();
+    private long checkIntervalMS = 60_000;
+
+    private RetentionPolicy() {
+    }
+
+    @NotNull
+    public static RetentionPolicy create() {
+        return new RetentionPolicy();
+    }
+
+    public long maxAgeMS() {
+        return maxAgeMS;
+    }
+
+    /**
+     * @param maxAge how long after a cycle ends before it is deleted.
+     */
+    @NotNull
+    public RetentionPolicy maxAge(long maxAge, @NotNull TimeUnit unit) {
+        this.maxAgeMS = unit.toMillis(maxAge);
+        return this;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    @NotNull
+    public RetentionPolicy maxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    @NotNull
+    public List<String> namedTailers() {
+        return namedTailers;
+    }
+
+    /**
+     * @param namedTailers the tailers which must all have read a cycle before it is deleted.
+     */
+    @NotNull
+    public RetentionPolicy namedTailers(@NotNull String... namedTailers) {
+        this.namedTailers = Collections.unmodifiableList(Arrays.asList(namedTailers.clone()));
+        return this;
+    }
+
+    public long checkIntervalMS() {
+        return checkIntervalMS;
+    }
+
+    @NotNull
+    public RetentionPolicy checkIntervalMS(long checkIntervalMS) {
+        this.checkIntervalMS = checkIntervalMS;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "RetentionPolicy{" +
+                "maxAgeMS=" + maxAgeMS +
+                ", maxBytes=" + maxBytes +
+                ", namedTailers=" + namedTailers +
+                ", checkIntervalMS=" + checkIntervalMS +
+                '}';
+    }
+}
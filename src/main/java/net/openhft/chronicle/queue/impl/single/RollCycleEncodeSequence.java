@@ -68,6 +68,29 @@ class RollCycleEncodeSequence implements Sequence {
         return Sequence.NOT_FOUND_RETRY;
     }
 
+    /**
+     * @return the position and sequence last recorded by {@link #setSequence(long, long)}, or 0 if none has been. See
+     * {@link #positionOf(long, long)} and {@link #toSequenceNumber(long)}.
+     */
+    long recorded() {
+        return writePositionAndSequence == null ? 0 : writePositionAndSequence.getVolatileValue2();
+    }
+
+    /**
+     * Only the lower bits of the position are recorded, so this assumes the recorded position has the same upper bits
+     * as the write position. A sequence recorded since the write position was read, or too long before, has to be
+     * looked for another way.
+     *
+     * @param recorded         from {@link #recorded()}
+     * @param forWritePosition the last write position.
+     * @return the position of the excerpt whose sequence was recorded, or -1 if it would be after the write position.
+     */
+    long positionOf(long recorded, long forWritePosition) {
+        long modulus = 1L << (64 - cycleShift);
+        long position = (forWritePosition & -modulus) | toLowerBitsWritePosition(recorded);
+        return position > forWritePosition ? -1 : position;
+    }
+
     private long toLongValue(long cycle, long sequenceNumber) {
         return (cycle << cycleShift) + (sequenceNumber & sequenceMask);
     }
@@ -25,7 +25,6 @@ import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.StackTrace;
 import net.openhft.chronicle.core.annotation.UsedViaReflection;
 import net.openhft.chronicle.core.io.Closeable;
-import net.openhft.chronicle.core.threads.ThreadLocalHelper;
 import net.openhft.chronicle.core.values.LongArrayValues;
 import net.openhft.chronicle.core.values.LongValue;
 import net.openhft.chronicle.queue.impl.ExcerptContext;
@@ -35,7 +34,9 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.EOFException;
 import java.io.StreamCorruptedException;
-import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -44,23 +45,48 @@ import static net.openhft.chronicle.wire.Wires.NOT_INITIALIZED;
 
 class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
     private static final boolean IGNORE_INDEXING_FAILURE = Boolean.getBoolean("queue.ignoreIndexingFailure");
+    // how many excerpts past the last recorded sequence are counted, rather than looking up the index and scanning.
+    private static final int MAX_EXCERPTS_PAST_RECORDED = Integer.getInteger("chronicle.queue.sequence.maxExcerptsPastRecorded", 1024);
+    // how many index arrays are kept bound, the least recently used is closed beyond this.
+    private static final int MAX_INDEX_ARRAYS = Integer.getInteger("chronicle.queue.indexing.maxIndexArrays", 64);
     final LongValue nextEntryToBeIndexed;
     private final int indexCount, indexCountBits;
     private final int indexSpacing, indexSpacingBits;
     private final LongValue index2Index;
     private final Supplier<LongArrayValues> longArraySupplier;
+    // the index arrays are bound once and shared by every appender and tailer of this store, whichever thread uses them,
+    // so the number held depends on neither the number of threads nor, as only the most recently used are kept, the
+    // size of the store. An array is reserved while it is used, so one evicted is only closed once no thread uses it.
+    @Nullable
+    private volatile LongArrayValues index2indexArray;
     @NotNull
-    private final ThreadLocal<WeakReference<LongArrayValuesHolder>> index2indexArray;
-    @NotNull
-    private final ThreadLocal<WeakReference<LongArrayValuesHolder>> indexArray;
+    private final Map<Long, IndexArray> indexArrays = new LinkedHashMap<Long, IndexArray>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, IndexArray> eldest) {
+            if (size() <= MAX_INDEX_ARRAYS)
+                return false;
+            eldest.getValue().evict();
+            return true;
+        }
+    };
     @NotNull
     private final WriteMarshallable index2IndexTemplate;
     @NotNull
     private final WriteMarshallable indexTemplate;
+    // when true the index2index and index arrays are held in a separate .cq4i file
+    private final boolean separateIndexFile;
+    // when true every data excerpt ends with a checksum of its content, see ExcerptChecksum
+    private final boolean checksums;
     LongValue writePosition;
     Sequence sequence;
     // visible for testing
     int linearScanCount;
+    int linearScanByPositionCount;
+    // the position of every indexed entry once the cycle is sealed, shared by all threads. See IndexSnapshotCache
+    @Nullable
+    volatile long[] snapshot;
+    volatile boolean snapshotUsed;
+    volatile boolean snapshotUnavailable;
 
     private static Boolean REPORT_LINEAR_SCAN;
 
@@ -79,14 +105,21 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
                 wire.read(IndexingFields.indexSpacing).int32(),
                 wire.read(IndexingFields.index2Index).int64ForBinding(wire.newLongReference()),
                 wire.read(IndexingFields.lastIndex).int64ForBinding(wire.newLongReference()),
-                wire::newLongArrayReference);
+                wire::newLongArrayReference,
+                // optional field, older stores always hold their index in the data file.
+                wire.bytes().readRemaining() > 0 && wire.read(IndexingFields.separateIndexFile).bool(),
+                wire.bytes().readRemaining() > 0 && wire.read(IndexingFields.checksums).bool());
     }
 
     SCQIndexing(@NotNull WireType wireType, int indexCount, int indexSpacing) {
-        this(indexCount, indexSpacing, wireType.newLongReference().get(), wireType.newLongReference().get(), wireType.newLongArrayReference());
+        this(wireType, indexCount, indexSpacing, false, false);
     }
 
-    private SCQIndexing(int indexCount, int indexSpacing, LongValue index2Index, LongValue nextEntryToBeIndexed, Supplier<LongArrayValues> longArraySupplier) {
+    SCQIndexing(@NotNull WireType wireType, int indexCount, int indexSpacing, boolean separateIndexFile, boolean checksums) {
+        this(indexCount, indexSpacing, wireType.newLongReference().get(), wireType.newLongReference().get(), wireType.newLongArrayReference(), separateIndexFile, checksums);
+    }
+
+    private SCQIndexing(int indexCount, int indexSpacing, LongValue index2Index, LongValue nextEntryToBeIndexed, Supplier<LongArrayValues> longArraySupplier, boolean separateIndexFile, boolean checksums) {
         this.indexCount = indexCount;
         this.indexCountBits = Maths.intLog2(indexCount);
         this.indexSpacing = indexSpacing;
@@ -94,20 +127,18 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         this.index2Index = index2Index;
         this.nextEntryToBeIndexed = nextEntryToBeIndexed;
         this.longArraySupplier = longArraySupplier;
-        this.index2indexArray = new ThreadLocal<>();
-        this.indexArray = new ThreadLocal<>();
         this.index2IndexTemplate = w -> w.writeEventName(() -> "index2index").int64array(indexCount);
         this.indexTemplate = w -> w.writeEventName(() -> "index").int64array(indexCount);
+        this.separateIndexFile = separateIndexFile;
+        this.checksums = checksums;
     }
 
-    @NotNull
-    private LongArrayValuesHolder getIndex2IndexArray() {
-        return ThreadLocalHelper.getTL(index2indexArray, longArraySupplier, las -> new LongArrayValuesHolder(las.get()));
+    boolean separateIndexFile() {
+        return separateIndexFile;
     }
 
-    @NotNull
-    private LongArrayValuesHolder getIndexArray() {
-        return ThreadLocalHelper.getTL(indexArray, longArraySupplier, las -> new LongArrayValuesHolder(las.get()));
+    boolean checksums() {
+        return checksums;
     }
 
     public long toAddress0(long index) {
@@ -126,22 +157,16 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
 
     @Override
     public void close() {
+        snapshotUnavailable = true;
+        IndexSnapshotCache.INSTANCE.remove(this);
         Closeable.closeQuietly(index2Index);
         Closeable.closeQuietly(nextEntryToBeIndexed);
-        // Eagerly clean up the contents of thread locals but only for this thread.
-        // The contents of the thread local for other threads will be cleaned up in
-        // MappedFile.performRelease
-        closeTL(indexArray);
-        closeTL(index2indexArray);
-    }
-
-    private void closeTL(ThreadLocal<WeakReference<LongArrayValuesHolder>> tl) {
-        WeakReference<LongArrayValuesHolder> weakReference = tl.get();
-        if (weakReference == null)
-            return;
-        LongArrayValuesHolder holder = weakReference.get();
-        if (holder != null)
-            Closeable.closeQuietly(holder.values);
+        Closeable.closeQuietly(index2indexArray);
+        index2indexArray = null;
+        synchronized (indexArrays) {
+            indexArrays.values().forEach(array -> Closeable.closeQuietly(array.values));
+            indexArrays.clear();
+        }
     }
 
     @Override
@@ -150,17 +175,66 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
                 .write(IndexingFields.indexSpacing).int64(indexSpacing)
                 .write(IndexingFields.index2Index).int64forBinding(0L, index2Index)
                 .write(IndexingFields.lastIndex).int64forBinding(0L, nextEntryToBeIndexed);
+        // only written when used so the default layout is unchanged.
+        // the optional fields are read in order, so a later one needs all those before it.
+        if (separateIndexFile || checksums)
+            wire.write(IndexingFields.separateIndexFile).bool(separateIndexFile);
+        if (checksums)
+            wire.write(IndexingFields.checksums).bool(true);
     }
 
+    /**
+     * @return the index array at this address, reserved until it is closed.
+     */
     @NotNull
-    private LongArrayValues arrayForAddress(@NotNull Wire wire, long secondaryAddress) {
-        LongArrayValuesHolder holder = getIndexArray();
-        if (holder.address == secondaryAddress)
-            return holder.values;
-        holder.address = secondaryAddress;
-        wire.bytes().readPositionRemaining(secondaryAddress, 4); // to read the header.
-        wire.readMetaDataHeader();
-        return array(wire, holder.values, false);
+    private IndexArray arrayForAddress(@NotNull Wire wire, long secondaryAddress) {
+        // an index array never moves, so once bound it can be used by any thread.
+        synchronized (indexArrays) {
+            IndexArray array = indexArrays.get(secondaryAddress);
+            if (array == null) {
+                wire.bytes().readPositionRemaining(secondaryAddress, 4); // to read the header.
+                wire.readMetaDataHeader();
+                array = new IndexArray(array(wire, longArraySupplier.get(), false));
+                indexArrays.put(secondaryAddress, array);
+            }
+            array.users++;
+            return array;
+        }
+    }
+
+    // visible for testing
+    int indexArraysBound() {
+        synchronized (indexArrays) {
+            return indexArrays.size();
+        }
+    }
+
+    /**
+     * A shared index array and the number of threads using it, guarded by the lock on {@link #indexArrays}.
+     */
+    private final class IndexArray implements AutoCloseable {
+        @NotNull
+        final LongArrayValues values;
+        int users;
+        boolean evicted;
+
+        IndexArray(@NotNull LongArrayValues values) {
+            this.values = values;
+        }
+
+        void evict() {
+            evicted = true;
+            if (users == 0)
+                Closeable.closeQuietly(values);
+        }
+
+        @Override
+        public void close() {
+            synchronized (indexArrays) {
+                if (--users == 0 && evicted)
+                    Closeable.closeQuietly(values);
+            }
+        }
     }
 
     @NotNull
@@ -183,13 +257,13 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
      * index only records the addressForRead of every 64th except, the except are linearly scanned from
      * there on.  )
      *
-     * @param wire the current wire
+     * @param wire         the current wire
+     * @param fromPosition a position at or before the end of the file to start looking for free space
      * @return the addressForRead of the Excerpt containing the usable index, just after the header
      */
-    long newIndex(@NotNull WireOut wire, boolean index2index) throws StreamCorruptedException {
-        long writePosition = this.writePosition.getVolatileValue();
+    long newIndex(@NotNull WireOut wire, boolean index2index, long fromPosition) throws StreamCorruptedException {
         Bytes<?> bytes = wire.bytes();
-        bytes.writePosition(writePosition);
+        bytes.writePosition(fromPosition);
 
         long position = wire.enterHeader(indexCount * 8 + 128);
 
@@ -202,7 +276,7 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
 
     long newIndex(@NotNull Wire wire, @NotNull LongArrayValues index2Index, long index2) throws StreamCorruptedException {
         try {
-            long pos = newIndex(wire, false);
+            long pos = newIndex(wire, false, newIndexFromPosition(index2Index, index2));
             if (!index2Index.compareAndSet(index2, NOT_INITIALIZED, pos)) {
                 throw new IllegalStateException("Index " + index2 + " in index2index was altered while we hold the write lock!");
             }
@@ -213,6 +287,17 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         }
     }
 
+    /**
+     * @return where to start looking for space for a new index. In the data file this is the last written excerpt,
+     * in a separate index file the index before this one, as nothing else is written there.
+     */
+    private long newIndexFromPosition(@NotNull LongArrayValues index2Index, long index2) {
+        if (!separateIndexFile)
+            return writePosition.getVolatileValue();
+        long previous = index2 > 0 ? index2Index.getValueAt(index2 - 1) : 0;
+        return previous > 0 ? previous : this.index2Index.getVolatileValue();
+    }
+
     /**
      * Moves the position to the {@code index} <p> The indexes are stored in many excerpts, so the
      * index2index tells chronicle where ( in other words the addressForRead of where ) the root first
@@ -249,8 +334,12 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
     @Nullable
     ScanResult moveToIndex0(@NotNull final ExcerptContext ec, final long index) {
 
+        long[] positions = snapshot(ec.wire().bytes(), ec.indexWire());
+        if (positions != null)
+            return moveToIndex(ec, index, positions);
+
         try {
-            Wire wire = ec.wireForIndex();
+            Wire wire = ec.indexWire();
             LongArrayValues index2index = getIndex2index(wire);
             long primaryOffset = toAddress0(index);
 
@@ -267,31 +356,132 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
             if (secondaryAddress <= 0) {
                 return null;
             }
-            @NotNull final LongArrayValues array1 = arrayForAddress(wire, secondaryAddress);
-            long secondaryOffset = toAddress1(index);
-
-            do {
-                long fromAddress = array1.getValueAt(secondaryOffset);
-                if (fromAddress == 0) {
-                    secondaryOffset--;
-                    startIndex -= indexSpacing;
-                    continue;
-                }
+            try (IndexArray indexArray = arrayForAddress(wire, secondaryAddress)) {
+                @NotNull final LongArrayValues array1 = indexArray.values;
+                long secondaryOffset = toAddress1(index);
+
+                do {
+                    long fromAddress = array1.getValueAt(secondaryOffset);
+                    if (fromAddress == 0) {
+                        secondaryOffset--;
+                        startIndex -= indexSpacing;
+                        continue;
+                    }
 
-                if (index == startIndex) {
-                    ec.wire().bytes().readPositionUnlimited(fromAddress);
-                    return ScanResult.FOUND;
-                } else {
-                    return linearScan(ec.wire(), index, startIndex, fromAddress);
-                }
+                    if (index == startIndex) {
+                        ec.wire().bytes().readPositionUnlimited(fromAddress);
+                        return ScanResult.FOUND;
+                    } else {
+                        return linearScan(ec.wire(), index, startIndex, fromAddress);
+                    }
 
-            } while (secondaryOffset >= 0);
+                } while (secondaryOffset >= 0);
+            }
             return null; // no index,
         } catch (IllegalStateException e) {
             return linearScan(ec.wire(), index, -1, 0);
         }
     }
 
+    @Nullable
+    private ScanResult moveToIndex(@NotNull final ExcerptContext ec, final long index, @NotNull long[] positions) {
+        if (positions.length == 0)
+            return null;
+        int entry = (int) Math.min(index >> indexSpacingBits, positions.length - 1);
+        long startIndex = (long) entry << indexSpacingBits;
+        long fromAddress = positions[entry];
+        if (index == startIndex) {
+            ec.wire().bytes().readPositionUnlimited(fromAddress);
+            return ScanResult.FOUND;
+        }
+        return linearScan(ec.wire(), index, startIndex, fromAddress);
+    }
+
+    /**
+     * @return the snapshot of the index if this cycle has been sealed by an end of file marker, otherwise null.
+     */
+    @Nullable
+    private long[] snapshot(@NotNull Bytes<?> dataBytes, @Nullable Wire indexWire) {
+        long[] positions = snapshot;
+        if (positions != null) {
+            if (!snapshotUsed)
+                snapshotUsed = true;
+            return positions;
+        }
+        if (snapshotUnavailable || indexWire == null || !isSealed(dataBytes))
+            return null;
+
+        positions = readSnapshot(indexWire);
+        if (positions == null) {
+            snapshotUnavailable = true;
+            return null;
+        }
+        return IndexSnapshotCache.INSTANCE.install(this, positions);
+    }
+
+    private boolean isSealed(@NotNull Bytes<?> bytes) {
+        long position = writePosition.getVolatileValue();
+        if (position <= 0)
+            return false;
+        // skip the last excerpt and any padding or meta data after it.
+        for (int i = 0; i < 16; i++) {
+            if (position + 4 > bytes.capacity())
+                return false;
+            int header = bytes.readVolatileInt(position);
+            if (header == Wires.END_OF_DATA)
+                return true;
+            if (header == 0 || Wires.isNotComplete(header))
+                return false;
+            position += Wires.lengthOf(header) + 4;
+        }
+        return false;
+    }
+
+    /**
+     * @return a copy of the index, or null if it has holes or is too large to keep on heap.
+     */
+    @Nullable
+    private long[] readSnapshot(@NotNull Wire indexWire) {
+        try {
+            LongArrayValues index2index = getIndex2index(indexWire);
+            int used2 = Maths.toUInt31(index2index.getUsed());
+            if (!IndexSnapshotCache.fits((long) used2 * indexCount))
+                return null;
+            long length = 0;
+            for (int index2 = 0; index2 < used2; index2++) {
+                long secondaryAddress = index2index.getVolatileValueAt(index2);
+                if (secondaryAddress <= 0)
+                    return null;
+                int used;
+                try (IndexArray indexArray = arrayForAddress(indexWire, secondaryAddress)) {
+                    used = Maths.toUInt31(indexArray.values.getUsed());
+                }
+                // only the last index can be partly used.
+                if (used < indexCount && index2 < used2 - 1)
+                    return null;
+                length += used;
+            }
+            long[] positions = new long[(int) length];
+            int entry = 0;
+            for (int index2 = 0; index2 < used2; index2++) {
+                try (IndexArray indexArray = arrayForAddress(indexWire, index2index.getVolatileValueAt(index2))) {
+                    LongArrayValues indexValues = indexArray.values;
+                    for (int index1 = 0, used = Maths.toUInt31(indexValues.getUsed()); index1 < used; index1++) {
+                        long position = indexValues.getVolatileValueAt(index1);
+                        if (position <= 0)
+                            return null;
+                        positions[entry++] = position;
+                    }
+                }
+            }
+            return positions;
+        } catch (IllegalStateException e) {
+            if (Jvm.isDebugEnabled(getClass()))
+                Jvm.debug().on(getClass(), "Unable to snapshot the index", e);
+            return null;
+        }
+    }
+
     /**
      * moves the context to the index of {@code toIndex} by doing a linear scans form a {@code
      * fromKnownIndex} at  {@code knownAddress} <p/> note meta data is skipped and does not count to
@@ -423,6 +613,7 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
                                long startAddress,
                                boolean inclusive) throws EOFException {
         assert toPosition >= 0;
+        this.linearScanByPositionCount++;
         Bytes<?> bytes = wire.bytes();
         long i;
         // optimized if the `toPosition` is the writePosition
@@ -494,44 +685,64 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         long indexOfNext = 0;
         long lastKnownAddress = 0;
         @NotNull Wire wire = ec.wireForIndex();
+        @NotNull Wire indexWire = ec.indexWire();
+        long[] positions = snapshot(wire.bytes(), indexWire);
+        if (positions != null) {
+            // the greatest indexed position at or before the position
+            int entry = Arrays.binarySearch(positions, position);
+            if (entry >= 0)
+                return (long) entry << indexSpacingBits;
+            entry = -entry - 2;
+            if (entry >= 0) {
+                indexOfNext = (long) entry << indexSpacingBits;
+                lastKnownAddress = positions[entry];
+            }
+            try {
+                return linearScanByPosition(wire, position, indexOfNext, lastKnownAddress, inclusive);
+            } catch (EOFException e) {
+                throw new IllegalStateException(e);
+            }
+        }
         try {
-            final LongArrayValues index2indexArr = getIndex2index(wire);
+            final LongArrayValues index2indexArr = getIndex2index(indexWire);
 
             int used2 = Maths.toUInt31(index2indexArr.getUsed());
             assert used2 > 0;
             Outer:
             for (int index2 = used2 - 1; index2 >= 0; index2--) {
-                long secondaryAddress = getSecondaryAddress(wire, index2indexArr, index2);
+                long secondaryAddress = getSecondaryAddress(indexWire, index2indexArr, index2);
                 if (secondaryAddress == 0)
                     continue;
 
-                LongArrayValues indexValues = arrayForAddress(wire, secondaryAddress);
-                // TODO use a binary rather than linear search
+                try (IndexArray indexArray = arrayForAddress(indexWire, secondaryAddress)) {
+                    LongArrayValues indexValues = indexArray.values;
+                    // TODO use a binary rather than linear search
 
-                // check the first one to see if any in the index is appropriate.
-                int used = Maths.toUInt31(indexValues.getUsed());
-                assert used >= 0;
-                if (used == 0)
-                    continue;
-
-                long posN = indexValues.getVolatileValueAt(0);
-                assert posN >= 0;                                      
-                if (posN > position)
-                    continue;
+                    // check the first one to see if any in the index is appropriate.
+                    int used = Maths.toUInt31(indexValues.getUsed());
+                    assert used >= 0;
+                    if (used == 0)
+                        continue;
 
-                for (int index1 = used - 1; index1 >= 0; index1--) {
-                    long pos = indexValues.getVolatileValueAt(index1);
-                    // TODO pos shouldn't be 0, but holes in the index appear..
-                    if (pos == 0 || pos > position) {
+                    long posN = indexValues.getVolatileValueAt(0);
+                    assert posN >= 0;
+                    if (posN > position)
                         continue;
-                    }
-                    lastKnownAddress = pos;
-                    indexOfNext = ((long) index2 << (indexCountBits + indexSpacingBits)) + (index1 << indexSpacingBits);
 
-                    if (lastKnownAddress == position)
-                        return indexOfNext;
+                    for (int index1 = used - 1; index1 >= 0; index1--) {
+                        long pos = indexValues.getVolatileValueAt(index1);
+                        // TODO pos shouldn't be 0, but holes in the index appear..
+                        if (pos == 0 || pos > position) {
+                            continue;
+                        }
+                        lastKnownAddress = pos;
+                        indexOfNext = ((long) index2 << (indexCountBits + indexSpacingBits)) + (index1 << indexSpacingBits);
+
+                        if (lastKnownAddress == position)
+                            return indexOfNext;
 
-                    break Outer;
+                        break Outer;
+                    }
                 }
             }
         } catch (IllegalStateException e) {
@@ -545,13 +756,25 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         }
     }
 
+    /**
+     * @param wire the wire the index is written to, for a separate index file this is a wire for that file.
+     */
     void initIndex(@NotNull Wire wire) throws StreamCorruptedException {
         long index2Index = this.index2Index.getVolatileValue();
 
         if (index2Index != NOT_INITIALIZED)
             throw new IllegalStateException("Who wrote the index2index?");
 
-        long index = newIndex(wire, true);
+        final long fromPosition;
+        if (separateIndexFile) {
+            // an address of 0 means no index, so the index file starts with a small header.
+            fromPosition = wire.enterHeader(64);
+            wire.writeEventName(() -> "header").text("index");
+            wire.updateHeader(fromPosition, true, 0);
+        } else {
+            fromPosition = writePosition.getVolatileValue();
+        }
+        long index = newIndex(wire, true, fromPosition);
         this.index2Index.compareAndSwapValue(NOT_INITIALIZED, index);
 
         LongArrayValues index2index = getIndex2index(wire);
@@ -559,15 +782,20 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
     }
 
     private LongArrayValues getIndex2index(@NotNull Wire wire) throws UnrecoverableTimeoutException {
-
-        LongArrayValuesHolder holder = getIndex2IndexArray();
-        LongArrayValues values = holder.values;
-        if (((Byteable) values).bytesStore() != null)
+        LongArrayValues values = index2indexArray;
+        if (values != null)
+            return values;
+        synchronized (this) {
+            values = index2indexArray;
+            if (values != null)
+                return values;
+            final long indexToIndex = index2Index.getVolatileValue();
+
+            try (DocumentContext ignored = wire.readingDocument(indexToIndex)) {
+                values = array(wire, longArraySupplier.get(), true);
+            }
+            index2indexArray = values;
             return values;
-        final long indexToIndex = index2Index.getVolatileValue();
-
-        try (DocumentContext ignored = wire.readingDocument(indexToIndex)) {
-            return array(wire, values, true);
         }
     }
 
@@ -602,11 +830,13 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
             return;
         }
 
-        Wire wire = ec.wireForIndex();
-        Bytes<?> bytes = wire.bytes();
-        if (position > bytes.capacity())
+        Bytes<?> dataBytes = ec.wireForIndex().bytes();
+        if (position > dataBytes.capacity())
             throw new IllegalArgumentException("pos: " + position);
 
+        Wire wire = ec.indexWire();
+        Bytes<?> bytes = wire.bytes();
+
         // find the index2index
         final LongArrayValues index2indexArr = getIndex2index(wire);
         if (((Byteable) index2indexArr).bytesStore() == null) {
@@ -625,16 +855,18 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         if (secondaryAddress > bytes.capacity())
             throw new IllegalStateException("sa2: " + secondaryAddress);
         bytes.readLimit(bytes.capacity());
-        LongArrayValues indexValues = arrayForAddress(wire, secondaryAddress);
         int index3 = (int) ((sequenceNumber >>> indexSpacingBits) & (indexCount - 1));
-
-        // check the last one first.
-        long posN = indexValues.getValueAt(index3);
-        if (posN == 0) {
-            indexValues.setValueAt(index3, position);
-            indexValues.setMaxUsed(index3 + 1);
-        } else {
-            assert posN == position;
+        try (IndexArray indexArray = arrayForAddress(wire, secondaryAddress)) {
+            LongArrayValues indexValues = indexArray.values;
+
+            // check the last one first.
+            long posN = indexValues.getValueAt(index3);
+            if (posN == 0) {
+                indexValues.setValueAt(index3, position);
+                indexValues.setMaxUsed(index3 + 1);
+            } else {
+                assert posN == position;
+            }
         }
         nextEntryToBeIndexed.setMaxValue(sequenceNumber + indexSpacing);
     }
@@ -654,6 +886,8 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
                 if (address == 0)
                     return -1;
                 long sequence = sequence1.getSequence(address);
+                if (sequence == Sequence.NOT_FOUND_RETRY)
+                    sequence = sequenceFromRecorded(ec.wireForIndex().bytes(), address);
                 if (sequence == Sequence.NOT_FOUND_RETRY)
                     continue;
                 if (sequence == Sequence.NOT_FOUND)
@@ -665,6 +899,39 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         return sequenceForPosition(ec, Long.MAX_VALUE, false);
     }
 
+    /**
+     * The sequence is recorded after the write position is updated, so doesn't match it while an excerpt is being
+     * finished, or ever, if the writer died in between. Rather than looking up the index and scanning from there, which
+     * with a sparse index can be millions of excerpts, this counts the excerpts from the one last recorded.
+     *
+     * @param endAddress the write position.
+     * @return the sequence of the excerpt at the write position, or {@link Sequence#NOT_FOUND_RETRY} if it isn't within
+     * {@link #MAX_EXCERPTS_PAST_RECORDED} of the one last recorded.
+     */
+    private long sequenceFromRecorded(@NotNull Bytes<?> bytes, long endAddress) {
+        if (!(sequence instanceof RollCycleEncodeSequence))
+            return Sequence.NOT_FOUND_RETRY;
+        RollCycleEncodeSequence encodeSequence = (RollCycleEncodeSequence) sequence;
+        long recorded = encodeSequence.recorded();
+        if (recorded == 0)
+            return Sequence.NOT_FOUND_RETRY;
+        long position = encodeSequence.positionOf(recorded, endAddress);
+        if (position < 0)
+            return Sequence.NOT_FOUND_RETRY;
+        long sequenceNumber = encodeSequence.toSequenceNumber(recorded);
+        // the recorded excerpt is a data excerpt, so each data excerpt passed adds one, including the first.
+        for (int i = 0; i < MAX_EXCERPTS_PAST_RECORDED && position < endAddress; i++) {
+            int header = bytes.readVolatileInt(position);
+            if (header == 0 || Wires.isNotComplete(header))
+                return Sequence.NOT_FOUND_RETRY;
+            if (Wires.isData(header))
+                sequenceNumber++;
+            position += Wires.lengthOf(header) + 4;
+        }
+        // not landing exactly on the write position means the recorded position wasn't where an excerpt starts.
+        return position == endAddress ? sequenceNumber : Sequence.NOT_FOUND_RETRY;
+    }
+
     int indexCount() {
         return indexCount;
     }
@@ -682,6 +949,8 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
                 if (endAddress == 0)
                     return -1;
                 long sequence = sequence1.getSequence(endAddress);
+                if (sequence == Sequence.NOT_FOUND_RETRY)
+                    sequence = sequenceFromRecorded(wire.bytes(), endAddress);
                 if (sequence == Sequence.NOT_FOUND_RETRY)
                     continue;
                 if (sequence == Sequence.NOT_FOUND)
@@ -712,16 +981,8 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
 
     enum IndexingFields implements WireKey {
         indexCount, indexSpacing, index2Index,
-        lastIndex // NOTE: the nextEntryToBeIndexed
-    }
-
-    static class LongArrayValuesHolder {
-        final LongArrayValues values;
-        long address;
-
-        LongArrayValuesHolder(LongArrayValues values) {
-            this.values = values;
-            address = Long.MIN_VALUE;
-        }
+        lastIndex, // NOTE: the nextEntryToBeIndexed
+        separateIndexFile,
+        checksums
     }
 }
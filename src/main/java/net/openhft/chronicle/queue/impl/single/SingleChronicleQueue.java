@@ -24,6 +24,7 @@ import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.core.threads.ThreadLocalHelper;
 import net.openhft.chronicle.core.time.TimeProvider;
+import net.openhft.chronicle.core.util.Histogram;
 import net.openhft.chronicle.core.util.StringUtils;
 import net.openhft.chronicle.core.values.LongValue;
 import net.openhft.chronicle.queue.*;
@@ -42,10 +43,13 @@ import java.lang.ref.WeakReference;
 import java.text.ParseException;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.*;
 
@@ -57,6 +61,8 @@ import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueExcerp
 public class SingleChronicleQueue implements RollingChronicleQueue {
 
     public static final String SUFFIX = ".cq4";
+    public static final String INDEX_SUFFIX = ".cq4i";
+    public static final String ARCHIVE_SUFFIX = ".cq4z";
     public static final String QUEUE_METADATA_FILE = "metadata" + SingleTableStore.SUFFIX;
     public static final String DISK_SPACE_CHECKER_NAME = DiskSpaceMonitor.DISK_SPACE_CHECKER_NAME;
 
@@ -114,8 +120,34 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
     private final WriteLock writeLock;
     private final boolean strongAppenders;
     private final boolean checkInterrupts;
+    private final boolean separateIndexFile;
+    private final boolean checksums;
+    private final boolean verifyChecksums;
+    private final boolean hugePages;
+    @NotNull
+    private final List<File> tiers;
+    @Nullable
+    private final StripingPolicy stripingPolicy;
+    // the stripes and tiers, where cycles not in the queue directory are found.
+    @NotNull
+    private final List<File> cycleDirectories;
+    @Nullable
+    private final CycleTierMover tierMover;
+    @Nullable
+    private final CycleRetentionManager retentionManager;
+    @Nullable
+    private final TrailCleaner trailCleaner;
+    // whether a missing cycle file is looked for as an archive by tailers, see CycleArchiver.
+    private final boolean archivedCycles;
+    @Nullable
+    private final CyclePreallocator preallocator;
+    @Nullable
+    private final CycleDirectoryWatcher directoryWatcher;
+    private final Map<String, LongValue> namedTailerIndexes = new ConcurrentHashMap<>();
     protected int sourceId;
     long firstAndLastCycleTime = 0;
+    private final AtomicInteger maxCreatedCycle = new AtomicInteger(Integer.MIN_VALUE);
+    private volatile long maxCreatedCycleTime = Long.MIN_VALUE;
     int firstCycle = Integer.MAX_VALUE, lastCycle = Integer.MIN_VALUE;
     @NotNull
     private RollCycle rollCycle;
@@ -130,14 +162,30 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         epoch = builder.epoch();
         dateCache = new RollingResourcesCache(rollCycle, epoch, textToFile(builder), fileToText());
 
+        path = builder.path();
         storeFileListener = builder.storeFileListener();
+        TieringPolicy tieringPolicy = builder.tieringPolicy();
+        tiers = tieringPolicy == null ? Collections.emptyList() : tieringPolicy.directories();
+        stripingPolicy = builder.stripingPolicy();
+        if (stripingPolicy == null) {
+            cycleDirectories = tiers;
+        } else {
+            List<File> directories = new ArrayList<>(stripingPolicy.directories());
+            directories.addAll(tiers);
+            cycleDirectories = Collections.unmodifiableList(directories);
+        }
+        tierMover = tieringPolicy == null || readOnly ? null : new CycleTierMover(this, tieringPolicy, storeFileListener);
         storeSupplier = new StoreSupplier();
-        pool = WireStorePool.withSupplier(storeSupplier, storeFileListener);
+        pool = WireStorePool.withSupplier(storeSupplier, tierMover == null ? storeFileListener : tierMover);
         isBuffered = builder.buffered();
-        path = builder.path();
-        if (!readOnly)
+        if (!readOnly) {
             //noinspection ResultOfMethodCallIgnored
             path.mkdirs();
+            if (stripingPolicy != null)
+                for (File stripe : stripingPolicy.directories())
+                    //noinspection ResultOfMethodCallIgnored
+                    stripe.mkdirs();
+        }
         fileAbsolutePath = path.getAbsolutePath();
         wireType = builder.wireType();
         blockSize = builder.blockSize();
@@ -154,12 +202,29 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         storeFactory = builder.storeFactory();
         strongAppenders = builder.strongAppenders();
         checkInterrupts = builder.checkInterrupts();
+        separateIndexFile = builder.separateIndexFile();
+        checksums = builder.checksums();
+        verifyChecksums = builder.verifyChecksums();
+        hugePages = builder.hugePages();
+        if (hugePages && !HugePages.isHugeTlbFs(path) && Jvm.isDebugEnabled(getClass()))
+            Jvm.debug().on(getClass(), path + " is not on hugetlbfs, transparent huge pages are "
+                    + HugePages.transparentHugePages());
         metaStore = builder.metaStore();
 
+        if (builder.watchDirectory()) {
+            // only captures the cache, as the watcher can outlive this queue.
+            RollingResourcesCache cache = dateCache;
+            directoryWatcher = CycleDirectoryWatcher.acquire(path, cycleDirectories, cache::toLong,
+                    f -> cache.parseCount(cycleName(f.getName())));
+        } else {
+            directoryWatcher = null;
+        }
         if (readOnly) {
-            this.directoryListing = new FileSystemDirectoryListing(path, fileToCycleFunction());
+            this.directoryListing = directoryWatcher == null
+                    ? new FileSystemDirectoryListing(path, cycleDirectories, fileToCycleFunction())
+                    : new WatchingDirectoryListing(directoryWatcher);
         } else {
-            this.directoryListing = new TableDirectoryListing(metaStore, path.toPath(), fileToCycleFunction(), false);
+            this.directoryListing = new TableDirectoryListing(metaStore, path.toPath(), cycleDirectories, fileToCycleFunction(), false, directoryWatcher);
             directoryListing.init();
         }
 
@@ -179,6 +244,21 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
 
         sourceId = builder.sourceId();
         recoverySupplier = builder.recoverySupplier();
+
+        if (tierMover != null)
+            tierMover.start();
+        RetentionPolicy retentionPolicy = builder.retentionPolicy();
+        retentionManager = retentionPolicy == null || readOnly ? null : new CycleRetentionManager(this, retentionPolicy);
+        if (retentionManager != null)
+            retentionManager.start();
+        archivedCycles = builder.archivedCycles();
+        trailCleaner = builder.trailCleaner() && !readOnly ? new TrailCleaner(this) : null;
+        if (trailCleaner != null)
+            trailCleaner.start();
+        int preallocateChunks = builder.preallocateChunks();
+        preallocator = preallocateChunks > 0 && !readOnly ? new CyclePreallocator(this, preallocateChunks) : null;
+        if (preallocator != null)
+            preallocator.start();
     }
 
     protected CycleCalculator cycleCalculator(ZoneId zoneId) {
@@ -202,10 +282,173 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
 
     @NotNull
     private Function<File, String> fileToText() {
-        return file -> {
-            String name = file.getName();
-            return name.substring(0, name.length() - SUFFIX.length());
-        };
+        return file -> cycleName(file.getName());
+    }
+
+    /**
+     * @return the name of a cycle file or an archived cycle file without its suffix.
+     */
+    @NotNull
+    static String cycleName(@NotNull String fileName) {
+        int suffixLength = fileName.endsWith(ARCHIVE_SUFFIX) ? ARCHIVE_SUFFIX.length() : SUFFIX.length();
+        return fileName.substring(0, fileName.length() - suffixLength);
+    }
+
+    static boolean isCycleFile(@NotNull String fileName) {
+        return fileName.endsWith(SUFFIX) || fileName.endsWith(ARCHIVE_SUFFIX);
+    }
+
+    /**
+     * @return the cycle files and archived cycle files in the queue directory followed by those in each of the other
+     * directories.
+     */
+    @NotNull
+    static List<File> listCycleFiles(@NotNull File directory, @NotNull List<File> otherDirectories) {
+        List<File> files = new ArrayList<>();
+        addCycleFiles(directory, files);
+        for (File other : otherDirectories)
+            addCycleFiles(other, files);
+        return files;
+    }
+
+    private static void addCycleFiles(@NotNull File directory, @NotNull List<File> files) {
+        File[] list = directory.listFiles((d, n) -> isCycleFile(n));
+        if (list != null)
+            Collections.addAll(files, list);
+    }
+
+    /**
+     * @return the directories older cycles are moved to, see {@link TieringPolicy}.
+     */
+    @NotNull
+    public List<File> tiers() {
+        return tiers;
+    }
+
+    /**
+     * @return the stripes and tiers, the directories other than the queue directory which hold cycle files.
+     */
+    @NotNull
+    List<File> cycleDirectories() {
+        return cycleDirectories;
+    }
+
+    /**
+     * @return the cycle file in the queue directory if it exists, otherwise in the first stripe or tier which holds it.
+     */
+    @NotNull
+    File resolveCycleFile(@NotNull File file) {
+        if (cycleDirectories.isEmpty() || file.exists())
+            return file;
+        for (File tier : cycleDirectories) {
+            File tierFile = new File(tier, file.getName());
+            if (tierFile.exists())
+                return tierFile;
+        }
+        return file;
+    }
+
+    @Nullable
+    CycleTierMover tierMover() {
+        return tierMover;
+    }
+
+    @Nullable
+    CycleRetentionManager retentionManager() {
+        return retentionManager;
+    }
+
+    @Nullable
+    TrailCleaner trailCleaner() {
+        return trailCleaner;
+    }
+
+    @Nullable
+    public StripingPolicy stripingPolicy() {
+        return stripingPolicy;
+    }
+
+    @Nullable
+    CyclePreallocator preallocator() {
+        return preallocator;
+    }
+
+    @Nullable
+    CycleDirectoryWatcher directoryWatcher() {
+        return directoryWatcher;
+    }
+
+    /**
+     * @return the file of a cycle, in whichever tier it is.
+     */
+    @NotNull
+    File cycleFile(int cycle) {
+        return resolveCycleFile(dateCache.resourceFor(cycle).path);
+    }
+
+    /**
+     * @return the archive of a cycle whose cycle file has been deleted, or null if the cycle isn't only archived or
+     * archived cycles aren't read, see {@link SingleChronicleQueueBuilder#archivedCycles(boolean)}.
+     */
+    @Nullable
+    File archivedCycleFile(int cycle) {
+        // the last cycle is never archived.
+        if (!archivedCycles || cycle >= directoryListing.getMaxCreatedCycle())
+            return null;
+        final File file = dateCache.resourceFor(cycle).path;
+        if (resolveCycleFile(file).exists())
+            return null;
+        final File archiveFile = resolveArchiveFile(file);
+        return archiveFile.exists() ? archiveFile : null;
+    }
+
+    /**
+     * @return the archive of a cycle file next to the cycle file, in whichever directory it is, see
+     * {@link #resolveCycleFile(File)}.
+     */
+    @NotNull
+    File resolveArchiveFile(@NotNull File file) {
+        File archiveFile = CycleArchiver.archiveFileFor(file);
+        if (cycleDirectories.isEmpty() || archiveFile.exists())
+            return archiveFile;
+        for (File directory : cycleDirectories) {
+            File other = new File(directory, archiveFile.getName());
+            if (other.exists())
+                return other;
+        }
+        return archiveFile;
+    }
+
+    /**
+     * The index a named consumer has processed up to, kept in the queue's metadata so it is shared between
+     * processes. The consumer updates it so a {@link RetentionPolicy} knows which cycles it has finished with.
+     *
+     * @return the index, which is -1 until it is first set.
+     */
+    @NotNull
+    public LongValue namedTailerIndex(@NotNull String name) {
+        if (readOnly)
+            throw new IllegalStateException("Named tailer indexes can't be updated on a read only queue");
+        return namedTailerIndexes.computeIfAbsent(name, n ->
+                metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("chronicle.tailer." + n, -1L)));
+    }
+
+    /**
+     * Called with the cycle's pool slot locked once the files of the oldest cycle have been deleted.
+     */
+    void onCycleDeleted(int cycle, int nextCycle) {
+        directoryListing.onCycleDeleted(cycle, nextCycle);
+        // pick up the new first cycle
+        firstAndLastCycleTime = 0;
+    }
+
+    /**
+     * Runs an action on the files of a cycle while this queue holds no store for the cycle, and none can be acquired.
+     *
+     * @return false if a store for the cycle is held, otherwise the result of the action.
+     */
+    boolean ifNotAcquired(int cycle, @NotNull BooleanSupplier action) {
+        return pool.ifNotAcquired(cycle, action);
     }
 
     @Override
@@ -344,6 +587,24 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return indexSpacing;
     }
 
+    @Override
+    public boolean separateIndexFile() {
+        return separateIndexFile;
+    }
+
+    @Override
+    public boolean checksums() {
+        return checksums;
+    }
+
+    public boolean verifyChecksums() {
+        return verifyChecksums;
+    }
+
+    public boolean hugePages() {
+        return hugePages;
+    }
+
     @Override
     public long epoch() {
         return epoch;
@@ -383,7 +644,10 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         queueLock.waitForLock();
 
         final WireStorePool newPool = WireStorePool.withSupplier(storeSupplier, storeFileListener);
-        return new StoreAppender(this, newPool, checkInterrupts);
+        StoreAppender appender = new StoreAppender(this, newPool, checkInterrupts);
+        if (trailCleaner != null)
+            trailCleaner.register(appender);
+        return appender;
     }
 
     protected StoreFileListener storeFileListener() {
@@ -427,6 +691,40 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return appender;
     }
 
+    /**
+     * @return a pool of at most {@code size} appenders which any thread can use, whereas {@link #acquireAppender()}
+     * creates one for each thread. With {@link SingleChronicleQueueBuilder#singleWriter(boolean)} the pool holds one
+     * appender, as the lease doesn't stop two threads writing at once. The pool is closed when the queue is.
+     */
+    @NotNull
+    public ExcerptPool<ExcerptAppender> appenderPool(int size) {
+        if (readOnly)
+            throw new IllegalStateException("Can't append to a read-only chronicle");
+        ExcerptPool<ExcerptAppender> appenders = new ExcerptPool<>(this::newAppender,
+                writeLock instanceof SingleWriterLock ? 1 : size, timeoutMS);
+        addCloseListener(appenders, ExcerptPool::close);
+        return appenders;
+    }
+
+    /**
+     * @return a pool of at most {@code size} tailers, each created at the start of the queue, which any thread can use
+     * rather than creating a tailer for each thread or task. The pool is closed when the queue is.
+     */
+    @NotNull
+    public ExcerptPool<ExcerptTailer> tailerPool(int size) {
+        ExcerptPool<ExcerptTailer> tailers = new ExcerptPool<>(this::createTailer, size, timeoutMS);
+        addCloseListener(tailers, ExcerptPool::close);
+        return tailers;
+    }
+
+    /**
+     * @return the free space of the queue's directory when it was last checked in the background, or -1 if it hasn't
+     * been checked yet. This never waits for the file system.
+     */
+    public long diskSpaceFree() {
+        return DiskSpaceChecker.INSTANCE.bytesFree(path);
+    }
+
     @Override
     @NotNull
     public QueueLock queueLock() {
@@ -438,6 +736,24 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return writeLock;
     }
 
+    /**
+     * @return how long writers in this process waited for the write lock, in nanoseconds, or null unless built with
+     * {@link SingleChronicleQueueBuilder#fairWriteLock(boolean)}.
+     */
+    @Nullable
+    public Histogram writeLockWaitTimes() {
+        return writeLock instanceof TicketWriteLock ? ((TicketWriteLock) writeLock).waitTimes() : null;
+    }
+
+    /**
+     * @return how long writers in this process held the write lock, in nanoseconds, or null unless built with
+     * {@link SingleChronicleQueueBuilder#fairWriteLock(boolean)}.
+     */
+    @Nullable
+    public Histogram writeLockHoldTimes() {
+        return writeLock instanceof TicketWriteLock ? ((TicketWriteLock) writeLock).holdTimes() : null;
+    }
+
     @NotNull
     @Override
     public ExcerptTailer createTailer() {
@@ -448,6 +764,8 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
                     new WeakReference<>(storeTailer, StoreComponentReferenceHandler.tailerQueue()),
                     storeTailer.getCloserJob());
         }
+        if (trailCleaner != null)
+            trailCleaner.register(storeTailer);
         return storeTailer.toStart();
     }
 
@@ -463,6 +781,15 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
     }
 
     public long exceptsPerCycle(int cycle) {
+        final File archiveFile = archivedCycleFile(cycle);
+        if (archiveFile != null) {
+            try (ArchivedCycleReader reader = new ArchivedCycleReader(archiveFile)) {
+                return reader.excerpts();
+            } catch (IOException e) {
+                // restored or deleted since, so counted from the cycle file if there is one.
+                Jvm.debug().on(getClass(), "Unable to read " + archiveFile + ", " + e);
+            }
+        }
         StoreTailer tailer = acquireTailer();
         try {
             long index = rollCycle.toIndex(cycle, 0);
@@ -586,7 +913,18 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         if (isClosed.getAndSet(true))
             return;
 
+        if (tierMover != null)
+            tierMover.close();
+        if (retentionManager != null)
+            retentionManager.close();
+        if (trailCleaner != null)
+            trailCleaner.close();
+        if (preallocator != null)
+            preallocator.close();
+        closeQuietly(namedTailerIndexes.values().toArray());
         closeQuietly(directoryListing, queueLock, writeLock, lastAcknowledgedIndexReplicated, lastIndexReplicated);
+        if (directoryWatcher != null)
+            directoryWatcher.release();
 
         synchronized (closers) {
             closers.forEach((k, v) -> v.accept(k));
@@ -604,11 +942,36 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
 
     @Override
     public final int cycle() {
-        return cycleCalculator.currentCycle(rollCycle, time, epoch);
+        return currentSubCycle(cycleCalculator.currentCycle(rollCycle, time, epoch));
     }
 
     public final int cycle(TimeProvider timeProvider) {
-        return cycleCalculator.currentCycle(rollCycle, timeProvider, epoch);
+        return currentSubCycle(cycleCalculator.currentCycle(rollCycle, timeProvider, epoch));
+    }
+
+    /**
+     * @return the latest cycle created for the current period when cycles also roll on size, see
+     * {@link RollCycle#subCycles()}.
+     */
+    private int currentSubCycle(int cycle) {
+        int subCycles = rollCycle.subCycles();
+        if (subCycles == 1)
+            return cycle;
+        int maxCycle = maxCreatedCycle();
+        return maxCycle > cycle && maxCycle < cycle + subCycles ? maxCycle : cycle;
+    }
+
+    /**
+     * @return the last cycle created, checked at most once a millisecond as listing it can mean listing the
+     * directories. A cycle this queue creates is seen straight away.
+     */
+    private int maxCreatedCycle() {
+        long now = time.currentTimeMillis();
+        if (now != maxCreatedCycleTime) {
+            maxCreatedCycle.accumulateAndGet(directoryListing.getMaxCreatedCycle(), Math::max);
+            maxCreatedCycleTime = now;
+        }
+        return maxCreatedCycle.get();
     }
 
     @Override
@@ -706,11 +1069,28 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return this.bufferCapacity;
     }
 
+    /**
+     * @return the size of the chunks cycle files are mapped in.
+     */
+    long chunkSize() {
+        return hugePages ? HugePages.align(blockSize) : OS.pageAlign(blockSize);
+    }
+
+    /**
+     * @return the size each chunk of a cycle file is mapped beyond its end.
+     */
+    long mappedOverlapSize() {
+        return hugePages ? HugePages.align(blockSize / 4) : OS.pageAlign(blockSize / 4);
+    }
+
     @NotNull
     private MappedFile mappedFile(File file) throws FileNotFoundException {
-        long chunkSize = OS.pageAlign(blockSize);
-        long overlapSize = OS.pageAlign(blockSize / 4);
-        return MappedFile.of(file, chunkSize, overlapSize, readOnly);
+        long chunkSize = chunkSize();
+        long overlapSize = mappedOverlapSize();
+        MappedMemoryBudget.INSTANCE.beforeMapping(file, chunkSize, overlapSize);
+        MappedFile mappedFile = MappedFile.of(file, chunkSize, overlapSize, readOnly);
+        MappedMemoryBudget.INSTANCE.onMapped(mappedFile, overlapSize);
+        return mappedFile;
     }
 
     boolean isReadOnly() {
@@ -739,10 +1119,7 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
 
     @NotNull
     private ToIntFunction<File> fileToCycleFunction() {
-        return f -> {
-            final String name = f.getName();
-            return dateCache.parseCount(name.substring(0, name.length() - SUFFIX.length()));
-        };
+        return f -> dateCache.parseCount(cycleName(f.getName()));
     }
 
     void removeCloseListener(final StoreTailer storeTailer) {
@@ -761,8 +1138,15 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         }
     }
 
+    private static final class RegisteredCycleTree {
+        private final NavigableMap<Long, File> tree = new ConcurrentSkipListMap<>();
+        private volatile long directoryModCount = Long.MIN_VALUE;
+        private long registryLength;
+    }
+
     private class StoreSupplier implements WireStoreSupplier {
         private final AtomicReference<CachedCycleTree> cachedTree = new AtomicReference<>();
+        private final RegisteredCycleTree registeredTree = new RegisteredCycleTree();
         private final ReferenceCountedCache<File, MappedFile, MappedBytes, IOException> mappedFileCache =
                 new ReferenceCountedCache<>(MappedBytes::mappedBytes, SingleChronicleQueue.this::mappedFile);
         private boolean queuePathExists;
@@ -774,20 +1158,31 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
             @NotNull final RollingResourcesCache.Resource dateValue = that
                     .dateCache.resourceFor(cycle);
             try {
-                File path = dateValue.path;
+                File path = resolveCycleFile(dateValue.path);
 
                 if (!createIfAbsent &&
                         (cycle > directoryListing.getMaxCreatedCycle()
                                 || cycle < directoryListing.getMinCreatedCycle()
-                                || !path.exists())) {
+                                || !(path.exists() || restoreArchived(path)))) {
                     return null;
                 }
+                // restored next to its archive, which may be in another directory.
+                if (!path.exists())
+                    path = resolveCycleFile(dateValue.path);
+
+                // a new cycle is created in the stripe chosen for it.
+                if (createIfAbsent && stripingPolicy != null && !path.exists()
+                        && !resolveArchiveFile(path).exists())
+                    path = new File(stripingPolicy.directoryFor(cycle, that.path), path.getName());
 
                 if (createIfAbsent)
-                    checkDiskSpace(that.path);
+                    checkDiskSpace(path.getParentFile());
 
                 if (!dateValue.pathExists && createIfAbsent && !path.exists()) {
-                    PrecreatedFiles.renamePreCreatedFileToRequiredFile(path);
+                    if (restoreArchived(path))
+                        path = resolveCycleFile(dateValue.path);
+                    else
+                        PrecreatedFiles.renamePreCreatedFileToRequiredFile(path);
                 }
                 dateValue.pathExists = true;
 
@@ -810,6 +1205,7 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
                     wireStore.initIndex(wire);
                     // do not allow tailer to see the file until it's header is written
                     directoryListing.onFileCreated(path, cycle);
+                    maxCreatedCycle.accumulateAndGet(cycle, Math::max);
                     // allow directoryListing to pick up the file immediately
                     firstAndLastCycleTime = 0;
                 } else {
@@ -832,9 +1228,32 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
             }
         }
 
+        /**
+         * Restores a cycle file which has been archived next to its archive, see {@link CycleArchiver}. Tailers read
+         * archived cycles without this, it is only for what needs the store itself.
+         *
+         * @return true if the cycle file exists now.
+         */
+        private boolean restoreArchived(@NotNull File path) throws IOException {
+            final File archiveFile = resolveArchiveFile(path);
+            if (!archiveFile.exists())
+                return false;
+            path = CycleArchiver.cycleFileFor(archiveFile);
+            try {
+                CycleArchiver.restore(archiveFile, path);
+            } catch (IOException e) {
+                // another thread or process may have restored it first.
+                if (!path.exists())
+                    throw e;
+            }
+            if (Jvm.isDebugEnabled(getClass()))
+                Jvm.debug().on(getClass(), "Restored " + path + " from " + archiveFile);
+            return true;
+        }
+
         private void checkDiskSpace(@NotNull final File filePath) {
-            // This operation can stall for 500 ms or more under load.
-            DiskSpaceMonitor.INSTANCE.pollDiskSpace(filePath);
+            // only reads the last value, asking the file system can stall for 500 ms or more under load.
+            DiskSpaceChecker.INSTANCE.bytesFree(filePath);
         }
 
         /**
@@ -849,20 +1268,24 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
             if (!queuePathExists && !parentFile.exists())
                 throw new IllegalStateException("parentFile=" + parentFile.getName() + " does not exist");
 
+            // kept up to date by the listing, so never listed again.
+            final NavigableMap<Long, File> watchedTree = directoryListing.cycleTree();
+            if (watchedTree != null) {
+                // a cycle file expected is missing, as it hasn't been seen by the watcher yet.
+                if (force && directoryWatcher != null)
+                    directoryWatcher.rescan();
+                return watchedTree;
+            }
+
+            final CycleRegistry registry = directoryListing.cycleRegistry();
+            if (registry != null)
+                return registeredCycleTree(registry, force);
+
             CachedCycleTree cachedValue = cachedTree.get();
             final long directoryModCount = directoryListing.modCount();
             if (force || (cachedValue == null || directoryModCount == -1 || directoryModCount > cachedValue.directoryModCount)) {
 
-                final RollingResourcesCache dateCache = SingleChronicleQueue.this.dateCache;
-                final NavigableMap<Long, File> tree = new TreeMap<>();
-
-                final File[] files = parentFile.listFiles((File file) -> file.getPath().endsWith(SUFFIX));
-
-                for (File file : files) {
-                    tree.put(dateCache.toLong(file), file);
-                }
-
-                cachedValue = new CachedCycleTree(directoryModCount, tree);
+                cachedValue = new CachedCycleTree(directoryModCount, listCycleTree());
 
                 while (true) {
                     final CachedCycleTree existing = cachedTree.get();
@@ -880,6 +1303,65 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
             return cachedValue.cachedCycleTree;
         }
 
+        /**
+         * Applies the cycles created and deleted since the tree was last looked at, so a roll doesn't have every reader
+         * list the directories at once. The directories are only listed if the registry has been overwritten since,
+         * or some changes weren't added to it, e.g. by an older version.
+         */
+        @NotNull
+        private NavigableMap<Long, File> registeredCycleTree(@NotNull final CycleRegistry registry, final boolean force) {
+            final RegisteredCycleTree registered = registeredTree;
+            final long directoryModCount = directoryListing.modCount();
+            if (!force && directoryModCount == registered.directoryModCount)
+                return registered.tree;
+
+            synchronized (registered) {
+                if (!force && directoryModCount == registered.directoryModCount)
+                    return registered.tree;
+                final long length = registry.length();
+                final boolean applied = !force
+                        && registered.directoryModCount != Long.MIN_VALUE
+                        && directoryModCount - registered.directoryModCount == length - registered.registryLength
+                        && registry.read(registered.registryLength, length, this::applyToRegisteredTree);
+                if (!applied) {
+                    final NavigableMap<Long, File> listed = listCycleTree();
+                    // updated in place, as readers may be iterating over it.
+                    registered.tree.keySet().retainAll(listed.keySet());
+                    registered.tree.putAll(listed);
+                }
+                registered.registryLength = length;
+                registered.directoryModCount = directoryModCount;
+            }
+            return registered.tree;
+        }
+
+        private void applyToRegisteredTree(final int cycle, final boolean deleted) {
+            final File file = dateCache.resourceFor(cycle).path;
+            final Long key = dateCache.toLong(file);
+            final File resolved = deleted ? resolveArchiveFile(file) : resolveCycleFile(file);
+            // an archived cycle is only listed when its cycle file has been deleted.
+            if (deleted && !resolved.exists())
+                registeredTree.tree.remove(key);
+            else
+                registeredTree.tree.put(key, resolved);
+        }
+
+        @NotNull
+        private NavigableMap<Long, File> listCycleTree() {
+            final RollingResourcesCache dateCache = SingleChronicleQueue.this.dateCache;
+            final NavigableMap<Long, File> tree = new TreeMap<>();
+
+            final List<File> files = listCycleFiles(path, cycleDirectories);
+
+            for (File file : files) {
+                // an archived cycle is only listed when its cycle file has been deleted.
+                final Long key = dateCache.toLong(file);
+                if (file.getName().endsWith(SUFFIX) || !tree.containsKey(key))
+                    tree.put(key, file);
+            }
+            return tree;
+        }
+
         @Override
         public int nextCycle(int currentCycle, @NotNull TailerDirection direction) throws ParseException {
 
@@ -900,7 +1382,8 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
                         break;
                     }
                 }
-                fileFound |= currentCycleFile.exists();
+                fileFound |= resolveCycleFile(currentCycleFile).exists()
+                        || resolveArchiveFile(currentCycleFile).exists();
 
                 if (!fileFound) {
                     throw new IllegalStateException(
@@ -908,7 +1391,7 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
                                             "Available files: %s",
                                     currentCycle, currentCycleFile,
                                     directoryListing.getMinCreatedCycle(), directoryListing.getMaxCreatedCycle(),
-                                    Arrays.toString(path.list((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX)))));
+                                    Arrays.toString(path.list((d, n) -> isCycleFile(n)))));
                 }
             }
 
@@ -952,7 +1435,8 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
 
         private Long toKey(int cyle, String m) {
             final File file = dateCache.resourceFor(cyle).path;
-            if (!file.exists())
+            // the key is from the name, wherever the file is.
+            if (!resolveCycleFile(file).exists() && !resolveArchiveFile(file).exists())
                 throw new IllegalStateException("'file not found' for the " + m + ", file=" + file);
             return dateCache.toLong(file);
         }
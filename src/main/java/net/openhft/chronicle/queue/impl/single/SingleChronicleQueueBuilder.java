@@ -124,6 +124,22 @@ public class SingleChronicleQueueBuilder implements Cloneable, Marshallable {
     private Boolean readOnly;
     private Boolean strongAppenders;
     private Boolean checkInterrupts;
+    private Boolean separateIndexFile;
+    private Boolean checksums;
+    private Boolean verifyChecksums;
+    private Boolean hugePages;
+    private Boolean trailCleaner;
+    private Boolean archivedCycles;
+    private Integer preallocateChunks;
+    private Boolean watchDirectory;
+    private Boolean fairWriteLock;
+    private Boolean singleWriter;
+    @Nullable
+    private TieringPolicy tieringPolicy;
+    @Nullable
+    private RetentionPolicy retentionPolicy;
+    @Nullable
+    private StripingPolicy stripingPolicy;
 
     private TableStore<SCQMeta> metaStore;
 
@@ -376,7 +392,8 @@ public class SingleChronicleQueueBuilder implements Cloneable, Marshallable {
     }
 
     private void validateRollCycle(File metapath) {
-        if (!metapath.exists()) {
+        // the names of cycles which roll on size are longer than the format.
+        if (!metapath.exists() && rollCycle().subCycles() == 1) {
             // no metadata, so we need to check if there're cq4 files and if so try to validate roll cycle
             // the code is slightly brutal and crude but should work for most cases. It will NOT work if files were created with
             // the following cycles: LARGE_HOURLY_SPARSE LARGE_HOURLY_XSPARSE LARGE_DAILY XLARGE_DAILY HUGE_DAILY HUGE_DAILY_XSPARSE
@@ -420,7 +437,13 @@ public class SingleChronicleQueueBuilder implements Cloneable, Marshallable {
 
     @NotNull
     WriteLock writeLock() {
-        return readOnly() ? new ReadOnlyWriteLock() : new TableStoreWriteLock(metaStore, pauserSupplier(), timeoutMS() * 3 / 2);
+        if (readOnly())
+            return new ReadOnlyWriteLock();
+        if (singleWriter())
+            return new SingleWriterLock(metaStore, pauserSupplier(), timeoutMS() * 3 / 2);
+        return fairWriteLock()
+                ? new TicketWriteLock(metaStore, pauserSupplier(), timeoutMS() * 3 / 2)
+                : new TableStoreWriteLock(metaStore, pauserSupplier(), timeoutMS() * 3 / 2);
     }
 
     public int deltaCheckpointInterval() {
@@ -544,7 +567,8 @@ public class SingleChronicleQueueBuilder implements Cloneable, Marshallable {
 
         // can add an index2index & an index in one go.
         long minSize = Math.max(TEST_BLOCK_SIZE, 32L * indexCount());
-        return Math.max(minSize, bs);
+        bs = Math.max(minSize, bs);
+        return hugePages() ? HugePages.align(bs) : bs;
     }
 
     /**
@@ -860,6 +884,197 @@ public class SingleChronicleQueueBuilder implements Cloneable, Marshallable {
         return this;
     }
 
+    /**
+     * @return whether new cycle files keep their index in a separate {@link SingleChronicleQueue#INDEX_SUFFIX} file
+     * so the data file only holds excerpts. Existing files are read in whichever layout they were written.
+     */
+    public boolean separateIndexFile() {
+        if (separateIndexFile == null)
+            return Boolean.getBoolean("chronicle.queue.separateIndexFile");
+        return separateIndexFile;
+    }
+
+    public SingleChronicleQueueBuilder separateIndexFile(boolean separateIndexFile) {
+        this.separateIndexFile = separateIndexFile;
+        return this;
+    }
+
+    /**
+     * @return whether new cycle files end every data excerpt with a CRC32 of its content, four bytes which are not
+     * part of the excerpt as read. Existing files are read in whichever layout they were written. Excerpts can't be
+     * written with {@link net.openhft.chronicle.queue.ExcerptAppender#batchAppend} to these cycles.
+     */
+    public boolean checksums() {
+        if (checksums == null)
+            return Boolean.getBoolean("chronicle.queue.checksums");
+        return checksums;
+    }
+
+    public SingleChronicleQueueBuilder checksums(boolean checksums) {
+        this.checksums = checksums;
+        return this;
+    }
+
+    /**
+     * @return whether tailers check the checksum of every excerpt they read from a cycle with {@link #checksums()},
+     * failing with an {@link IllegalStateException} caused by a {@link java.io.StreamCorruptedException} if it
+     * doesn't match.
+     */
+    public boolean verifyChecksums() {
+        if (verifyChecksums == null)
+            return Boolean.getBoolean("chronicle.queue.verifyChecksums");
+        return verifyChecksums;
+    }
+
+    public SingleChronicleQueueBuilder verifyChecksums(boolean verifyChecksums) {
+        this.verifyChecksums = verifyChecksums;
+        return this;
+    }
+
+    /**
+     * @return whether cycle files are mapped in whole {@link HugePages#HUGE_PAGE_SIZE} chunks so they can be backed
+     * by huge pages. This is always the case when the queue is on a hugetlbfs mount.
+     */
+    public boolean hugePages() {
+        if (hugePages == null)
+            return Boolean.getBoolean("chronicle.queue.hugePages") || (path != null && HugePages.isHugeTlbFs(path));
+        return hugePages || (path != null && HugePages.isHugeTlbFs(path));
+    }
+
+    public SingleChronicleQueueBuilder hugePages(boolean hugePages) {
+        this.hugePages = hugePages;
+        return this;
+    }
+
+    /**
+     * @return whether the chunks of the latest cycle are written back once every appender and tailer of the queue
+     * in this process has passed them, so the kernel can drop them from the page cache without writing them out.
+     */
+    public boolean trailCleaner() {
+        if (trailCleaner == null)
+            return Boolean.getBoolean("chronicle.queue.trailCleaner");
+        return trailCleaner;
+    }
+
+    public SingleChronicleQueueBuilder trailCleaner(boolean trailCleaner) {
+        this.trailCleaner = trailCleaner;
+        return this;
+    }
+
+    /**
+     * @return whether tailers read the cycles archived by {@link CycleArchiver} whose cycle files have been deleted,
+     * which means looking for an archive whenever a tailer moves to an earlier cycle.
+     */
+    public boolean archivedCycles() {
+        if (archivedCycles == null)
+            return Boolean.getBoolean("chronicle.queue.archivedCycles");
+        return archivedCycles;
+    }
+
+    public SingleChronicleQueueBuilder archivedCycles(boolean archivedCycles) {
+        this.archivedCycles = archivedCycles;
+        return this;
+    }
+
+    /**
+     * @return how many chunks of the latest cycle have their disk space allocated ahead of the writer in the
+     * background, 0 for none.
+     */
+    public int preallocateChunks() {
+        if (preallocateChunks == null)
+            return Integer.getInteger("chronicle.queue.preallocateChunks", 0);
+        return preallocateChunks;
+    }
+
+    public SingleChronicleQueueBuilder preallocateChunks(int preallocateChunks) {
+        this.preallocateChunks = preallocateChunks;
+        return this;
+    }
+
+    /**
+     * @return whether the cycle files are kept up to date by watching the directories of the queue, with one watcher
+     * shared by every queue for the same directory in this process, rather than by listing the directories.
+     */
+    public boolean watchDirectory() {
+        if (watchDirectory == null)
+            return Boolean.getBoolean("chronicle.queue.watchDirectory");
+        return watchDirectory;
+    }
+
+    public SingleChronicleQueueBuilder watchDirectory(boolean watchDirectory) {
+        this.watchDirectory = watchDirectory;
+        return this;
+    }
+
+    /**
+     * @return whether writers, in this and other processes, get the write lock in the order they asked for it, see
+     * {@link TicketWriteLock}.
+     */
+    public boolean fairWriteLock() {
+        if (fairWriteLock == null)
+            return Boolean.getBoolean("chronicle.queue.fairWriteLock");
+        return fairWriteLock;
+    }
+
+    public SingleChronicleQueueBuilder fairWriteLock(boolean fairWriteLock) {
+        this.fairWriteLock = fairWriteLock;
+        return this;
+    }
+
+    /**
+     * @return whether this process is the only one which writes to the queue, so holds the write lock from when the
+     * first appender is created until the queue is closed, see {@link SingleWriterLock}.
+     */
+    public boolean singleWriter() {
+        if (singleWriter == null)
+            return Boolean.getBoolean("chronicle.queue.singleWriter");
+        return singleWriter;
+    }
+
+    public SingleChronicleQueueBuilder singleWriter(boolean singleWriter) {
+        this.singleWriter = singleWriter;
+        return this;
+    }
+
+    /**
+     * @return the directories older cycles are moved to and when, or null if all cycles stay in {@link #path()}.
+     */
+    @Nullable
+    public TieringPolicy tieringPolicy() {
+        return tieringPolicy;
+    }
+
+    public SingleChronicleQueueBuilder tieringPolicy(@Nullable TieringPolicy tieringPolicy) {
+        this.tieringPolicy = tieringPolicy;
+        return this;
+    }
+
+    /**
+     * @return the directories new cycles are spread across, or null if all cycles are created in {@link #path()}.
+     */
+    @Nullable
+    public StripingPolicy stripingPolicy() {
+        return stripingPolicy;
+    }
+
+    public SingleChronicleQueueBuilder stripingPolicy(@Nullable StripingPolicy stripingPolicy) {
+        this.stripingPolicy = stripingPolicy;
+        return this;
+    }
+
+    /**
+     * @return when old cycles are deleted, or null if they are kept.
+     */
+    @Nullable
+    public RetentionPolicy retentionPolicy() {
+        return retentionPolicy;
+    }
+
+    public SingleChronicleQueueBuilder retentionPolicy(@Nullable RetentionPolicy retentionPolicy) {
+        this.retentionPolicy = retentionPolicy;
+        return this;
+    }
+
     public SingleChronicleQueueBuilder clone() {
         try {
             return (SingleChronicleQueueBuilder) super.clone();
@@ -908,7 +1123,9 @@ public class SingleChronicleQueueBuilder implements Cloneable, Marshallable {
                 queue.wireType(),
                 (MappedBytes) wire.bytes(),
                 queue.indexCount(),
-                queue.indexSpacing());
+                queue.indexSpacing(),
+                queue.separateIndexFile(),
+                queue.checksums());
 
         wire.writeEventName(MetaDataKeys.header).typedMarshallable(wireStore);
 
@@ -33,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.StreamCorruptedException;
 import java.nio.BufferOverflowException;
@@ -51,7 +52,10 @@ public class SingleChronicleQueueExcerpts {
     private static StringBuilderPool SBP = new StringBuilderPool();
 
     private static void releaseWireResources(final Wire wire) {
-        StoreComponentReferenceHandler.queueForRelease(wire);
+        // released by the owning thread as soon as it is replaced, ClosableResources only refers to the current wires.
+        Bytes<?> bytes = wire.bytes();
+        if (bytes.refCount() > 0)
+            bytes.release();
     }
 
     // *************************************************************************
@@ -75,6 +79,8 @@ public class SingleChronicleQueueExcerpts {
         private final ClosableResources<?> closableResources;
         private final WireStorePool storePool;
         private final boolean checkInterrupts;
+        private final long maxCycleSize;
+        private final int subCycles;
         @Nullable
         WireStore store;
         private int cycle = Integer.MIN_VALUE;
@@ -84,6 +90,8 @@ public class SingleChronicleQueueExcerpts {
         private Wire bufferWire; // if you have a buffered write.
         @Nullable
         private Wire wireForIndex;
+        @Nullable
+        private Wire indexWire; // only set when the store has a separate index file
         private long position = 0;
         private long lastIndex = Long.MIN_VALUE;
         private long lastPosition;
@@ -91,6 +99,8 @@ public class SingleChronicleQueueExcerpts {
         @Nullable
         private Pretoucher pretoucher = null;
         private Padding padToCacheLines = Jvm.isArm() ? Padding.WORD : Padding.SMART;
+        @Nullable
+        private ExcerptChecksum checksum;
 
         StoreAppender(@NotNull SingleChronicleQueue queue,
                       @NotNull WireStorePool storePool,
@@ -98,13 +108,18 @@ public class SingleChronicleQueueExcerpts {
             this.queue = queue;
             this.storePool = storePool;
             this.checkInterrupts = checkInterrupts;
+            this.maxCycleSize = queue.rollCycle().maxCycleSize();
+            this.subCycles = queue.rollCycle().subCycles();
 
             this.writeLock = queue.writeLock();
+            // a single writer takes its lease up front, so appending doesn't lock.
+            if (writeLock instanceof SingleWriterLock)
+                ((SingleWriterLock) writeLock).acquireLease();
             this.context = new StoreAppenderContext();
             this.closableResources = new ClosableResources<>(storePool);
 
             // always put references to "this" last.
-            queue.addCloseListener(this, StoreAppender::close);
+            queue.addCloseListener(this, StoreAppender::closeOnQueueClose);
         }
 
         @Deprecated // Should not be providing accessors to reference-counted objects
@@ -115,6 +130,20 @@ public class SingleChronicleQueueExcerpts {
             return store;
         }
 
+        /**
+         * @return the cycle last written to, without rolling, for the {@link TrailCleaner}.
+         */
+        int trailCycle() {
+            return cycle;
+        }
+
+        /**
+         * @return the position of the last excerpt written, or {@link Long#MAX_VALUE} once closed.
+         */
+        long trailPosition() {
+            return store == null ? Long.MAX_VALUE : position;
+        }
+
         @Override
         @NotNull
         public Padding padToCacheAlignMode() {
@@ -153,19 +182,31 @@ public class SingleChronicleQueueExcerpts {
             }
         }
 
-        void close() {
+        /**
+         * Releases the wires and the store held for the current cycle in the calling thread. The appender can
+         * still be used and acquires them again on the next write.
+         */
+        @Override
+        public void close() {
+            closableResources.clear();
             Wire w0 = wireForIndex;
             wireForIndex = null;
             if (w0 != null)
                 w0.bytes().release();
+            Wire wi = indexWire;
+            indexWire = null;
+            if (wi != null)
+                wi.bytes().release();
             Wire w = wire;
             wire = null;
             if (w != null) {
                 w.bytes().release();
             }
 
-            if (pretoucher != null)
+            if (pretoucher != null) {
                 pretoucher.close();
+                pretoucher = null;
+            }
 
             if (store != null) {
                 storePool.release(store);
@@ -175,6 +216,11 @@ public class SingleChronicleQueueExcerpts {
                 bufferWire = null;
             }
             store = null;
+            cycle = Integer.MIN_VALUE;
+        }
+
+        void closeOnQueueClose() {
+            close();
             storePool.close();
         }
 
@@ -208,6 +254,8 @@ public class SingleChronicleQueueExcerpts {
 
         @Override
         public long batchAppend(final int timeoutMS, BatchAppender batchAppender) {
+            if (queue.checksums())
+                throw new UnsupportedOperationException("batchAppend can't write the checksums of excerpts");
 
             long maxMsgSize = this.queue.blockSize() / 4;
             long startTime = System.currentTimeMillis();
@@ -255,6 +303,12 @@ public class SingleChronicleQueueExcerpts {
             return wireForIndex;
         }
 
+        @Nullable
+        @Override
+        public Wire indexWire() {
+            return indexWire == null ? wireForIndex : indexWire;
+        }
+
         @Override
         public long timeoutMS() {
             return queue.timeoutMS;
@@ -319,7 +373,15 @@ public class SingleChronicleQueueExcerpts {
                     releaseWireResources(old);
                 }
             }
-
+            {
+                Wire old = this.indexWire;
+                MappedBytes indexBytes = store.indexBytes();
+                this.indexWire = indexBytes == null ? null : wireType.apply(indexBytes);
+                closableResources.indexWireReference = indexWire == null ? null : indexWire.bytes();
+                if (old != null) {
+                    releaseWireResources(old);
+                }
+            }
         }
 
         private void resetPosition() throws UnrecoverableTimeoutException {
@@ -358,6 +420,7 @@ public class SingleChronicleQueueExcerpts {
             if (wire == null)
                 setWireIfNull(cycle);
 
+            cycle = checkCycleSize(cycle);
             if (this.cycle != cycle)
                 rollCycleTo(cycle);
 
@@ -392,11 +455,34 @@ public class SingleChronicleQueueExcerpts {
             int header = bytes.readVolatileInt(lastPos);
             assert header != NOT_INITIALIZED;
             lastPos += lengthOf(bytes.readVolatileInt(lastPos)) + SPB_HEADER_SIZE;
+            rollBackUnfinished(bytes, lastPos);
             bytes.writePosition(lastPos);
 
             return wire.enterHeader(safeLength);
         }
 
+        /**
+         * Rolls back an excerpt left unfinished by a writer which died holding the write lock, so this writes where it
+         * started rather than after it.
+         *
+         * @param pos the end of the last data excerpt.
+         */
+        private void rollBackUnfinished(@NotNull Bytes<?> bytes, long pos) {
+            // cleared whether or not anything was left unfinished, so it is never taken for a later writer's.
+            if (!writeLock.ownerDied())
+                return;
+            int header;
+            // skip any meta data written since.
+            while ((header = bytes.readVolatileInt(pos)) != 0 && !isNotComplete(header))
+                pos += lengthOf(header) + SPB_HEADER_SIZE;
+            if (header == 0 || header == END_OF_DATA)
+                return;
+            // every writer reserves the overlap size after its header.
+            long cleared = ExcerptRollback.rollBack(bytes, pos, queue.overlapSize());
+            Jvm.warn().on(getClass(), "Rolled back " + cleared + " bytes of an excerpt at position " + pos
+                    + " of " + store.file() + " left unfinished by a writer which died");
+        }
+
         private void openContext(boolean metaData, int safeLength) {
             assert wire != null;
             position(writeHeader(wire, safeLength));
@@ -456,7 +542,7 @@ public class SingleChronicleQueueExcerpts {
         public void writeBytes(@NotNull BytesStore bytes) throws UnrecoverableTimeoutException {
             writeLock.lock();
             try {
-                int cycle = queue.cycle();
+                int cycle = checkCycleSize(queue.cycle());
                 if (this.cycle != cycle || wire == null)
                     rollCycleTo(cycle);
 
@@ -465,7 +551,10 @@ public class SingleChronicleQueueExcerpts {
                 beforeAppend(wire, wire.headerNumber() + 1);
                 Bytes<?> wireBytes = wire.bytes();
                 wireBytes.write(bytes);
-                if (padToCacheLines == Padding.WORD)
+                if (store.checksums()) {
+                    wireBytes.writeSkip((-wireBytes.writePosition()) & 0x3);
+                    writeChecksum(wireBytes);
+                } else if (padToCacheLines == Padding.WORD)
                     wireBytes.writeSkip((-wireBytes.writePosition()) & 0x3);
                 wire.updateHeader(position, false, 0);
                 lastIndex(wire.headerNumber());
@@ -480,6 +569,15 @@ public class SingleChronicleQueueExcerpts {
             }
         }
 
+        /**
+         * Ends the excerpt being written with the checksum of its content, for a store with checksums.
+         */
+        private void writeChecksum(@NotNull Bytes<?> bytes) {
+            if (checksum == null)
+                checksum = new ExcerptChecksum();
+            bytes.writeInt(checksum.checksum(bytes, position + 4, bytes.writePosition()));
+        }
+
         @NotNull
         Wire acquireBufferWire() {
             if (bufferWire == null) {
@@ -599,7 +697,7 @@ public class SingleChronicleQueueExcerpts {
 
         @Override
         public Runnable getCloserJob() {
-            return closableResources::releaseResources;
+            return closableResources::releaseLate;
         }
 
         /*
@@ -608,6 +706,16 @@ public class SingleChronicleQueueExcerpts {
         void beforeAppend(Wire wire, long index) {
         }
 
+        /**
+         * @return the next sub cycle if the current cycle has grown past {@link RollCycle#maxCycleSize()}, provided the
+         * period has another sub cycle.
+         */
+        private int checkCycleSize(int cycle) {
+            if (cycle != this.cycle || wire == null || store.writePosition() < maxCycleSize)
+                return cycle;
+            return (cycle + 1) % subCycles == 0 ? cycle : cycle + 1;
+        }
+
         private void rollCycleTo(int cycle) throws UnrecoverableTimeoutException {
             if (wire != null) {
                 // only a valid check if the wire was set.
@@ -751,7 +859,11 @@ public class SingleChronicleQueueExcerpts {
                     }
 
                     if (wire == StoreAppender.this.wire) {
-                        if (padToWordAlign)
+                        if (!metaData && store.checksums()) {
+                            // word aligned, so the next header can't straddle a cache line.
+                            wire.writeAlignTo(Integer.BYTES, 0);
+                            writeChecksum(wire.bytes());
+                        } else if (padToWordAlign)
                             wire.writeAlignTo(Integer.BYTES, 0);
                         else if (padToCacheAlign)
                             wire.padToCacheAlign();
@@ -839,28 +951,55 @@ public class SingleChronicleQueueExcerpts {
         private volatile Bytes wireReference = null;
         private volatile Bytes bufferWireReference = null;
         private volatile Bytes wireForIndexReference = null;
+        private volatile Bytes indexWireReference = null;
         private volatile CommonStore storeReference = null;
 
         ClosableResources(@NotNull final T storeReleasable) {
             this.storeReleasable = storeReleasable;
         }
 
-        private static void releaseIfNotNull(final Bytes bytesReference) {
+        private static boolean releaseIfNotNull(final Bytes bytesReference) {
             // Object is no longer reachable, check that it has not already been released
             if (bytesReference != null && bytesReference.refCount() > 0) {
                 bytesReference.release();
+                return true;
             }
+            return false;
         }
 
-        private void releaseResources() {
-            releaseIfNotNull(wireForIndexReference);
-            releaseIfNotNull(wireReference);
-            releaseIfNotNull(bufferWireReference);
+        private synchronized boolean releaseResources() {
+            boolean released = releaseIfNotNull(wireForIndexReference);
+            released |= releaseIfNotNull(indexWireReference);
+            released |= releaseIfNotNull(wireReference);
+            released |= releaseIfNotNull(bufferWireReference);
 
             // Object is no longer reachable, check that it has not already been released
-            if (storeReference != null && storeReference.refCount() > 0) {
-                storeReleasable.release(storeReference);
+            CommonStore store = storeReference;
+            if (store != null && store.refCount() > 0) {
+                storeReleasable.release(store);
+                released = true;
             }
+            clear();
+            return released;
+        }
+
+        /**
+         * Run when the owner was garbage collected without being closed.
+         */
+        private void releaseLate() {
+            if (releaseResources())
+                StoreComponentReferenceHandler.onLateRelease();
+        }
+
+        /**
+         * Forget the resources, once the owner has released them itself.
+         */
+        private synchronized void clear() {
+            wireForIndexReference = null;
+            indexWireReference = null;
+            wireReference = null;
+            bufferWireReference = null;
+            storeReference = null;
         }
     }
 
@@ -880,12 +1019,20 @@ public class SingleChronicleQueueExcerpts {
         private int cycle;
         private TailerDirection direction = TailerDirection.FORWARD;
         private Wire wireForIndex;
+        @Nullable
+        private Wire indexWire; // only set when the store has a separate index file
         private boolean readAfterReplicaAcknowledged;
         @NotNull
         private TailerState state = UNINITIALISED;
         private long indexAtCreation = Long.MIN_VALUE;
         private boolean readingDocumentFound = false;
         private long address = NoBytesStore.NO_PAGE;
+        private boolean closed = false;
+        @Nullable
+        private ExcerptChecksum checksum;
+        // set while reading a cycle which is only archived, see CycleArchiver.
+        @Nullable
+        private ArchivedCycleReader archivedReader;
 
         public StoreTailer(@NotNull final SingleChronicleQueue queue) {
             this.queue = queue;
@@ -957,17 +1104,29 @@ public class SingleChronicleQueueExcerpts {
             return readingDocument(false);
         }
 
-        private void close() {
+        /**
+         * Releases the wires and the store held for the current cycle in the calling thread. The tailer can't be
+         * used after it is closed.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            closableResources.clear();
             // the wire ref count will be released here by setting it to null
             context.wire(null);
             Wire w0 = wireForIndex;
             if (w0 != null)
                 w0.bytes().release();
             wireForIndex = null;
+            Wire wi = indexWire;
+            if (wi != null)
+                wi.bytes().release();
+            indexWire = null;
             if (store != null) {
                 queue.release(store);
             }
             store = null;
+            closeArchivedReader();
         }
 
         @Override
@@ -980,6 +1139,28 @@ public class SingleChronicleQueueExcerpts {
             return wireForIndex;
         }
 
+        /**
+         * @return the cycle being read, {@link Integer#MIN_VALUE} if none yet, for the {@link TrailCleaner}.
+         */
+        int trailCycle() {
+            return cycle;
+        }
+
+        /**
+         * @return the position read up to, or {@link Long#MAX_VALUE} once closed.
+         */
+        long trailPosition() {
+            if (closed)
+                return Long.MAX_VALUE;
+            Wire wire = context.wire();
+            return wire == null ? 0 : wire.bytes().readPosition();
+        }
+
+        @Override
+        public Wire indexWire() {
+            return indexWire == null ? wireForIndex : indexWire;
+        }
+
         @Override
         public long timeoutMS() {
             return queue.timeoutMS;
@@ -1006,6 +1187,8 @@ public class SingleChronicleQueueExcerpts {
 
             if (queue.isClosed.get())
                 throw new IllegalStateException("Queue is closed");
+            if (closed)
+                throw new IllegalStateException("Tailer is closed");
             try {
                 Jvm.optionalSafepoint();
                 boolean next = false, tryAgain = true;
@@ -1169,7 +1352,9 @@ public class SingleChronicleQueueExcerpts {
             boolean foundCycle = cycle(queue.rollCycle().toCycle(index));
 
             if (foundCycle) {
-                long lastSequenceNumberInThisCycle = store().sequenceForPosition(this, Long.MAX_VALUE, false);
+                long lastSequenceNumberInThisCycle = archivedReader != null
+                        ? archivedReader.excerpts() - 1
+                        : store().sequenceForPosition(this, Long.MAX_VALUE, false);
                 long nextIndex = queue.rollCycle().toIndex(this.cycle,
                         lastSequenceNumberInThisCycle);
                 moveToIndexInternal(nextIndex);
@@ -1207,10 +1392,13 @@ public class SingleChronicleQueueExcerpts {
         }
 
         private boolean inACycle(boolean includeMetaData)
-                throws EOFException {
+                throws EOFException, StreamCorruptedException {
             Jvm.optionalSafepoint();
             if (readAfterReplicaAcknowledged && inACycleCheckRep()) return false;
 
+            if (archivedReader != null)
+                return inArchivedCycle(archivedReader);
+
             Jvm.optionalSafepoint();
             if (direction != TailerDirection.FORWARD && !inACycleNotForward()) return false;
             Jvm.optionalSafepoint();
@@ -1276,14 +1464,70 @@ public class SingleChronicleQueueExcerpts {
             return true;
         }
 
-        private void inACycleFound(Bytes<?> bytes) {
+        private void inACycleFound(Bytes<?> bytes) throws StreamCorruptedException {
             context.closeReadLimit(bytes.capacity());
             wire().readAndSetLength(bytes.readPosition());
             long end = bytes.readLimit();
             context.closeReadPosition(end);
+            if (!context.isMetaData() && store.checksums())
+                inACycleChecksum(bytes, end);
             Jvm.optionalSafepoint();
         }
 
+        /**
+         * Hides the checksum ending the excerpt, verifying it if required.
+         */
+        private void inACycleChecksum(Bytes<?> bytes, long end) throws StreamCorruptedException {
+            long limit = end - ExcerptChecksum.LENGTH;
+            if (limit < bytes.readPosition())
+                throw new StreamCorruptedException("Excerpt at " + (bytes.readPosition() - 4) + " of cycle " + cycle
+                        + " is too short to hold a checksum");
+            if (queue.verifyChecksums()) {
+                if (checksum == null)
+                    checksum = new ExcerptChecksum();
+                int expected = bytes.readInt(limit);
+                int actual = checksum.checksum(bytes, bytes.readPosition(), limit);
+                if (actual != expected)
+                    throw new StreamCorruptedException("Checksum mismatch for index " + Long.toHexString(index)
+                            + " at " + (bytes.readPosition() - 4) + " of cycle " + cycle
+                            + ", expected " + Integer.toHexString(expected) + " but was " + Integer.toHexString(actual));
+            }
+            bytes.readLimit(limit);
+        }
+
+        /**
+         * Reads the excerpt at the index from the block of the archive holding it, so the cycle file isn't restored.
+         * Only data is read, as the archive doesn't index its meta data.
+         */
+        private boolean inArchivedCycle(@NotNull ArchivedCycleReader reader)
+                throws EOFException, StreamCorruptedException {
+            Bytes<?> bytes = wire().bytes();
+            bytes.clear();
+            try {
+                long sequence = queue.rollCycle().toSequenceNumber(index);
+                if (reader.sequence() != sequence && !reader.moveToSequence(sequence))
+                    throw new EOFException();
+                // with a header, as if read from the cycle file.
+                bytes.writeInt(0);
+                if (!reader.readExcerpt(bytes))
+                    throw new EOFException();
+            } catch (EOFException | StreamCorruptedException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+            long end = bytes.writePosition();
+            bytes.writeInt(0, (int) (end - 4));
+            bytes.readPositionRemaining(4, end - 4);
+
+            context.metaData(false);
+            context.closeReadLimit(bytes.capacity());
+            context.closeReadPosition(end);
+            if (queue.checksums())
+                inACycleChecksum(bytes, end);
+            return true;
+        }
+
         private long nextIndexWithNextAvailableCycle(int cycle) {
             assert cycle != Integer.MIN_VALUE : "cycle == Integer.MIN_VALUE";
 
@@ -1336,6 +1580,8 @@ public class SingleChronicleQueueExcerpts {
                 return queue.rollCycle().toIndex(nextCycle, 0);
 
             if (direction == BACKWARD) {
+                if (archivedReader != null)
+                    return queue.rollCycle().toIndex(nextCycle, archivedReader.excerpts() - 1);
                 try {
                     long lastSequenceNumber0 = store().lastSequenceNumber(this);
                     return queue.rollCycle().toIndex(nextCycle, lastSequenceNumber0);
@@ -1394,6 +1640,8 @@ public class SingleChronicleQueueExcerpts {
             }
 
             index(index);
+            if (archivedReader != null)
+                return moveToArchivedSequence(archivedReader, sequenceNumber);
             ScanResult scanResult = this.store().moveToIndexForRead(this, sequenceNumber);
             Bytes<?> bytes = wire().bytes();
             if (scanResult == FOUND) {
@@ -1412,6 +1660,21 @@ public class SingleChronicleQueueExcerpts {
             return scanResult;
         }
 
+        @NotNull
+        private ScanResult moveToArchivedSequence(@NotNull ArchivedCycleReader reader, long sequenceNumber) {
+            try {
+                if (reader.moveToSequence(sequenceNumber)) {
+                    state = FOUND_CYCLE;
+                    return FOUND;
+                }
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+            // the last cycle is never archived.
+            state = END_OF_CYCLE;
+            return END_OF_FILE;
+        }
+
         @NotNull
         @Override
         public final ExcerptTailer toStart() {
@@ -1470,6 +1733,7 @@ public class SingleChronicleQueueExcerpts {
                     queue.release(store);
 
                 if (this.store != wireStore) {
+                    closeArchivedReader();
                     this.store = wireStore;
                     closableResources.storeReference = wireStore;
                     resetWires();
@@ -1531,6 +1795,13 @@ public class SingleChronicleQueueExcerpts {
                 releaseWireResources(wireForIndexOld);
             }
 
+            Wire indexWireOld = indexWire;
+            MappedBytes indexBytes = store.indexBytes();
+            indexWire = indexBytes == null ? null : readAnywhere(wireType.apply(indexBytes));
+            closableResources.indexWireReference = indexWire == null ? null : indexWire.bytes();
+            if (indexWireOld != null) {
+                releaseWireResources(indexWireOld);
+            }
         }
 
         @NotNull
@@ -1569,6 +1840,7 @@ public class SingleChronicleQueueExcerpts {
                     queue.release(store);
 
                 if (this.store != wireStore) {
+                    closeArchivedReader();
                     this.store = wireStore;
                     closableResources.storeReference = wireStore;
                     resetWires();
@@ -1677,7 +1949,7 @@ public class SingleChronicleQueueExcerpts {
 
         @Override
         public Runnable getCloserJob() {
-            return closableResources::releaseResources;
+            return closableResources::releaseLate;
         }
 
         /**
@@ -1686,7 +1958,7 @@ public class SingleChronicleQueueExcerpts {
          */
         public void releaseResources() {
             queue.removeCloseListener(this);
-            getCloserJob().run();
+            closableResources.releaseResources();
         }
 
         @PackageLocal
@@ -1756,9 +2028,15 @@ public class SingleChronicleQueueExcerpts {
             if (this.cycle == cycle && state == FOUND_CYCLE)
                 return true;
 
+            if (archivedReader != null && this.cycle == cycle)
+                return true;
+            File archiveFile = queue.archivedCycleFile(cycle);
+            if (archiveFile != null && archivedCycle(cycle, archiveFile))
+                return true;
+
             WireStore nextStore = this.queue.storeForCycle(cycle, queue.epoch(), false);
 
-            if (nextStore == null && this.store == null)
+            if (nextStore == null && this.store == null && archivedReader == null)
                 return false;
 
             if (nextStore == null) {
@@ -1777,6 +2055,7 @@ public class SingleChronicleQueueExcerpts {
 
 
             context.wire(null);
+            closeArchivedReader();
             this.store = nextStore;
             closableResources.storeReference = nextStore;
             this.state = FOUND_CYCLE;
@@ -1788,12 +2067,56 @@ public class SingleChronicleQueueExcerpts {
             return true;
         }
 
+        /**
+         * Reads a cycle whose cycle file has been deleted from its archive, a block at a time, rather than restoring
+         * it.
+         *
+         * @return false if the archive couldn't be opened, e.g. as it has been deleted since.
+         */
+        private boolean archivedCycle(int cycle, @NotNull File archiveFile) {
+            ArchivedCycleReader reader;
+            try {
+                reader = new ArchivedCycleReader(archiveFile);
+            } catch (IOException e) {
+                Jvm.debug().on(getClass(), "Unable to read " + archiveFile + ", " + e);
+                return false;
+            }
+            closeArchivedReader();
+            if (store != null) {
+                queue.release(store);
+                store = null;
+                closableResources.storeReference = null;
+            }
+            archivedReader = reader;
+            // a wire of its own, as the wire replaced releases its bytes.
+            AbstractWire wire = (AbstractWire) queue.wireType().apply(Bytes.allocateElasticDirect());
+            context.wire(wire);
+            closableResources.wireReference = wire.bytes();
+            wire.parent(this);
+            this.state = FOUND_CYCLE;
+            this.setCycle(cycle);
+            return true;
+        }
+
+        private void closeArchivedReader() {
+            ArchivedCycleReader reader = archivedReader;
+            archivedReader = null;
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    Jvm.debug().on(getClass(), "Unable to close " + reader + ", " + e);
+                }
+            }
+        }
+
         void release() {
             if (store != null) {
                 queue.release(store);
                 store = null;
                 closableResources.storeReference = null;
             }
+            closeArchivedReader();
             state = UNINITIALISED;
         }
 
@@ -19,6 +19,7 @@ import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.bytes.MappedFile;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.Maths;
+import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.ReferenceCounter;
 import net.openhft.chronicle.core.annotation.UsedViaReflection;
 import net.openhft.chronicle.core.io.Closeable;
@@ -34,6 +35,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.StreamCorruptedException;
 import java.io.UncheckedIOException;
@@ -55,10 +57,15 @@ public class SingleChronicleQueueStore implements WireStore {
     private final MappedFile mappedFile;
     @NotNull
     private final ReferenceCounter refCount;
+    @Nullable
+    private final MappedFile indexMappedFile;
+    @Nullable
+    private final transient WireType wireType;
     @NotNull
     private transient Sequence sequence;
 
     private volatile Thread lastAccessedThread;
+    private transient int cycle = UNKNOWN_CYCLE;
 
     /**
      * used by {@link net.openhft.chronicle.wire.Demarshallable}
@@ -78,6 +85,10 @@ public class SingleChronicleQueueStore implements WireStore {
             this.indexing.writePosition = writePosition;
             this.sequence = new RollCycleEncodeSequence(writePosition, rollIndexCount(), rollIndexSpacing());
             this.indexing.sequence = sequence;
+            this.wireType = null;
+            this.indexMappedFile = indexing.separateIndexFile()
+                    ? indexMappedFile(mappedFile.file(), indexing.indexCount(), false)
+                    : null;
 
         } finally {
             assert wire.endUse();
@@ -96,6 +107,25 @@ public class SingleChronicleQueueStore implements WireStore {
                                      @NotNull MappedBytes mappedBytes,
                                      int indexCount,
                                      int indexSpacing) {
+        this(rollCycle, wireType, mappedBytes, indexCount, indexSpacing, false, false);
+    }
+
+    /**
+     * @param rollCycle         the current rollCycle
+     * @param wireType          the wire type that is being used
+     * @param mappedBytes       used to mapped the data store file
+     * @param indexCount        the number of entries in each index.
+     * @param indexSpacing      the spacing between indexed entries.
+     * @param separateIndexFile whether the index is held in a separate {@link SingleChronicleQueue#INDEX_SUFFIX} file
+     * @param checksums         whether every data excerpt ends with a checksum of its content
+     */
+    public SingleChronicleQueueStore(@NotNull RollCycle rollCycle,
+                                     @NotNull final WireType wireType,
+                                     @NotNull MappedBytes mappedBytes,
+                                     int indexCount,
+                                     int indexSpacing,
+                                     boolean separateIndexFile,
+                                     boolean checksums) {
         this.mappedBytes = mappedBytes;
         this.mappedFile = mappedBytes.mappedFile();
         this.refCount = ReferenceCounter.onReleased(this::onCleanup);
@@ -103,7 +133,11 @@ public class SingleChronicleQueueStore implements WireStore {
         indexCount = Maths.nextPower2(indexCount, 8);
         indexSpacing = Maths.nextPower2(indexSpacing, 1);
 
-        this.indexing = new SCQIndexing(wireType, indexCount, indexSpacing);
+        this.wireType = wireType;
+        this.indexMappedFile = separateIndexFile
+                ? indexMappedFile(mappedFile.file(), indexCount, true)
+                : null;
+        this.indexing = new SCQIndexing(wireType, indexCount, indexSpacing, separateIndexFile, checksums);
         this.indexing.writePosition = this.writePosition = wireType.newTwoLongReference().get();
         this.indexing.sequence = this.sequence = new RollCycleEncodeSequence(writePosition,
                 rollCycle.defaultIndexCount(),
@@ -122,6 +156,41 @@ public class SingleChronicleQueueStore implements WireStore {
 
     }
 
+    /**
+     * @param file the data file
+     * @return the index file which sits alongside a data file
+     */
+    @NotNull
+    static File indexFileFor(@NotNull File file) {
+        String name = file.getName();
+        if (name.endsWith(SingleChronicleQueue.SUFFIX))
+            name = name.substring(0, name.length() - SingleChronicleQueue.SUFFIX.length());
+        return new File(file.getParentFile(), name + SingleChronicleQueue.INDEX_SUFFIX);
+    }
+
+    @NotNull
+    private static MappedFile indexMappedFile(@NotNull File dataFile, int indexCount, boolean create) {
+        File file = indexFileFor(dataFile);
+        if (!create && !file.exists())
+            throw new IllegalStateException("Missing index file " + file);
+        // the overlap must cover a whole index so it can be bound across a chunk boundary.
+        long indexSize = indexCount * 8L + 256;
+        long overlapSize = OS.pageAlign(indexSize);
+        long chunkSize = OS.pageAlign(Math.max(64 << 10, indexSize * 8));
+        if (HugePages.isHugeTlbFs(file)) {
+            overlapSize = HugePages.align(overlapSize);
+            chunkSize = HugePages.align(chunkSize);
+        }
+        try {
+            MappedMemoryBudget.INSTANCE.beforeMapping(file, chunkSize, overlapSize);
+            MappedFile mappedFile = MappedFile.of(file, chunkSize, overlapSize, !create && !file.canWrite());
+            MappedMemoryBudget.INSTANCE.onMapped(mappedFile, overlapSize);
+            return mappedFile;
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private LongValue loadWritePosition(@NotNull WireIn wire) {
 
         final ValueIn read = wire.read(MetaDataField.writePosition);
@@ -242,6 +311,30 @@ public class SingleChronicleQueueStore implements WireStore {
         return MappedBytes.mappedBytes(mappedFile);
     }
 
+    /**
+     * @return a new instance of bytes for the separate index file, or {@code null} if the index is in the data file.
+     */
+    @Nullable
+    @Override
+    public MappedBytes indexBytes() {
+        return indexMappedFile == null ? null : MappedBytes.mappedBytes(indexMappedFile);
+    }
+
+    @Override
+    public boolean checksums() {
+        return indexing.checksums();
+    }
+
+    @Override
+    public int cycle() {
+        return cycle;
+    }
+
+    @Override
+    public void cycle(int cycle) {
+        this.cycle = cycle;
+    }
+
     @Override
     public long sequenceForPosition(@NotNull final ExcerptContext ec, final long position, boolean inclusive) throws
             UnrecoverableTimeoutException, StreamCorruptedException {
@@ -260,6 +353,7 @@ public class SingleChronicleQueueStore implements WireStore {
                 "indexing=" + indexing +
                 ", writePosition/seq=" + writePosition.toString() +
                 ", mappedFile=" + mappedFile +
+                (indexMappedFile == null ? "" : ", indexMappedFile=" + indexMappedFile) +
                 ", refCount=" + refCount +
                 '}';
     }
@@ -272,6 +366,8 @@ public class SingleChronicleQueueStore implements WireStore {
         Closeable.closeQuietly(writePosition);
         Closeable.closeQuietly(indexing);
         mappedBytes.release();
+        if (indexMappedFile != null)
+            indexMappedFile.release();
     }
 
     @Override
@@ -284,7 +380,17 @@ public class SingleChronicleQueueStore implements WireStore {
     @Override
     public void initIndex(@NotNull Wire wire) {
         try {
-            indexing.initIndex(wire);
+            if (indexMappedFile == null) {
+                indexing.initIndex(wire);
+                return;
+            }
+            WireType indexWireType = wireType == null ? WireType.BINARY_LIGHT : wireType;
+            Wire indexWire = indexWireType.apply(indexBytes());
+            try {
+                indexing.initIndex(indexWire);
+            } finally {
+                indexWire.bytes().release();
+            }
         } catch (IOException ex) {
             throw new UncheckedIOException(ex);
         }
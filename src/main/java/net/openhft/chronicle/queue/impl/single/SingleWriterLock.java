@@ -0,0 +1,162 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.table.AbstractTSQueueLock;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
+import net.openhft.chronicle.threads.TimingPauser;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static net.openhft.chronicle.core.Jvm.warn;
+
+/**
+ * The write lock of a queue with a single writer, see {@link SingleChronicleQueueBuilder#singleWriter(boolean)}. The
+ * first appender takes a lease on the write lock, which this process holds until the queue is closed, so appending
+ * only has to check the lease is still held and take an uncontended lock in this process, rather than lock and unlock
+ * the write lock shared with other processes.
+ * <p>
+ * Other writers, with any kind of write lock, wait for the lease and fail after the timeout rather than forcing it. If
+ * the process holding the lease dies, see {@link LockOwner}, the lease is taken over straight away.
+ * <p>
+ * The lease is held by the process, not a thread, so threads of this process writing at the same time wait for each
+ * other on a lock held in this process, and fail after the timeout like other writers. As every queue on the same
+ * directory in this process shares the lease, it is only given up when the last of them is closed.
+ */
+public class SingleWriterLock extends AbstractTSQueueLock implements WriteLock {
+    private static final String LOCK_KEY = "chronicle.write.lock";
+    private static final long LEASE = LockOwner.lease(LockOwner.CURRENT);
+    // the lease of this process on each lock file.
+    private static final Map<File, Lease> LEASES = new HashMap<>();
+    private final long timeout;
+    private final File leaseKey;
+    private volatile boolean leased;
+    // set once leased.
+    private volatile ReentrantLock writer;
+
+    public SingleWriterLock(@NotNull final TableStore<?> tableStore, Supplier<TimingPauser> pauser, Long timeoutMs) {
+        super(LOCK_KEY, tableStore, pauser);
+        timeout = timeoutMs;
+        leaseKey = path.getAbsoluteFile();
+    }
+
+    /**
+     * Takes the lease if it isn't held already.
+     *
+     * @throws IllegalStateException if another process holds the write lock for longer than the timeout.
+     */
+    void acquireLease() {
+        closeCheck();
+        if (leased && lock.getVolatileValue() == LEASE)
+            return;
+        synchronized (LEASES) {
+            if (lock.getVolatileValue() == LEASE) {
+                onLeased();
+                return;
+            }
+        }
+        synchronized (this) {
+            try {
+                long nextOwnerCheck = System.nanoTime() + OWNER_CHECK_NS;
+                // another queue in this process may hold the lease already.
+                while (true) {
+                    synchronized (LEASES) {
+                        if (lock.compareAndSwapValue(UNLOCKED, LEASE) || lock.getVolatileValue() == LEASE) {
+                            onLeased();
+                            break;
+                        }
+                    }
+                    if (Thread.interrupted())
+                        throw new IllegalStateException("Interrupted for the lock file:" + path);
+                    nextOwnerCheck = checkOwner(nextOwnerCheck);
+                    pauser.pause(timeout, TimeUnit.MILLISECONDS);
+                }
+
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Unable to take the single writer lease on the lock file:" + path
+                        + " after " + timeout + "ms, as it is held by " + LockOwner.toString(lock.getVolatileValue()));
+            } finally {
+                pauser.reset();
+            }
+        }
+    }
+
+    // called holding LEASES.
+    private void onLeased() {
+        if (leased)
+            return;
+        Lease lease = LEASES.computeIfAbsent(leaseKey, f -> new Lease());
+        lease.queues++;
+        writer = lease.writer;
+        leased = true;
+    }
+
+    @Override
+    public void lock() {
+        // only a read of a value no other process writes to while the lease is held.
+        if (!leased || lock.getVolatileValue() != LEASE) {
+            if (leased && lock.getVolatileValue() != UNLOCKED)
+                throw new IllegalStateException("The single writer lease on the lock file:" + path + " was taken by "
+                        + LockOwner.toString(lock.getVolatileValue()));
+            // not taken yet, or unlocked since.
+            acquireLease();
+        }
+        ReentrantLock writer = this.writer;
+        if (writer.tryLock())
+            return;
+        try {
+            if (writer.tryLock(timeout, TimeUnit.MILLISECONDS))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted for the lock file:" + path);
+        }
+        throw new IllegalStateException("Unable to write with the single writer lease on the lock file:" + path
+                + " after " + timeout + "ms, as another thread of this process is writing");
+    }
+
+    @Override
+    public void unlock() {
+        ReentrantLock writer = this.writer;
+        if (writer != null && writer.isHeldByCurrentThread())
+            writer.unlock();
+    }
+
+    @Override
+    public boolean locked() {
+        return leased;
+    }
+
+    @Override
+    public void close() {
+        synchronized (LEASES) {
+            // only given up by the last queue in this process to close.
+            Lease lease = leased ? LEASES.get(leaseKey) : null;
+            if (lease != null && --lease.queues == 0) {
+                LEASES.remove(leaseKey);
+                if (!tableStore.isClosed() && !lock.compareAndSwapValue(LEASE, UNLOCKED)
+                        && lock.getVolatileValue() != UNLOCKED)
+                    warn().on(getClass(), "The single writer lease on the lock file:" + path + " was taken by "
+                            + LockOwner.toString(lock.getVolatileValue()));
+            }
+            leased = false;
+        }
+        super.close();
+    }
+
+    /**
+     * The lease of this process on a lock file, guarded by the lock on {@link #LEASES}.
+     */
+    private static final class Lease {
+        // serialises the threads of this process writing with the lease.
+        final ReentrantLock writer = new ReentrantLock();
+        // the number of locks holding the lease.
+        int queues;
+    }
+}
@@ -3,15 +3,14 @@ package net.openhft.chronicle.queue.impl.single;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.queue.ExcerptAppender;
 import net.openhft.chronicle.threads.Threads;
-import net.openhft.chronicle.wire.Wire;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
-import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 public enum StoreComponentReferenceHandler implements Closeable {
@@ -25,7 +24,6 @@ public enum StoreComponentReferenceHandler implements Closeable {
     private static final ScheduledExecutorService THREAD_LOCAL_CLEANER_EXECUTOR_SERVICE =
             Threads.acquireScheduledExecutorService(THREAD_NAME, true);
 
-    private static final Queue<Wire> WIRES_TO_RELEASE = new ConcurrentLinkedQueue<>();
     private static final ConcurrentMap<Reference<?>, Runnable> CLOSE_ACTIONS = new ConcurrentHashMap<>();
     private static final boolean SHOULD_RELEASE_RESOURCES =
             Boolean.valueOf(System.getProperty("chronicle.queue.release.weakRef.resources",
@@ -33,17 +31,11 @@ public enum StoreComponentReferenceHandler implements Closeable {
     private static final int MAX_BATCH_SIZE =
             Integer.getInteger("chronicle.queue.release.weakRef.maxBatch", 10_000);
     private static final AtomicBoolean MAX_BATCH_WARNING_LOGGED = new AtomicBoolean(false);
+    private static final AtomicLong LATE_RELEASES = new AtomicLong();
 
     static {
-        THREAD_LOCAL_CLEANER_EXECUTOR_SERVICE.scheduleWithFixedDelay(() -> {
-
-            boolean workDone;
-            do {
-                workDone = processReferenceQueue(EXPIRED_THREAD_LOCAL_APPENDERS_QUEUE);
-                workDone |= processReferenceQueue(EXPIRED_THREAD_LOCAL_TAILERS_QUEUE);
-                workDone |= processWireQueue();
-            } while (workDone);
-        }, 0, 1, TimeUnit.SECONDS);
+        THREAD_LOCAL_CLEANER_EXECUTOR_SERVICE.scheduleWithFixedDelay(StoreComponentReferenceHandler::releasePending,
+                0, 1, TimeUnit.SECONDS);
 
         Runtime.getRuntime().addShutdownHook(new Thread(THREAD_LOCAL_CLEANER_EXECUTOR_SERVICE::shutdown));
     }
@@ -60,25 +52,27 @@ public enum StoreComponentReferenceHandler implements Closeable {
         CLOSE_ACTIONS.put(reference, cleanupJob);
     }
 
-    static void queueForRelease(final Wire wire) {
-        WIRES_TO_RELEASE.add(wire);
+    /**
+     * Releases everything currently waiting for the periodic sweep, in the calling thread.
+     */
+    static void releasePending() {
+        boolean workDone;
+        do {
+            workDone = processReferenceQueue(EXPIRED_THREAD_LOCAL_APPENDERS_QUEUE);
+            workDone |= processReferenceQueue(EXPIRED_THREAD_LOCAL_TAILERS_QUEUE);
+        } while (workDone);
     }
 
-    private static boolean processWireQueue() {
-        Wire wireToRelease;
-        boolean released = false;
-        while ((wireToRelease = WIRES_TO_RELEASE.poll()) != null) {
-            try {
-                released = true;
-                wireToRelease.bytes().release();
-            } catch (IllegalStateException e) {
-                // ignore this - resource may have already been released by explicit close() operation
-            } catch (Throwable t) {
-                LOGGER.warn("Failed to release wire bytes", t);
-            }
-        }
+    static void onLateRelease() {
+        LATE_RELEASES.incrementAndGet();
+    }
 
-        return released;
+    /**
+     * @return how many appenders and tailers had their resources released after they were garbage collected,
+     * rather than by being closed.
+     */
+    public static long lateReleases() {
+        return LATE_RELEASES.get();
     }
 
     private static boolean processReferenceQueue(final ReferenceQueue<?> referenceQueue) {
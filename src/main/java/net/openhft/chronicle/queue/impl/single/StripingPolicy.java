@@ -0,0 +1,111 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Spreads the cycles of a queue across several directories, e.g. one per disk, so appending and replaying many
+ * cycles at once uses the bandwidth of all of them. The queue directory is the first stripe and always holds the
+ * metadata.
+ * <p>
+ * A new cycle is created in the stripe chosen by the {@link Assignment}, and cycles are found whichever stripe they
+ * are in. Every process using the queue must be built with the same stripes.
+ * <pre>
+ * SingleChronicleQueueBuilder.binary(nvme0)
+ *         .stripingPolicy(StripingPolicy.create()
+ *                 .stripe(nvme1)
+ *                 .stripe(nvme2))
+ * </pre>
+ */
+public final class StripingPolicy {
+    private final List<File> directories = new ArrayList<>();
+    @NotNull
+    private Assignment assignment = Assignment.ROUND_ROBIN;
+
+    private StripingPolicy() {
+    }
+
+    @NotNull
+    public static StripingPolicy create() {
+        return new StripingPolicy();
+    }
+
+    /**
+     * Adds a stripe in addition to the queue directory.
+     */
+    @NotNull
+    public StripingPolicy stripe(@NotNull File directory) {
+        directories.add(directory);
+        return this;
+    }
+
+    /**
+     * @return the stripes in addition to the queue directory.
+     */
+    @NotNull
+    public List<File> directories() {
+        return Collections.unmodifiableList(directories);
+    }
+
+    @NotNull
+    public Assignment assignment() {
+        return assignment;
+    }
+
+    @NotNull
+    public StripingPolicy assignment(@NotNull Assignment assignment) {
+        this.assignment = assignment;
+        return this;
+    }
+
+    /**
+     * @param queueDir the queue directory, which is the first stripe.
+     * @return the directory to create a cycle in.
+     */
+    @NotNull
+    File directoryFor(int cycle, @NotNull File queueDir) {
+        int stripes = directories.size() + 1;
+        switch (assignment) {
+            case FREE_SPACE:
+                File best = queueDir;
+                long bestSpace = queueDir.getUsableSpace();
+                for (File directory : directories) {
+                    long space = directory.getUsableSpace();
+                    if (space > bestSpace) {
+                        best = directory;
+                        bestSpace = space;
+                    }
+                }
+                return best;
+
+            case ROUND_ROBIN:
+            default:
+                int stripe = Math.floorMod(cycle, stripes);
+                return stripe == 0 ? queueDir : directories.get(stripe - 1);
+        }
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "StripingPolicy{" +
+                "directories=" + directories +
+                ", assignment=" + assignment +
+                '}';
+    }
+
+    public enum Assignment {
+        /**
+         * By cycle number, so consecutive cycles are on different stripes.
+         */
+        ROUND_ROBIN,
+        /**
+         * The stripe with the most usable space when the cycle is created.
+         */
+        FREE_SPACE
+    }
+}
@@ -17,9 +17,9 @@
  */
 package net.openhft.chronicle.queue.impl.single;
 
-import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.queue.impl.TableStore;
 import net.openhft.chronicle.queue.impl.table.AbstractTSQueueLock;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
 import net.openhft.chronicle.threads.TimingPauser;
 
 import java.util.concurrent.TimeUnit;
@@ -34,7 +34,7 @@ import static net.openhft.chronicle.core.Jvm.warn;
 public class TSQueueLock extends AbstractTSQueueLock implements QueueLock {
 
     private static final String LOCK_KEY = "chronicle.queue.lock";
-    private static final long PID = Jvm.getProcessId();
+    private static final long PID = LockOwner.CURRENT;
     private final ThreadLocal<Long> lockHolderTidTL = new ThreadLocal<>();
     private final long timeout;
 
@@ -54,9 +54,11 @@ public class TSQueueLock extends AbstractTSQueueLock implements QueueLock {
         closeCheck();
         long tid = Thread.currentThread().getId();
         try {
+            long nextOwnerCheck = System.nanoTime() + OWNER_CHECK_NS;
             while (!lock.compareAndSwapValue(UNLOCKED, PID)) {
                 if (Thread.interrupted())
                     throw new IllegalStateException("Interrupted");
+                nextOwnerCheck = checkOwner(nextOwnerCheck);
                 pauser.pause(timeout, TimeUnit.MILLISECONDS);
             }
 
@@ -64,7 +66,7 @@ public class TSQueueLock extends AbstractTSQueueLock implements QueueLock {
             lockHolderTidTL.set(tid);
         } catch (TimeoutException e) {
             warn().on(getClass(), "Couldn't acquire lock after " + timeout + "ms for the lock file:"
-                    + path + ", overriding the lock. Lock was held by PID " + lock.getVolatileValue());
+                    + path + ", overriding the lock. Lock was held by " + LockOwner.toString(lock.getVolatileValue()));
             forceUnlock();
             acquireLock();
         } finally {
@@ -84,14 +86,16 @@ public class TSQueueLock extends AbstractTSQueueLock implements QueueLock {
             return;
 
         try {
+            long nextOwnerCheck = System.nanoTime() + OWNER_CHECK_NS;
             while (lock.getVolatileValue() != UNLOCKED) {
                 if (Thread.interrupted())
                     throw new IllegalStateException("Interrupted");
+                nextOwnerCheck = checkOwner(nextOwnerCheck);
                 pauser.pause(timeout, TimeUnit.MILLISECONDS);
             }
         } catch (TimeoutException e) {
             warn().on(getClass(), "Queue lock is still held after " + timeout + "ms for the lock file:"
-                    + path + ". Lock is held by PID " + lock.getVolatileValue() + ". Unlocking forcibly");
+                    + path + ". Lock is held by " + LockOwner.toString(lock.getVolatileValue()) + ". Unlocking forcibly");
             forceUnlock();
         } catch (NullPointerException ex) {
             if (!tableStore.isClosed())
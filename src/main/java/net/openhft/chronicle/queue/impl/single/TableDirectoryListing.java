@@ -4,11 +4,15 @@ import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.values.LongValue;
 import net.openhft.chronicle.queue.impl.TableStore;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
 import java.util.function.ToIntFunction;
 
 final class TableDirectoryListing implements DirectoryListing {
@@ -20,20 +24,35 @@ final class TableDirectoryListing implements DirectoryListing {
     private static final int UNSET_MIN_CYCLE = Integer.MAX_VALUE;
     private final TableStore<?> tableStore;
     private final Path queuePath;
+    private final List<File> tiers;
     private final ToIntFunction<File> fileToCycleFunction;
     private final boolean readOnly;
+    @Nullable
+    private final CycleDirectoryWatcher watcher;
     private volatile LongValue maxCycleValue;
     private volatile LongValue minCycleValue;
     private volatile LongValue modCount;
+    private volatile CycleRegistry registry;
 
     TableDirectoryListing(
             @NotNull TableStore<?> tableStore, final Path queuePath,
             final ToIntFunction<File> fileToCycleFunction,
             final boolean readOnly) {
+        this(tableStore, queuePath, Collections.emptyList(), fileToCycleFunction, readOnly, null);
+    }
+
+    TableDirectoryListing(
+            @NotNull TableStore<?> tableStore, final Path queuePath,
+            final List<File> tiers,
+            final ToIntFunction<File> fileToCycleFunction,
+            final boolean readOnly,
+            @Nullable final CycleDirectoryWatcher watcher) {
         this.tableStore = tableStore;
         this.queuePath = queuePath;
+        this.tiers = tiers;
         this.fileToCycleFunction = fileToCycleFunction;
         this.readOnly = readOnly;
+        this.watcher = watcher;
     }
 
     @Override
@@ -46,6 +65,7 @@ final class TableDirectoryListing implements DirectoryListing {
             if (modCount.getVolatileValue() == Long.MIN_VALUE) {
                 modCount.compareAndSwapValue(Long.MIN_VALUE, 0);
             }
+            registry = CycleRegistry.acquire(ts, CycleRegistry.DEFAULT_CAPACITY);
             return this;
         });
     }
@@ -67,6 +87,7 @@ final class TableDirectoryListing implements DirectoryListing {
             LOGGER.warn("DirectoryListing is read-only, not updating listing");
             return;
         }
+        registry.onCreated(cycle);
         modCount.addAtomicValue(1);
         if (cycle > getMaxCreatedCycle()) {
             maxCycleValue.setMaxValue(cycle);
@@ -76,6 +97,19 @@ final class TableDirectoryListing implements DirectoryListing {
         }
     }
 
+    @Override
+    public void onCycleDeleted(final int cycle, final int nextCycle) {
+        closeCheck();
+        if (readOnly) {
+            LOGGER.warn("DirectoryListing is read-only, not updating listing");
+            return;
+        }
+        // only moves on if no other process has already.
+        minCycleValue.compareAndSwapValue(cycle, nextCycle);
+        registry.onDeleted(cycle);
+        modCount.addAtomicValue(1);
+    }
+
     @Override
     public int getMaxCreatedCycle() {
         closeCheck();
@@ -94,13 +128,25 @@ final class TableDirectoryListing implements DirectoryListing {
         return modCount.getVolatileValue();
     }
 
+    @Nullable
+    @Override
+    public NavigableMap<Long, File> cycleTree() {
+        return watcher == null ? null : watcher.cycleTree();
+    }
+
+    @Nullable
+    @Override
+    public CycleRegistry cycleRegistry() {
+        return registry;
+    }
+
     @Override
     public String toString() {
         return tableStore.dump();
     }
 
     public void close() {
-        Closeable.closeQuietly(minCycleValue, maxCycleValue, modCount);
+        Closeable.closeQuietly(minCycleValue, maxCycleValue, modCount, registry);
     }
 
     private void closeCheck() {
@@ -120,17 +166,24 @@ final class TableDirectoryListing implements DirectoryListing {
     public void forceRefresh() {
         if (tableStore.isClosed())
             return;
+        if (watcher != null) {
+            // the watcher may not have seen a cycle just created yet, so the lowest cycle is never raised and the
+            // highest never lowered, deleted cycles move the lowest on in onCycleDeleted.
+            int minCycle = watcher.minCycle();
+            if (minCycle == UNSET_MIN_CYCLE)
+                return; // no cycles seen yet.
+            minCycleValue.setMinValue(minCycle);
+            maxCycleValue.setMaxValue(watcher.maxCycle());
+            return;
+        }
         while (true) {
             long currentMax = maxCycleValue.getVolatileValue();
-            final File[] queueFiles = queuePath.toFile().
-                    listFiles((d, f) -> f.endsWith(SingleChronicleQueue.SUFFIX));
+            final List<File> queueFiles = SingleChronicleQueue.listCycleFiles(queuePath.toFile(), tiers);
             int min = UNSET_MIN_CYCLE;
             int max = UNSET_MAX_CYCLE;
-            if (queueFiles != null) {
-                for (File queueFile : queueFiles) {
-                    min = Math.min(fileToCycleFunction.applyAsInt(queueFile), min);
-                    max = Math.max(fileToCycleFunction.applyAsInt(queueFile), max);
-                }
+            for (File queueFile : queueFiles) {
+                min = Math.min(fileToCycleFunction.applyAsInt(queueFile), min);
+                max = Math.max(fileToCycleFunction.applyAsInt(queueFile), max);
             }
             minCycleValue.setOrderedValue(min);
             if (maxCycleValue.compareAndSwapValue(currentMax, max))
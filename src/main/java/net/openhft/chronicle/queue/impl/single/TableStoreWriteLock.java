@@ -19,18 +19,18 @@ package net.openhft.chronicle.queue.impl.single;
 
 import net.openhft.chronicle.queue.impl.TableStore;
 import net.openhft.chronicle.queue.impl.table.AbstractTSQueueLock;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
 import net.openhft.chronicle.threads.TimingPauser;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 
-import static net.openhft.chronicle.core.Jvm.getProcessId;
 import static net.openhft.chronicle.core.Jvm.warn;
 
 public class TableStoreWriteLock extends AbstractTSQueueLock implements WriteLock {
     private static final String LOCK_KEY = "chronicle.write.lock";
-    private static final long PID = getProcessId();
+    private static final long PID = LockOwner.CURRENT;
     private final ThreadLocal<Boolean> lockedByCurrentThread = ThreadLocal.withInitial(() -> false);
     private final long timeout;
 
@@ -44,16 +44,19 @@ public class TableStoreWriteLock extends AbstractTSQueueLock implements WriteLoc
         assert !lockedByCurrentThread.get() : "Lock is already acquired by current thread and is not reentrant - nested document context?";
         closeCheck();
         try {
+            long nextOwnerCheck = System.nanoTime() + OWNER_CHECK_NS;
             while (!lock.compareAndSwapValue(UNLOCKED, PID)) {
                 if (Thread.interrupted())
                     throw new IllegalStateException("Interrupted for the lock file:" + path);
+                nextOwnerCheck = checkOwner(nextOwnerCheck);
                 pauser.pause(timeout, TimeUnit.MILLISECONDS);
             }
 
             // success
         } catch (TimeoutException e) {
+            checkNotLeased();
             warn().on(getClass(), "Couldn't acquire write lock after " + timeout
-                    + "ms for the lock file:" + path + ", overriding the lock. Lock was held by PID " + lock.getVolatileValue());
+                    + "ms for the lock file:" + path + ", overriding the lock. Lock was held by " + LockOwner.toString(lock.getVolatileValue()));
             forceUnlock();
             lock();
         } finally {
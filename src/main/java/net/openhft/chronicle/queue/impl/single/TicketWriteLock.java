@@ -0,0 +1,194 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.util.Histogram;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.table.AbstractTSQueueLock;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
+import net.openhft.chronicle.threads.TimingPauser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static net.openhft.chronicle.core.Jvm.warn;
+
+/**
+ * A fair write lock, shared between processes by two counters in the table store. A writer takes the next ticket and
+ * holds the lock once the ticket is being served, so writers hold the lock in the order they asked for it rather than
+ * whichever CAS wins.
+ * <p>
+ * The writer next in line spins, then yields, then parks for a little longer each time. Writers further back park
+ * straight away, as they have at least one writer to wait for. If the ticket being served doesn't move on and the process
+ * holding the lock has died, see {@link LockOwner}, the ticket is skipped straight away. Otherwise, e.g. if a writer
+ * died while waiting for its turn, the ticket is skipped once it hasn't moved on within the timeout. A writer whose
+ * ticket was skipped still gets the lock, but out of turn.
+ * <p>
+ * The lock held by {@link TableStoreWriteLock} is also taken once the ticket is being served, so processes using
+ * either lock exclude each other, and tools which look at it see the queue as locked.
+ */
+public class TicketWriteLock extends AbstractTSQueueLock implements WriteLock {
+    private static final String LOCK_KEY = "chronicle.write.lock";
+    private static final String NEXT_TICKET_KEY = "chronicle.write.lock.nextTicket";
+    private static final String NOW_SERVING_KEY = "chronicle.write.lock.nowServing";
+    private static final long PID = LockOwner.CURRENT;
+    private static final int SPINS = Integer.getInteger("chronicle.queue.ticketLock.spins", 1000);
+    private static final int YIELDS = Integer.getInteger("chronicle.queue.ticketLock.yields", 100);
+    private static final long MIN_PARK_NS = 1_000;
+    private static final long MAX_PARK_NS = TimeUnit.MICROSECONDS.toNanos(
+            Long.getLong("chronicle.queue.ticketLock.maxParkUS", 100));
+
+    private final ThreadLocal<Boolean> lockedByCurrentThread = ThreadLocal.withInitial(() -> false);
+    private final LongValue nextTicket;
+    private final LongValue nowServing;
+    private final long timeoutNS;
+    // only sampled while holding the lock.
+    private final Histogram waitTimes = new Histogram(32, 7);
+    private final Histogram holdTimes = new Histogram(32, 7);
+    private long ticket;
+    private long lockedAt;
+
+    public TicketWriteLock(@NotNull final TableStore<?> tableStore, Supplier<TimingPauser> pauser, Long timeoutMs) {
+        super(LOCK_KEY, tableStore, pauser);
+        timeoutNS = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        LongValue[] counters = tableStore.doWithExclusiveLock(ts -> {
+            LongValue next = ts.acquireValueFor(NEXT_TICKET_KEY, 0);
+            LongValue serving = ts.acquireValueFor(NOW_SERVING_KEY, 0);
+            return new LongValue[]{next, serving};
+        });
+        nextTicket = counters[0];
+        nowServing = counters[1];
+    }
+
+    @Override
+    public void lock() {
+        assert !lockedByCurrentThread.get() : "Lock is already acquired by current thread and is not reentrant - nested document context?";
+        closeCheck();
+        final long start = System.nanoTime();
+        final long ticket = nextTicket.addAtomicValue(1) - 1;
+        boolean interrupted = false;
+
+        long serving = nowServing.getVolatileValue();
+        long servingSince = start;
+        long nextOwnerCheck = start + OWNER_CHECK_NS;
+        int waits = 0;
+        // past our ticket if it was skipped.
+        while (serving < ticket) {
+            interrupted |= Thread.interrupted();
+            pause(waits++, ticket - serving);
+            final long now = System.nanoTime();
+            final long current = nowServing.getVolatileValue();
+            if (current != serving) {
+                serving = current;
+                servingSince = now;
+                nextOwnerCheck = now + OWNER_CHECK_NS;
+
+            } else if (now >= nextOwnerCheck) {
+                nextOwnerCheck = now + OWNER_CHECK_NS;
+                if (unlockIfOwnerDead())
+                    skip(serving, "its writer has died");
+                else if (now - servingSince > timeoutNS)
+                    skip(serving, "it wasn't released after " + TimeUnit.NANOSECONDS.toMillis(timeoutNS) + "ms");
+            }
+        }
+
+        // exclude writers using a TableStoreWriteLock.
+        long lockSince = System.nanoTime();
+        nextOwnerCheck = lockSince + OWNER_CHECK_NS;
+        waits = 0;
+        while (!lock.compareAndSwapValue(UNLOCKED, PID)) {
+            interrupted |= Thread.interrupted();
+            pause(waits++, 1);
+            nextOwnerCheck = checkOwner(nextOwnerCheck);
+            if (System.nanoTime() - lockSince > timeoutNS) {
+                if (LockOwner.isLease(lock.getVolatileValue())) {
+                    // our turn has to be passed on.
+                    skip(ticket, "the queue has a single writer");
+                    checkNotLeased();
+                }
+                warn().on(getClass(), "Couldn't acquire write lock after " + TimeUnit.NANOSECONDS.toMillis(timeoutNS)
+                        + "ms for the lock file:" + path + ", overriding the lock. Lock was held by " + LockOwner.toString(lock.getVolatileValue()));
+                forceUnlock();
+                lockSince = System.nanoTime();
+            }
+        }
+
+        this.ticket = ticket;
+        if (interrupted) {
+            // our turn has to be passed on, or every writer after us would wait for the timeout.
+            release();
+            throw new IllegalStateException("Interrupted for the lock file:" + path);
+        }
+        lockedAt = System.nanoTime();
+        waitTimes.sample(lockedAt - start);
+        assert setLock(true);
+    }
+
+    private void skip(long serving, String reason) {
+        if (nowServing.compareAndSwapValue(serving, serving + 1))
+            warn().on(getClass(), "Skipped ticket " + serving + " of the write lock as " + reason + ", for the lock file:" + path);
+    }
+
+    private static void pause(int waits, long ahead) {
+        // only the writer next in line is worth spinning for.
+        if (ahead <= 1) {
+            if (waits < SPINS)
+                return;
+            if (waits < SPINS + YIELDS) {
+                Thread.yield();
+                return;
+            }
+            waits -= SPINS + YIELDS;
+        }
+        LockSupport.parkNanos(Math.min(MAX_PARK_NS, MIN_PARK_NS << Math.min(waits, 10)));
+    }
+
+    private boolean setLock(boolean lock) {
+        lockedByCurrentThread.set(lock);
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        closeCheck();
+        holdTimes.sample(System.nanoTime() - lockedAt);
+        release();
+        assert setLock(false);
+    }
+
+    private void release() {
+        if (!lock.compareAndSwapValue(PID, UNLOCKED))
+            warn().on(getClass(), "Write lock was unlocked by someone else! For the lock file:" + path);
+        if (!nowServing.compareAndSwapValue(ticket, ticket + 1))
+            warn().on(getClass(), "Ticket " + ticket + " of the write lock was skipped by someone else! For the lock file:" + path);
+    }
+
+    @Override
+    public boolean locked() {
+        return lock.getVolatileValue() != UNLOCKED;
+    }
+
+    /**
+     * @return how long this process waited for the lock, in nanoseconds. This is updated while the lock is held.
+     */
+    @NotNull
+    public Histogram waitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * @return how long this process held the lock, in nanoseconds. This is updated while the lock is held.
+     */
+    @NotNull
+    public Histogram holdTimes() {
+        return holdTimes;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Closeable.closeQuietly(nextTicket, nowServing);
+    }
+}
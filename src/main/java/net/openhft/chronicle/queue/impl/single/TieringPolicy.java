@@ -0,0 +1,121 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where older cycles of a queue are kept, e.g. recent cycles on local SSDs and older ones on larger disks or NFS.
+ * <p>
+ * Each tier is a directory with a minimum age, and a cycle is moved to the last tier it is old enough for. The age
+ * of a cycle is the time since it ended. When the queue directory holds more than {@link #maxHotBytes()} the oldest
+ * cycles are moved to the first tier whatever their age. The newest cycle is never moved, and other cycles are only
+ * moved while this process holds no store for them.
+ * <p>
+ * Reads resolve cycles across all the tiers, however other processes using the queue must be built with the same
+ * tiers to find the cycles which have been moved.
+ * <pre>
+ * SingleChronicleQueueBuilder.binary(hot)
+ *         .tieringPolicy(TieringPolicy.create()
+ *                 .tier(warm, 1, TimeUnit.DAYS)
+ *                 .tier(cold, 30, TimeUnit.DAYS))
+ * </pre>
+ */
+public final class TieringPolicy {
+    private final List<File> directories = new ArrayList<>();
+    private final List<Long> minAgesMS = new ArrayList<>();
+    private long maxHotBytes = Long.MAX_VALUE;
+    private long checkIntervalMS = 60_000;
+
+    private TieringPolicy() {
+    }
+
+    @NotNull
+    public static TieringPolicy create() {
+        return new TieringPolicy();
+    }
+
+    /**
+     * Adds a tier for cycles which only leave the queue directory when it is over {@link #maxHotBytes()}.
+     */
+    @NotNull
+    public TieringPolicy tier(@NotNull File directory) {
+        return tier(directory, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a tier, tiers must be added in order of age.
+     *
+     * @param minAge how long after a cycle ends before it is moved to this tier.
+     */
+    @NotNull
+    public TieringPolicy tier(@NotNull File directory, long minAge, @NotNull TimeUnit unit) {
+        long minAgeMS = unit.toMillis(minAge);
+        if (!minAgesMS.isEmpty() && minAgeMS < minAgesMS.get(minAgesMS.size() - 1))
+            throw new IllegalArgumentException("Tiers must be added in order of age, " + directory + " is younger than " +
+                    directories.get(directories.size() - 1));
+        directories.add(directory);
+        minAgesMS.add(minAgeMS);
+        return this;
+    }
+
+    @NotNull
+    public List<File> directories() {
+        return Collections.unmodifiableList(directories);
+    }
+
+    /**
+     * @return the tier a cycle of this age belongs in, or -1 for the queue directory.
+     */
+    int tierFor(long ageMS) {
+        int tier = -1;
+        for (int i = 0; i < minAgesMS.size(); i++) {
+            if (ageMS >= minAgesMS.get(i))
+                tier = i;
+        }
+        return tier;
+    }
+
+    public long maxHotBytes() {
+        return maxHotBytes;
+    }
+
+    /**
+     * @param maxHotBytes the size of the cycle files in the queue directory above which the oldest are moved to the
+     *                    first tier.
+     */
+    @NotNull
+    public TieringPolicy maxHotBytes(long maxHotBytes) {
+        this.maxHotBytes = maxHotBytes;
+        return this;
+    }
+
+    public long checkIntervalMS() {
+        return checkIntervalMS;
+    }
+
+    /**
+     * @param checkIntervalMS how often the tiers are checked for cycles to move, as well as whenever a store is
+     *                        released.
+     */
+    @NotNull
+    public TieringPolicy checkIntervalMS(long checkIntervalMS) {
+        this.checkIntervalMS = checkIntervalMS;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "TieringPolicy{" +
+                "directories=" + directories +
+                ", minAgesMS=" + minAgesMS +
+                ", maxHotBytes=" + maxHotBytes +
+                ", checkIntervalMS=" + checkIntervalMS +
+                '}';
+    }
+}
@@ -0,0 +1,171 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the slowest of the appenders and tailers of a queue in this process, and cleans the chunks of the latest
+ * cycle once all of them have passed.
+ * <p>
+ * Appenders and tailers only keep the chunk they are on mapped, as chronicle-bytes releases a chunk once they move
+ * to the next, so once they have moved on a chunk is only held in the page cache. Cleaning a chunk writes back its dirty pages, so the kernel can drop them as soon as memory is
+ * needed elsewhere rather than having to write them out under pressure. A tailer which hasn't read anything yet, or
+ * is on an earlier cycle, holds everything back.
+ */
+final class TrailCleaner {
+    static final long CHECK_INTERVAL_MS = Long.getLong("chronicle.queue.trailCleaner.intervalMS", 100);
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final Set<Object> participants = Collections.newSetFromMap(new WeakHashMap<>());
+    @NotNull
+    private final ScheduledExecutorService executor;
+    private final AtomicLong chunksCleaned = new AtomicLong();
+    private int cycle = Integer.MIN_VALUE;
+    private long cleanedChunks;
+    @Nullable
+    private FileChannel channel;
+
+    TrailCleaner(@NotNull SingleChronicleQueue queue) {
+        this.queue = queue;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory(queue.path.getName() + "-trail-cleaner", true));
+    }
+
+    void start() {
+        executor.scheduleWithFixedDelay(this::clean, CHECK_INTERVAL_MS, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void register(@NotNull SingleChronicleQueueExcerpts.StoreAppender appender) {
+        synchronized (participants) {
+            participants.add(appender);
+        }
+    }
+
+    void register(@NotNull SingleChronicleQueueExcerpts.StoreTailer tailer) {
+        synchronized (participants) {
+            participants.add(tailer);
+        }
+    }
+
+    private static int cycleOf(@NotNull Object participant) {
+        return participant instanceof SingleChronicleQueueExcerpts.StoreTailer
+                ? ((SingleChronicleQueueExcerpts.StoreTailer) participant).trailCycle()
+                : ((SingleChronicleQueueExcerpts.StoreAppender) participant).trailCycle();
+    }
+
+    private static long positionOf(@NotNull Object participant) {
+        return participant instanceof SingleChronicleQueueExcerpts.StoreTailer
+                ? ((SingleChronicleQueueExcerpts.StoreTailer) participant).trailPosition()
+                : ((SingleChronicleQueueExcerpts.StoreAppender) participant).trailPosition();
+    }
+
+    /**
+     * @return the number of chunks cleaned so far.
+     */
+    long chunksCleaned() {
+        return chunksCleaned.get();
+    }
+
+    /**
+     * @return the number of chunks cleaned by this check.
+     */
+    synchronized long clean() {
+        if (queue.isClosed())
+            return 0;
+        try {
+            List<Object> list;
+            synchronized (participants) {
+                list = new ArrayList<>(participants);
+            }
+            int latestCycle = Integer.MIN_VALUE;
+            for (Object participant : list) {
+                if (positionOf(participant) != Long.MAX_VALUE)
+                    latestCycle = Math.max(latestCycle, cycleOf(participant));
+            }
+            if (latestCycle == Integer.MIN_VALUE)
+                return 0;
+
+            long trail = Long.MAX_VALUE;
+            for (Object participant : list) {
+                long position = positionOf(participant);
+                if (position == Long.MAX_VALUE)
+                    continue;
+                trail = Math.min(trail, cycleOf(participant) < latestCycle ? 0 : position);
+            }
+
+            if (latestCycle != cycle) {
+                closeChannel();
+                cycle = latestCycle;
+                cleanedChunks = 0;
+            }
+            long chunks = trail / queue.chunkSize();
+            if (chunks <= cleanedChunks)
+                return 0;
+
+            if (channel == null)
+                channel = FileChannel.open(queue.cycleFile(cycle).toPath(),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long cleaned = 0;
+            for (; cleanedChunks < chunks; cleanedChunks++, cleaned++)
+                cleanChunk(cleanedChunks * queue.chunkSize(), queue.chunkSize());
+            chunksCleaned.addAndGet(cleaned);
+            if (Jvm.isDebugEnabled(getClass()))
+                Jvm.debug().on(getClass(), "Cleaned " + cleaned + " chunks of cycle " + cycle + " behind " + trail);
+            return cleaned;
+
+        } catch (Throwable t) {
+            Jvm.warn().on(getClass(), "Unable to clean the trail of " + queue.path, t);
+            return 0;
+        }
+    }
+
+    /**
+     * Writes back only the pages of the chunk, as forcing the channel would also write those ahead of the slowest
+     * reader which are still being written to, and unmaps it again so this doesn't hold on to it either.
+     */
+    private void cleanChunk(long start, long size) throws IOException {
+        assert channel != null;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        try {
+            buffer.force();
+        } finally {
+            IOTools.clean(buffer);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        FileChannel channel = this.channel;
+        this.channel = null;
+        if (channel != null)
+            channel.close();
+    }
+
+    void close() {
+        executor.shutdownNow();
+        synchronized (this) {
+            try {
+                closeChannel();
+            } catch (IOException e) {
+                Jvm.debug().on(getClass(), "Unable to close the cycle of " + queue.path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.NavigableMap;
+
+/**
+ * The listing of a read only queue, kept up to date by a {@link CycleDirectoryWatcher} rather than listing the
+ * directories on every call as {@link FileSystemDirectoryListing} does.
+ */
+final class WatchingDirectoryListing implements DirectoryListing {
+    @NotNull
+    private final CycleDirectoryWatcher watcher;
+
+    WatchingDirectoryListing(@NotNull CycleDirectoryWatcher watcher) {
+        this.watcher = watcher;
+    }
+
+    @Override
+    public void init() {
+        // no-op
+    }
+
+    @Override
+    public void refresh() {
+        // no-op
+    }
+
+    @Override
+    public void forceRefresh() {
+        watcher.rescan();
+    }
+
+    @Override
+    public void onFileCreated(final File file, final int cycle) {
+    }
+
+    @Override
+    public int getMaxCreatedCycle() {
+        return watcher.maxCycle();
+    }
+
+    @Override
+    public int getMinCreatedCycle() {
+        return watcher.minCycle();
+    }
+
+    @Override
+    public long modCount() {
+        return watcher.modCount();
+    }
+
+    @NotNull
+    @Override
+    public NavigableMap<Long, File> cycleTree() {
+        return watcher.cycleTree();
+    }
+
+    @Override
+    public void close() {
+        // the watcher is released by the queue.
+    }
+}
@@ -27,4 +27,12 @@ public interface WriteLock extends Closeable {
     default boolean locked() {
         return false;
     }
+
+    /**
+     * @return true, once, if the lock was taken from a process which died while holding it, so whatever it left
+     * unfinished can be rolled back straight away, see {@link ExcerptRollback}.
+     */
+    default boolean ownerDied() {
+        return false;
+    }
 }
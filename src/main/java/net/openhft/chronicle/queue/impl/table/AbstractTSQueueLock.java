@@ -25,25 +25,32 @@ import net.openhft.chronicle.queue.impl.TableStore;
 import net.openhft.chronicle.threads.TimingPauser;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 public abstract class AbstractTSQueueLock implements Closeable {
     protected static final long UNLOCKED = Long.MIN_VALUE;
+    // how long to wait before, and between, checking whether the owner of a lock has died.
+    protected static final long OWNER_CHECK_NS = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong("chronicle.queue.lock.ownerCheckMS", 1));
 
     protected final LongValue lock;
     protected final TimingPauser pauser;
     protected final File path;
     protected final TableStore tableStore;
+    // next to the lock, the owner which died holding it, until whoever takes the lock next clears it, see ownerDied()
+    private final LongValue deadOwner;
 
     public AbstractTSQueueLock(final String lockKey, final TableStore<?> tableStore, final Supplier<TimingPauser> pauser) {
         this.tableStore = tableStore;
         this.lock = tableStore.doWithExclusiveLock(ts -> ts.acquireValueFor(lockKey));
+        this.deadOwner = tableStore.doWithExclusiveLock(ts -> ts.acquireValueFor(lockKey + ".deadOwner"));
         this.pauser = pauser.get();
         this.path = tableStore.file();
     }
 
     public void close() {
-        Closeable.closeQuietly(lock);
+        Closeable.closeQuietly(lock, deadOwner);
     }
 
     protected void closeCheck() {
@@ -52,8 +59,63 @@ public abstract class AbstractTSQueueLock implements Closeable {
         }
     }
 
+    /**
+     * Called while waiting for the lock, to unlock it once the process which holds it has died, see {@link LockOwner}.
+     *
+     * @param nextCheck when the owner should be checked, from {@link System#nanoTime()}.
+     * @return when the owner should be checked next.
+     */
+    protected long checkOwner(long nextCheck) {
+        long now = System.nanoTime();
+        if (now < nextCheck)
+            return nextCheck;
+        unlockIfOwnerDead();
+        return now + OWNER_CHECK_NS;
+    }
+
+    /**
+     * @return true if the lock was held by a process which has died, and this unlocked it.
+     */
+    protected boolean unlockIfOwnerDead() {
+        long owner = lock.getVolatileValue();
+        if (owner == UNLOCKED || !LockOwner.isDead(owner))
+            return false;
+        // recorded first, so whichever process takes the lock next sees it.
+        deadOwner.setOrderedValue(owner);
+        if (!lock.compareAndSwapValue(owner, UNLOCKED))
+            return false;
+        Jvm.warn().on(getClass(), "Unlocked the lock file:" + path + " as it was held by " + LockOwner.toString(owner)
+                + " which has died");
+        return true;
+    }
+
+    /**
+     * Called by whoever holds the lock, in any process.
+     *
+     * @return true, once, if the lock was unlocked as the process which held it had died, and it hasn't been forced
+     * since. Whatever the owner left unfinished while holding the lock can be rolled back, as no one else can finish it.
+     */
+    public boolean ownerDied() {
+        long owner = deadOwner.getVolatileValue();
+        return owner != UNLOCKED && deadOwner.compareAndSwapValue(owner, UNLOCKED);
+    }
+
+    /**
+     * Called before forcing the lock, as a lease is never forced, only taken over once its owner has died.
+     *
+     * @throws IllegalStateException if the lock is held as a lease.
+     */
+    protected void checkNotLeased() {
+        long owner = lock.getVolatileValue();
+        if (LockOwner.isLease(owner))
+            throw new IllegalStateException("Unable to lock the lock file:" + path + " as it is held by "
+                    + LockOwner.toString(owner));
+    }
+
     protected void forceUnlock() {
         Jvm.warn().on(getClass(), "Forced unlock for the lock file:" + path, new StackTrace());
+        // the owner may still be writing.
+        deadOwner.setValue(UNLOCKED);
         lock.setValue(UNLOCKED);
     }
 }
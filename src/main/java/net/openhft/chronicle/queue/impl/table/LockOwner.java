@@ -0,0 +1,151 @@
+package net.openhft.chronicle.queue.impl.table;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * The value a lock in a table store holds while a process owns it: the process id in the low 23 bits, as Linux never
+ * hands out one of 2<sup>22</sup> or more, and, where they are known, when the process started in the next 18 bits
+ * and its pid namespace in the 21 bits after that. The next bit is set for a lease which the owner holds until it
+ * closes the queue, see {@link #lease(long)}. This is never negative, so is never {@link AbstractTSQueueLock#UNLOCKED}.
+ * <p>
+ * The start time tells whether the owner has died, even if its process id has been reused since. It is read from
+ * {@code /proc/<pid>/stat}, and the pid namespace from the inode of {@code /proc/self/ns/pid}. Both are 0 on other
+ * platforms, or for an owner written by an older version which only held the process id.
+ * <p>
+ * A process id only means the same process in the same pid namespace, so an owner is only ever known to be dead if it
+ * is in the namespace of this process, e.g. not if it runs in another container sharing the queue. The kernel numbers
+ * namespaces in the order they are created, from {@code 0xF0000000}, so the low 21 bits held tell them apart exactly
+ * until two million namespaces have been created since boot. Where the namespace isn't known, or there is no
+ * {@code /proc}, an owner is never called dead and waiters rely on the timeout. Set
+ * {@code -Dchronicle.queue.lock.checkOwner=false} to always rely on the timeout.
+ */
+public final class LockOwner {
+    private static final long LEASE = 1L << 62;
+    private static final long PID_MASK = 0x7F_FFFFL;
+    private static final int START_TIME_SHIFT = 23;
+    private static final long START_TIME_MASK = 0x3_FFFFL;
+    private static final int NAMESPACE_SHIFT = 41;
+    private static final long NAMESPACE_MASK = 0x1F_FFFFL;
+    /**
+     * The pid namespace of this process, never 0 if known.
+     */
+    static final long NAMESPACE = pidNamespace();
+    static final boolean CHECK_OWNER = Boolean.parseBoolean(System.getProperty("chronicle.queue.lock.checkOwner", "true"))
+            && new File("/proc/self/stat").exists()
+            && NAMESPACE != 0;
+    /**
+     * The value a lock held by this process holds.
+     */
+    public static final long CURRENT = ownerOf(OS.getProcessId());
+
+    private LockOwner() {
+    }
+
+    /**
+     * @return the value a lock held by a process in the pid namespace of this process holds.
+     */
+    public static long ownerOf(int pid) {
+        return (CHECK_OWNER ? NAMESPACE : 0) << NAMESPACE_SHIFT
+                | (Math.max(0, processStartTime(pid)) & START_TIME_MASK) << START_TIME_SHIFT
+                | (pid & PID_MASK);
+    }
+
+    static int pid(long owner) {
+        return (int) (owner & PID_MASK);
+    }
+
+    static long startTimeOf(long owner) {
+        return (owner >>> START_TIME_SHIFT) & START_TIME_MASK;
+    }
+
+    static long namespaceOf(long owner) {
+        return (owner >>> NAMESPACE_SHIFT) & NAMESPACE_MASK;
+    }
+
+    /**
+     * @return the low 21 bits of the inode of the pid namespace, which is {@code pid:[<inode>]}, or 0 if not known.
+     */
+    private static long pidNamespace() {
+        try {
+            String link = Files.readSymbolicLink(new File("/proc/self/ns/pid").toPath()).toString();
+            long inode = Long.parseLong(link.substring(link.indexOf('[') + 1, link.lastIndexOf(']')));
+            // 0 would match an owner which doesn't know its namespace, so isn't used.
+            return inode & NAMESPACE_MASK;
+
+        } catch (IOException | UnsupportedOperationException e) {
+            return 0;
+
+        } catch (RuntimeException e) {
+            Jvm.debug().on(LockOwner.class, "Unable to read the pid namespace", e);
+            return 0;
+        }
+    }
+
+    /**
+     * @return the value of a lease held by the owner, which other writers wait for, but never force.
+     */
+    public static long lease(long owner) {
+        return owner | LEASE;
+    }
+
+    public static boolean isLease(long owner) {
+        return owner >= 0 && (owner & LEASE) != 0;
+    }
+
+    /**
+     * @return when the process started, in clock ticks since boot, or 0 if it is not known, or -1 if the process doesn't
+     * exist or has exited.
+     */
+    private static long processStartTime(int pid) {
+        if (!CHECK_OWNER)
+            return 0;
+        try {
+            String stat = new String(Files.readAllBytes(new File("/proc/" + pid + "/stat").toPath()), StandardCharsets.ISO_8859_1);
+            // the command can contain spaces and brackets, the fields after it are the state then the parent's pid etc.
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            // a zombie has exited but not been reaped by its parent yet.
+            if (fields[0].equals("Z") || fields[0].equals("X"))
+                return -1;
+            return Long.parseLong(fields[19]);
+
+        } catch (IOException e) {
+            return -1;
+
+        } catch (RuntimeException e) {
+            Jvm.debug().on(LockOwner.class, "Unable to read the start time of PID " + pid, e);
+            return 0;
+        }
+    }
+
+    /**
+     * @return true only if the process which owns a lock is in the same pid namespace, and is known to have died, or to
+     * be a different process which has since been given the same process id.
+     */
+    public static boolean isDead(long owner) {
+        if (!CHECK_OWNER || NAMESPACE == 0 || owner < 0 || (owner & ~LEASE) == CURRENT)
+            return false;
+        // the process with this pid here may not be the owner at all, nor if either namespace isn't known.
+        long namespace = namespaceOf(owner);
+        if (namespace == 0 || namespace != NAMESPACE)
+            return false;
+        long startTime = processStartTime(pid(owner));
+        if (startTime < 0)
+            return true;
+        long expected = startTimeOf(owner);
+        return expected != 0 && startTime != 0 && (startTime & START_TIME_MASK) != expected;
+    }
+
+    public static String toString(long owner) {
+        long startTime = startTimeOf(owner);
+        return (startTime == 0
+                ? "PID " + pid(owner)
+                : "PID " + pid(owner) + " started at " + startTime)
+                + (isLease(owner) ? " as the single writer" : "");
+    }
+}
@@ -17,9 +17,12 @@ package net.openhft.chronicle.queue.impl.table;
 
 import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.core.util.StringUtils;
 import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.single.ExcerptRollback;
+import net.openhft.chronicle.queue.impl.single.HugePages;
 import net.openhft.chronicle.queue.impl.single.MetaDataKeys;
 import net.openhft.chronicle.queue.impl.single.StoreRecovery;
 import net.openhft.chronicle.queue.impl.single.StoreRecoveryFactory;
@@ -33,7 +36,11 @@ import org.jetbrains.annotations.NotNull;
 import java.io.File;
 import java.io.IOException;
 import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -57,6 +64,7 @@ public class SingleTableBuilder<T extends Metadata> {
     private boolean readOnly;
     private StoreRecoveryFactory recoverySupplier = TimedStoreRecovery.FACTORY;
     private long timeoutMS = TimeUnit.SECONDS.toMillis(5);
+    private int hashSlots = Integer.getInteger("chronicle.table.store.hashSlots", 0);
 
     private SingleTableBuilder(@NotNull File path, @NotNull T metadata) {
         this.file = path;
@@ -102,7 +110,9 @@ public class SingleTableBuilder<T extends Metadata> {
         try {
             if (!readOnly && file.createNewFile() && !file.canWrite())
                 throw new IllegalStateException("Cannot write to tablestore file " + file);
-            MappedBytes bytes = MappedBytes.mappedBytes(file, 64 << 10, 0, readOnly);
+            // a hugetlbfs mapping must be a whole number of huge pages.
+            long chunkSize = HugePages.isHugeTlbFs(file) ? HugePages.HUGE_PAGE_SIZE : 64 << 10;
+            MappedBytes bytes = MappedBytes.mappedBytes(file, chunkSize, 0, readOnly);
             // eagerly initialize backing MappedFile page - otherwise wire.writeFirstHeader() will try to lock the file
             // to allocate the first byte store and that will cause lock overlap
             bytes.readVolatileInt(0);
@@ -114,7 +124,9 @@ public class SingleTableBuilder<T extends Metadata> {
                         return writeTableStore(bytes, wire, recovery);
 
                     } else {
-                        wire.readFirstHeader(timeoutMS, TimeUnit.MILLISECONDS);
+                        // the header is only written with the file locked, and the lock is released if the process
+                        // dies, so a writer can recover a header which isn't complete without waiting for it.
+                        wire.readFirstHeader(readOnly ? timeoutMS : 0, TimeUnit.MILLISECONDS);
 
                         StringBuilder name = Wires.acquireStringBuilder();
                         ValueIn valueIn = wire.readEventName(name);
@@ -130,6 +142,13 @@ public class SingleTableBuilder<T extends Metadata> {
                 } catch (IOException ex) {
                     throw Jvm.rethrow(ex);
                 } catch (TimeoutException ex) {
+                    // as the file is locked, the writer of the header has died, so it is written again where it was.
+                    if (!readOnly) {
+                        // the header is written within the first chunk.
+                        ExcerptRollback.rollBack(bytes, 0, chunkSize - Integer.BYTES);
+                        if (wire.writeFirstHeader())
+                            return writeTableStore(bytes, wire, recovery);
+                    }
                     recovery.recoverAndWriteHeader(wire, 10_000, null, null);
                     return writeTableStore(bytes, wire, recovery);
                 }
@@ -141,8 +160,11 @@ public class SingleTableBuilder<T extends Metadata> {
 
     @NotNull
     private TableStore<T> writeTableStore(MappedBytes bytes, Wire wire, StoreRecovery recovery) {
-        TableStore<T> store = new SingleTableStore<>(wireType, bytes, recovery, metadata);
+        SingleTableStore<T> store = new SingleTableStore<>(wireType, bytes, recovery, metadata, hashSlots);
         wire.writeEventName("header").object(store);
+        // before the header is complete, so no value is added where the slots go.
+        if (hashSlots > 0)
+            SingleTableStore.writeSlotsHeader(bytes, hashSlots);
         wire.updateFirstHeader();
         return store;
     }
@@ -200,4 +222,61 @@ public class SingleTableBuilder<T extends Metadata> {
         this.timeoutMS = timeoutMS;
         return this;
     }
+
+    public int hashSlots() {
+        return hashSlots;
+    }
+
+    /**
+     * A new table store holds its values in a hash table with this many slots, rounded up to a power of two, rather
+     * than only in documents scanned for each key. Keys of up to 47 Latin-1 characters fit in a slot. Existing files
+     * are read in whichever format they were written, see {@link #migrate()}. Every process using the file must
+     * support the slots, as it would otherwise not find the values held in them.
+     *
+     * @param hashSlots the number of slots, up to {@link SingleTableStore#MAX_SLOTS}, or 0 for none.
+     */
+    public SingleTableBuilder<T> hashSlots(int hashSlots) {
+        if (hashSlots < 0 || hashSlots > SingleTableStore.MAX_SLOTS)
+            throw new IllegalArgumentException("hashSlots must be between 0 and " + SingleTableStore.MAX_SLOTS + ", was " + hashSlots);
+        this.hashSlots = hashSlots == 0 ? 0 : Maths.nextPower2(hashSlots, 1);
+        return this;
+    }
+
+    /**
+     * Rewrites an existing table store in the format of this builder, keeping its metadata, keys and values, and
+     * replaces the file with it.
+     * <p>
+     * This must only be done while no other process has the file open, as it would carry on using the file replaced.
+     */
+    public void migrate() {
+        if (readOnly)
+            throw new IllegalStateException("Can't migrate a read only table store " + file);
+        if (!file.exists())
+            throw new IllegalStateException("No table store to migrate " + file);
+        Map<String, Long> values;
+        T existingMetadata;
+        try (TableStore<T> existing = clone().build()) {
+            values = ((SingleTableStore<T>) existing).values();
+            existingMetadata = existing.metadata();
+        }
+
+        String name = file.getName();
+        File migrated = new File(file.getParentFile(),
+                name.substring(0, name.length() - SingleTableStore.SUFFIX.length()) + ".migrating" + SingleTableStore.SUFFIX);
+        try {
+            Files.deleteIfExists(migrated.toPath());
+            SingleTableBuilder<T> builder = new SingleTableBuilder<>(migrated, existingMetadata)
+                    .wireType(wireType)
+                    .recoverySupplier(recoverySupplier)
+                    .timeoutMS(timeoutMS);
+            builder.hashSlots = hashSlots;
+            try (TableStore<T> store = builder.build()) {
+                for (Map.Entry<String, Long> entry : values.entrySet())
+                    store.acquireValueFor(entry.getKey(), entry.getValue());
+            }
+            Files.move(migrated.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -15,6 +15,8 @@
  */
 package net.openhft.chronicle.queue.impl.table;
 
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.Byteable;
 import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.bytes.MappedFile;
 import net.openhft.chronicle.core.Jvm;
@@ -30,6 +32,7 @@ import net.openhft.chronicle.queue.impl.single.SimpleStoreRecovery;
 import net.openhft.chronicle.queue.impl.single.StoreRecovery;
 import net.openhft.chronicle.wire.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,12 +44,46 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+/**
+ * A {@link TableStore} held in a <code>.cq4t</code> file.
+ * <p>
+ * Values are held in documents, each holding a key and its value, which are scanned to find a key. A store built with
+ * {@link SingleTableBuilder#hashSlots(int)} also has an open addressing hash table of fixed size slots at
+ * {@link #SLOTS_POSITION}, in one meta data document following the header. A slot is claimed with a CAS on its state,
+ * so keys are found without a lock and each key is only ever added once, across processes. The claiming process is
+ * recorded in the slot, so a claim left by a process which died is taken over. Keys which don't fit in a
+ * slot, or don't find a free one, are held in documents after the slots.
+ */
 public class SingleTableStore<T extends Metadata> implements TableStore<T> {
     public static final String SUFFIX = ".cq4t";
+    /**
+     * The position of the first slot, the header must end before it.
+     */
+    public static final int SLOTS_POSITION = 4 << 10;
+    public static final int SLOT_SIZE = 64;
+    /**
+     * The most slots a store can have, so they all fit in the first chunk of the file.
+     */
+    public static final int MAX_SLOTS = 512;
+    // the layout of a slot
+    private static final int STATE = 0;
+    private static final int HASH = 4;
+    private static final int VALUE = 8;
+    private static final int KEY_LENGTH = 16;
+    private static final int KEY = 17;
+    // the process which claimed the slot, so a claim left by a dead process can be taken over.
+    private static final int OWNER = SLOT_SIZE - 8;
+    static final int MAX_KEY_LENGTH = OWNER - KEY;
+    // the states of a slot
+    private static final int EMPTY = 0;
+    private static final int CLAIMED = 1;
+    private static final int READY = 2;
 
     private static final Logger LOG = LoggerFactory.getLogger(SingleTableStore.class);
     private static final long timeoutMS = Long.getLong("chronicle.table.store.timeoutMS", 10_000);
@@ -64,6 +101,12 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
     private final ReferenceCounter refCount;
     @NotNull
     private final StoreRecovery recovery;
+    private final int hashSlots;
+    // the first chunk of the file, which holds all the slots.
+    @Nullable
+    private final MappedBytes slotBytes;
+    @Nullable
+    private final BytesStore slots;
     private volatile boolean isClosed;
 
     /**
@@ -81,17 +124,30 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
             this.mappedFile = mappedBytes.mappedFile();
             this.refCount = ReferenceCounter.onReleased(this::onCleanup);
 
-            if (wire.bytes().readRemaining() > 0) {
-                this.recovery = Objects.requireNonNull(wire.read(MetaDataField.recovery).typedMarshallable());
-            } else {
-                this.recovery = new SimpleStoreRecovery(); // disabled.
-            }
-
-            if (wire.bytes().readRemaining() > 0) {
-                this.metadata = Objects.requireNonNull(wire.read(MetaDataField.metadata).typedMarshallable());
-            } else {
-                this.metadata = (T) Metadata.NoMeta.INSTANCE;
+            // the optional fields are read by name, as each is only written when used.
+            StoreRecovery recovery = new SimpleStoreRecovery(); // disabled.
+            T metadata = (T) Metadata.NoMeta.INSTANCE;
+            int hashSlots = 0;
+            StringBuilder name = new StringBuilder();
+            while (true) {
+                wire.consumePadding();
+                if (wire.bytes().readRemaining() <= 0)
+                    break;
+                ValueIn valueIn = wire.readEventName(name);
+                if (StringUtils.isEqual(name, MetaDataField.recovery.name()))
+                    recovery = Objects.requireNonNull(valueIn.typedMarshallable());
+                else if (StringUtils.isEqual(name, MetaDataField.metadata.name()))
+                    metadata = Objects.requireNonNull(valueIn.typedMarshallable());
+                else if (StringUtils.isEqual(name, MetaDataField.hashSlots.name()))
+                    hashSlots = valueIn.int32();
+                else
+                    valueIn.skipValue();
             }
+            this.recovery = recovery;
+            this.metadata = metadata;
+            this.hashSlots = hashSlots;
+            this.slotBytes = hashSlots > 0 ? slotBytes(mappedFile) : null;
+            this.slots = slotBytes == null ? null : slotBytes.bytesStore();
 
             mappedWire = wireType.apply(mappedBytes);
         } finally {
@@ -103,20 +159,55 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
      * @param wireType    the wire type that is being used
      * @param mappedBytes used to mapped the data store file
      * @param recovery    used to recover from concurrent modifications
+     * @param hashSlots   the number of slots of the hash table, a power of two, or 0 for none
      */
     SingleTableStore(@NotNull final WireType wireType,
                             @NotNull MappedBytes mappedBytes,
                             @NotNull StoreRecovery recovery,
-                            @NotNull T metadata) {
+                            @NotNull T metadata,
+                            int hashSlots) {
         this.wireType = wireType;
         this.metadata = metadata;
         this.recovery = recovery;
         this.mappedBytes = mappedBytes;
         this.mappedFile = mappedBytes.mappedFile();
         this.refCount = ReferenceCounter.onReleased(this::onCleanup);
+        this.hashSlots = hashSlots;
+        this.slotBytes = hashSlots > 0 ? slotBytes(mappedFile) : null;
+        this.slots = slotBytes == null ? null : slotBytes.bytesStore();
         mappedWire = wireType.apply(mappedBytes);
     }
 
+    @NotNull
+    private static MappedBytes slotBytes(@NotNull MappedFile mappedFile) {
+        if (SLOTS_POSITION + MAX_SLOTS * SLOT_SIZE > mappedFile.chunkSize())
+            throw new IllegalStateException("The slots don't fit in a chunk of " + mappedFile.chunkSize());
+        MappedBytes bytes = MappedBytes.mappedBytes(mappedFile);
+        // maps the first chunk, which is never moved away from as only the slots are accessed.
+        bytes.readVolatileInt(SLOTS_POSITION);
+        return bytes;
+    }
+
+    /**
+     * Writes the header of the meta data document holding the slots, which follows the header of the store.
+     *
+     * @param bytes positioned at the end of the header of the store.
+     */
+    static void writeSlotsHeader(@NotNull MappedBytes bytes, int hashSlots) {
+        long position = bytes.writePosition();
+        if (position + 4 > SLOTS_POSITION)
+            throw new IllegalStateException("The header ends at " + position + ", after the slots at " + SLOTS_POSITION);
+        long end = SLOTS_POSITION + (long) hashSlots * SLOT_SIZE;
+        bytes.writeOrderedInt(position, Wires.META_DATA | Maths.toUInt31(end - position - 4));
+    }
+
+    /**
+     * @return the number of slots of the hash table, or 0 if values are only held in documents.
+     */
+    public int hashSlots() {
+        return hashSlots;
+    }
+
     @Override
     public boolean isClosed() {
         return isClosed;
@@ -134,8 +225,24 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
 
         MappedBytes bytes = MappedBytes.mappedBytes(mappedFile);
         try {
+            if (hashSlots == 0) {
+                bytes.readLimit(bytes.realCapacity());
+                return Wires.fromSizePrefixedBlobs(bytes);
+            }
+            // the slots aren't documents, so are dumped as the keys and values they hold.
+            StringBuilder sb = new StringBuilder();
+            bytes.readLimit(Wires.lengthOf(bytes.readVolatileInt(0)) + 4);
+            sb.append(Wires.fromSizePrefixedBlobs(bytes));
+            sb.append("# position: ").append(SLOTS_POSITION).append(", slots: ").append(hashSlots).append('\n');
+            for (int i = 0; i < hashSlots; i++) {
+                long slot = slotPosition(i);
+                if (slots.readVolatileInt(slot + STATE) == READY)
+                    sb.append(slotKey(slot)).append(": ").append(slots.readVolatileLong(slot + VALUE)).append('\n');
+            }
+            bytes.readPosition(SLOTS_POSITION + (long) hashSlots * SLOT_SIZE);
             bytes.readLimit(bytes.realCapacity());
-            return Wires.fromSizePrefixedBlobs(bytes);
+            sb.append(Wires.fromSizePrefixedBlobs(bytes));
+            return sb.toString();
         } finally {
             bytes.release();
         }
@@ -192,6 +299,8 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
 
     private void onCleanup() {
         mappedBytes.release();
+        if (slotBytes != null)
+            slotBytes.release();
     }
 
     // *************************************************************************
@@ -207,6 +316,8 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
 
         if (metadata != Metadata.NoMeta.INSTANCE)
             wire.write(MetaDataField.metadata).typedMarshallable(this.metadata);
+        if (hashSlots > 0)
+            wire.write(MetaDataField.hashSlots).int32(hashSlots);
 
         // align to a word whether needed or not as a micro-optimisation.
         wire.writeAlignTo(Integer.BYTES, 0);
@@ -216,7 +327,137 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
      * {@inheritDoc}
      */
     @Override
-    public synchronized LongValue acquireValueFor(CharSequence key, long defaultValue) { // TODO Change to ThreadLocal values if performance is a problem.
+    public LongValue acquireValueFor(CharSequence key, long defaultValue) {
+        if (hashSlots > 0) {
+            LongValue value = acquireSlotValueFor(key, defaultValue);
+            if (value != null)
+                return value;
+        }
+        return acquireDocumentValueFor(key, defaultValue);
+    }
+
+    private long slotPosition(int index) {
+        return SLOTS_POSITION + (long) index * SLOT_SIZE;
+    }
+
+    /**
+     * @return the hash of a key ignoring case, as keys are, or 0 if it can't be held in a slot.
+     */
+    private static int slotHash(@NotNull CharSequence key) {
+        int length = key.length();
+        if (length > MAX_KEY_LENGTH)
+            return 0;
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = key.charAt(i);
+            if (ch > 0xFF)
+                return 0;
+            h = 31 * h + Character.toLowerCase(ch);
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        // 0 is reserved for keys which can't be held in a slot.
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * @return the value in the slot for this key, claiming a slot if needed, or null if it doesn't fit in one.
+     */
+    @Nullable
+    private LongValue acquireSlotValueFor(@NotNull CharSequence key, long defaultValue) {
+        int hash = slotHash(key);
+        if (hash == 0)
+            return null;
+        int mask = hashSlots - 1;
+        for (int probe = 0; probe < hashSlots; ) {
+            long slot = slotPosition((hash + probe) & mask);
+            int state = slots.readVolatileInt(slot + STATE);
+            if (state == EMPTY) {
+                if (!slots.compareAndSwapInt(slot + STATE, EMPTY, CLAIMED))
+                    continue; // look at this slot again.
+                slots.writeOrderedLong(slot + OWNER, LockOwner.CURRENT);
+                return completeClaim(slot, hash, key, defaultValue);
+            }
+            if (state == CLAIMED) {
+                state = awaitClaimed(slot);
+                // the process claiming it died, so this key is added in its place.
+                if (state == EMPTY)
+                    return completeClaim(slot, hash, key, defaultValue);
+            }
+            if (state == READY && slots.readInt(slot + HASH) == hash && slotKeyEquals(slot, key))
+                return bind(slot);
+            probe++;
+        }
+        return null;
+    }
+
+    @NotNull
+    private LongValue completeClaim(long slot, int hash, @NotNull CharSequence key, long defaultValue) {
+        slots.writeInt(slot + HASH, hash);
+        slots.writeLong(slot + VALUE, defaultValue);
+        int length = key.length();
+        slots.writeByte(slot + KEY_LENGTH, (byte) length);
+        for (int i = 0; i < length; i++)
+            slots.writeByte(slot + KEY + i, (byte) key.charAt(i));
+        slots.writeOrderedInt(slot + STATE, READY);
+        return bind(slot);
+    }
+
+    /**
+     * @return the state of a slot once it is no longer being claimed, {@link #EMPTY} if the claim of a dead process
+     * was taken over by this one, or {@link #CLAIMED} if the claim doesn't complete in time.
+     */
+    private int awaitClaimed(long slot) {
+        long timeoutAt = System.currentTimeMillis() + timeoutMS;
+        int state;
+        while ((state = slots.readVolatileInt(slot + STATE)) == CLAIMED) {
+            // 0 until the claimer has recorded itself. The CAS means only one process takes over a claim.
+            long owner = slots.readVolatileLong(slot + OWNER);
+            if (owner != 0 && LockOwner.isDead(owner)
+                    && slots.compareAndSwapLong(slot + OWNER, owner, LockOwner.CURRENT)) {
+                Jvm.warn().on(getClass(), "Slot at " + slot + " of " + file() + " was claimed by "
+                        + LockOwner.toString(owner) + " which died, taking it over");
+                return EMPTY;
+            }
+            if (System.currentTimeMillis() > timeoutAt) {
+                Jvm.warn().on(getClass(), "Slot at " + slot + " of " + file() + " was never completed, skipping it");
+                break;
+            }
+            Thread.yield();
+        }
+        return state;
+    }
+
+    private boolean slotKeyEquals(long slot, @NotNull CharSequence key) {
+        int length = key.length();
+        if ((slots.readByte(slot + KEY_LENGTH) & 0xFF) != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            char ch = (char) (slots.readByte(slot + KEY + i) & 0xFF);
+            if (Character.toLowerCase(ch) != Character.toLowerCase(key.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    @NotNull
+    private String slotKey(long slot) {
+        int length = slots.readByte(slot + KEY_LENGTH) & 0xFF;
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            sb.append((char) (slots.readByte(slot + KEY + i) & 0xFF));
+        return sb.toString();
+    }
+
+    @NotNull
+    private LongValue bind(long slot) {
+        LongValue value = wireType.newLongReference().get();
+        ((Byteable) value).bytesStore(slots, slot + VALUE, 8);
+        return value;
+    }
+
+    private synchronized LongValue acquireDocumentValueFor(CharSequence key, long defaultValue) {
         StringBuilder sb = Wires.acquireStringBuilder();
         mappedBytes.reserve();
         try {
@@ -253,6 +494,42 @@ public class SingleTableStore<T extends Metadata> implements TableStore<T> {
         }
     }
 
+    /**
+     * @return every key held and its value, those in slots first.
+     */
+    @NotNull
+    public synchronized Map<String, Long> values() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (int i = 0; i < hashSlots; i++) {
+            long slot = slotPosition(i);
+            if (slots.readVolatileInt(slot + STATE) == READY)
+                values.put(slotKey(slot), slots.readVolatileLong(slot + VALUE));
+        }
+        StringBuilder sb = Wires.acquireStringBuilder();
+        mappedBytes.reserve();
+        try {
+            mappedBytes.readPosition(0);
+            mappedBytes.readLimit(mappedBytes.realCapacity());
+            while (mappedWire.readDataHeader()) {
+                int header = mappedBytes.readVolatileInt();
+                if (Wires.isNotComplete(header))
+                    break;
+                long readPosition = mappedBytes.readPosition();
+                int length = Wires.lengthOf(header);
+                ValueIn valueIn = mappedWire.readEventName(sb);
+                values.putIfAbsent(sb.toString(), valueIn.int64());
+                mappedBytes.readPosition(readPosition + length);
+            }
+            return values;
+
+        } catch (EOFException e) {
+            throw new IORuntimeException(e);
+
+        } finally {
+            mappedBytes.release();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
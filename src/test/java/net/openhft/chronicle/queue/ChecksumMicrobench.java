@@ -0,0 +1,66 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency of appending an excerpt with and without {@link SingleChronicleQueueBuilder#checksums()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChecksumMicrobench {
+    @Param({"false", "true"})
+    public boolean checksums;
+    @Param({"256"})
+    public int size;
+
+    private File path;
+    private SingleChronicleQueue queue;
+    private ExcerptAppender appender;
+    private Bytes<?> message;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(".*" + ChecksumMicrobench.class.getSimpleName() + ".*")
+                .build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        path = new File(System.getProperty("path", OS.TMP), "delete-" + System.nanoTime() + ".me");
+        queue = SingleChronicleQueueBuilder.binary(path)
+                .checksums(checksums)
+                .build();
+        appender = queue.acquireAppender();
+        message = Bytes.allocateDirect(size);
+        for (int i = 0; i < size; i++)
+            message.writeByte((byte) i);
+    }
+
+    @TearDown
+    public void tearDown() {
+        queue.close();
+        message.release();
+        System.gc();
+        IOTools.deleteDirWithFiles(path, 2);
+    }
+
+    @Benchmark
+    public void append() {
+        appender.writeBytes(message);
+    }
+}
@@ -0,0 +1,68 @@
+package net.openhft.chronicle.queue.bench;
+
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.impl.single.ExcerptPool;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * A thread per task, each writing one message, with an appender per thread from
+ * {@link SingleChronicleQueue#acquireAppender()} and with a bounded set of appenders from
+ * {@link SingleChronicleQueue#appenderPool(int)}. Prints how long the tasks took and how much heap was in use
+ * afterwards.
+ * <p>
+ * -Dtasks=100000 -Dconcurrency=1000 -Dappenders=8
+ */
+public class ExcerptPoolMain {
+    static final int tasks = Integer.getInteger("tasks", 100_000);
+    static final int concurrency = Integer.getInteger("concurrency", 1000);
+    static final int appenders = Integer.getInteger("appenders", 8);
+    static final String path = System.getProperty("path", OS.TMP);
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            run("Appender per thread", queue -> () -> queue.acquireAppender().writeText("hello"));
+            run("Pool of " + appenders + " appenders", queue -> {
+                ExcerptPool<ExcerptAppender> pool = queue.appenderPool(appenders);
+                return () -> pool.use(appender -> appender.writeText("hello"));
+            });
+        }
+    }
+
+    private static void run(String name, Function<SingleChronicleQueue, Runnable> taskFor) throws InterruptedException {
+        String base = path + "/delete-" + System.nanoTime() + ".me";
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(base).build()) {
+            Runnable task = taskFor.apply(queue);
+            Semaphore running = new Semaphore(concurrency);
+            long start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                running.acquire();
+                // a new thread each time, as a virtual thread per task would be.
+                new Thread(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                }).start();
+            }
+            running.acquire(concurrency);
+            long time = System.nanoTime() - start;
+
+            // before the queue is closed, so the appenders per thread not yet cleaned up are counted.
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("%s: %,d tasks in %.3f seconds, %,d tasks per second, %,d MB heap used%n",
+                    name, tasks, time / 1e9, (long) (tasks * 1e9 / time), used >> 20);
+        } finally {
+            System.gc(); // make sure its cleaned up for windows to delete.
+            IOTools.deleteDirWithFiles(base, 2);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package net.openhft.chronicle.queue.bench;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.single.HugePages;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.wire.DocumentContext;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the pretouch cost and random read latency of a multi GB cycle mapped with normal and with huge pages.
+ * <p>
+ * For huge pages, -DhugePath needs to be on a hugetlbfs mount with enough pages reserved, or a tmpfs mounted with
+ * huge=always e.g.
+ * <pre>
+ * echo 4096 > /proc/sys/vm/nr_hugepages
+ * mount -t hugetlbfs -o size=8G none /mnt/huge
+ * </pre>
+ * -Dcount=20000000 -Dsize=128 -Dlookups=1000000 -Dpath=/tmp -DhugePath=/mnt/huge
+ */
+public class HugePagesPerfMain {
+    static final int count = Integer.getInteger("count", 20_000_000);
+    static final int size = Integer.getInteger("size", 128);
+    static final int lookups = Integer.getInteger("lookups", 1_000_000);
+    static final String path = System.getProperty("path", OS.TMP);
+    static final String hugePath = System.getProperty("hugePath", path);
+
+    public static void main(String[] args) {
+        System.out.printf("huge page size %,d, transparent huge pages %s, %s on hugetlbfs %s%n",
+                HugePages.HUGE_PAGE_SIZE, HugePages.transparentHugePages(), hugePath,
+                HugePages.isHugeTlbFs(new File(hugePath)));
+        for (int run = 0; run < 3; run++) {
+            test(path, false);
+            test(hugePath, true);
+        }
+    }
+
+    static void test(String dir, boolean hugePages) {
+        String base = dir + "/delete-" + System.nanoTime() + ".me";
+        long blockSize = OS.is64Bit() ? 1L << 30 : 256L << 20;
+        Bytes<?> bytes = Bytes.allocateElasticDirect(size);
+        try {
+            long[] indexes = new long[count];
+            long pretouchTime = 0;
+            try (SingleChronicleQueue q = queue(base, blockSize, hugePages)) {
+                ExcerptAppender appender = q.acquireAppender();
+                bytes.writeSkip(size);
+                for (int i = 0; i < count; i++) {
+                    if (i % 1000 == 0) {
+                        long t0 = System.nanoTime();
+                        appender.pretouch();
+                        pretouchTime += System.nanoTime() - t0;
+                    }
+                    appender.writeBytes(bytes);
+                    indexes[i] = appender.lastIndexAppended();
+                }
+            }
+
+            // reopen so the reads map the file afresh.
+            try (SingleChronicleQueue q = queue(base, blockSize, hugePages)) {
+                ExcerptTailer tailer = q.createTailer();
+                Random random = new Random(1);
+                long[] latencies = new long[lookups];
+                for (int i = 0; i < lookups; i++) {
+                    long index = indexes[random.nextInt(count)];
+                    long t0 = System.nanoTime();
+                    if (!tailer.moveToIndex(index))
+                        throw new AssertionError("Unable to move to " + Long.toHexString(index));
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        bytes.clear();
+                        bytes.write(dc.wire().bytes());
+                    }
+                    latencies[i] = System.nanoTime() - t0;
+                }
+                Arrays.sort(latencies);
+
+                System.out.printf("%s: pretouch %,d us per %,d MB written, random read 50/99/99.9%% %,d/%,d/%,d ns%n",
+                        hugePages ? "huge pages " : "small pages",
+                        pretouchTime / 1000, (long) count * (size + 4) >> 20,
+                        latencies[lookups / 2], latencies[lookups * 99 / 100], latencies[lookups * 999 / 1000]);
+            }
+        } finally {
+            bytes.release();
+            System.gc(); // make sure its cleaned up for windows to delete.
+            IOTools.deleteDirWithFiles(base, 2);
+        }
+    }
+
+    private static SingleChronicleQueue queue(String base, long blockSize, boolean hugePages) {
+        return SingleChronicleQueueBuilder.binary(base)
+                .rollCycle(RollCycles.LARGE_HOURLY_XSPARSE)
+                .blockSize(blockSize)
+                .hugePages(hugePages)
+                .build();
+    }
+}
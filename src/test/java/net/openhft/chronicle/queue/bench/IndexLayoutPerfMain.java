@@ -0,0 +1,88 @@
+package net.openhft.chronicle.queue.bench;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.wire.DocumentContext;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares sequential read throughput and moveToIndex latency with the index held in the data file and in a
+ * separate .cq4i file.
+ * <p>
+ * -Dcount=5000000 -Dsize=64 -Dlookups=200000
+ */
+public class IndexLayoutPerfMain {
+    static final int count = Integer.getInteger("count", 5_000_000);
+    static final int size = Integer.getInteger("size", 64);
+    static final int lookups = Integer.getInteger("lookups", 200_000);
+    static final String path = System.getProperty("path", OS.TMP);
+
+    public static void main(String[] args) {
+        for (int run = 0; run < 3; run++) {
+            test(false);
+            test(true);
+        }
+    }
+
+    static void test(boolean separateIndexFile) {
+        String base = path + "/delete-" + System.nanoTime() + ".me";
+        long blockSize = OS.is64Bit() ? 1L << 30 : 256L << 20;
+        Bytes<?> bytes = Bytes.allocateElasticDirect(size);
+        try (SingleChronicleQueue q = SingleChronicleQueueBuilder.binary(base)
+                .rollCycle(RollCycles.LARGE_HOURLY_XSPARSE)
+                .blockSize(blockSize)
+                .separateIndexFile(separateIndexFile)
+                .build()) {
+
+            ExcerptAppender appender = q.acquireAppender();
+            bytes.writeSkip(size);
+            long[] indexes = new long[count];
+            for (int i = 0; i < count; i++) {
+                appender.writeBytes(bytes);
+                indexes[i] = appender.lastIndexAppended();
+            }
+
+            ExcerptTailer tailer = q.createTailer();
+            long start = System.nanoTime();
+            long read = 0;
+            for (; ; ) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    if (!dc.isPresent())
+                        break;
+                    bytes.clear();
+                    bytes.write(dc.wire().bytes());
+                    read++;
+                }
+            }
+            long time = System.nanoTime() - start;
+
+            Random random = new Random(1);
+            long[] latencies = new long[lookups];
+            for (int i = 0; i < lookups; i++) {
+                long index = indexes[random.nextInt(count)];
+                long t0 = System.nanoTime();
+                if (!tailer.moveToIndex(index))
+                    throw new AssertionError("Unable to move to " + Long.toHexString(index));
+                latencies[i] = System.nanoTime() - t0;
+            }
+            Arrays.sort(latencies);
+
+            System.out.printf("%s: read %,d messages at %,d per second, moveToIndex 50/99/99.9%% %,d/%,d/%,d ns%n",
+                    separateIndexFile ? "separate index" : "inline index ",
+                    read, (long) (1e9 * read / time),
+                    latencies[lookups / 2], latencies[lookups * 99 / 100], latencies[lookups * 999 / 1000]);
+        } finally {
+            bytes.release();
+            System.gc(); // make sure its cleaned up for windows to delete.
+            IOTools.deleteDirWithFiles(base, 2);
+        }
+    }
+}
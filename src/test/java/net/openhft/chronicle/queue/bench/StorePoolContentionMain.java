@@ -0,0 +1,78 @@
+package net.openhft.chronicle.queue.bench;
+
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.wire.DocumentContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Many tailers replaying a queue with a lot of small cycles, so they all cross roll boundaries and acquire and
+ * release stores from the queue's store pool at the same time.
+ * <p>
+ * -Dtailers=64 -Dcycles=500 -DperCycle=200
+ */
+public class StorePoolContentionMain {
+    static final int tailers = Integer.getInteger("tailers", 64);
+    static final int cycles = Integer.getInteger("cycles", 500);
+    static final int perCycle = Integer.getInteger("perCycle", 200);
+    static final String path = System.getProperty("path", OS.TMP);
+
+    public static void main(String[] args) throws Exception {
+        String base = path + "/delete-" + System.nanoTime() + ".me";
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue q = SingleChronicleQueueBuilder.binary(base)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build()) {
+
+            ExcerptAppender appender = q.acquireAppender();
+            for (int c = 0; c < cycles; c++) {
+                for (int i = 0; i < perCycle; i++)
+                    appender.writeText("msg-" + i);
+                timeProvider.advanceMillis(1000);
+            }
+
+            ExecutorService service = Executors.newFixedThreadPool(tailers);
+            for (int run = 0; run < 5; run++) {
+                CyclicBarrier barrier = new CyclicBarrier(tailers);
+                List<Future<Long>> futures = new ArrayList<>();
+                for (int t = 0; t < tailers; t++)
+                    futures.add(service.submit(() -> {
+                        ExcerptTailer tailer = q.createTailer();
+                        barrier.await();
+                        long count = 0;
+                        for (; ; ) {
+                            try (DocumentContext dc = tailer.readingDocument()) {
+                                if (!dc.isPresent())
+                                    break;
+                                count++;
+                            }
+                        }
+                        return count;
+                    }));
+
+                long start = System.nanoTime();
+                long total = 0;
+                for (Future<Long> future : futures)
+                    total += future.get();
+                long time = System.nanoTime() - start;
+                System.out.printf("%d tailers read %,d messages over %,d cycles in %.3f seconds, %,d rolls per second%n",
+                        tailers, total, cycles, time / 1e9, (long) (1e9 * tailers * cycles / time));
+            }
+            service.shutdown();
+            service.awaitTermination(10, TimeUnit.SECONDS);
+        } finally {
+            System.gc(); // make sure its cleaned up for windows to delete.
+            IOTools.deleteDirWithFiles(base, 2);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.openhft.chronicle.queue.bench;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.util.Histogram;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several writer processes appending to one queue at the same time, with the default write lock and with
+ * {@link SingleChronicleQueueBuilder#fairWriteLock(boolean)}. Each writer prints how many messages it wrote, and with
+ * the fair lock how long it waited for and held the lock.
+ * <p>
+ * -Dwriters=2,4,8,16 -Dmessages=200000 -Dsize=64
+ */
+public class WriteLockContentionMain {
+    static final String writers = System.getProperty("writers", "2,4,8,16");
+    static final int messages = Integer.getInteger("messages", 200_000);
+    static final int size = Integer.getInteger("size", 64);
+    static final String path = System.getProperty("path", OS.TMP);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            write(args[0], Boolean.parseBoolean(args[1]), Long.parseLong(args[2]));
+            return;
+        }
+        for (String count : writers.split(",")) {
+            for (boolean fair : new boolean[]{false, true}) {
+                run(Integer.parseInt(count.trim()), fair);
+            }
+        }
+    }
+
+    private static void run(int writers, boolean fair) throws Exception {
+        String base = path + "/delete-" + System.nanoTime() + ".me";
+        try {
+            // create the queue before the writers start.
+            SingleChronicleQueueBuilder.binary(base).build().close();
+
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            // give every writer time to start before they all write at once.
+            long startAt = System.currentTimeMillis() + 2000;
+            List<Process> processes = new ArrayList<>();
+            for (int i = 0; i < writers; i++)
+                processes.add(new ProcessBuilder(java,
+                        "-Dmessages=" + messages, "-Dsize=" + size,
+                        "-cp", System.getProperty("java.class.path"),
+                        WriteLockContentionMain.class.getName(), base, Boolean.toString(fair), Long.toString(startAt))
+                        .inheritIO()
+                        .start());
+            for (Process process : processes)
+                process.waitFor();
+            long time = System.currentTimeMillis() - startAt;
+            System.out.printf("%s lock, %d writers wrote %,d messages in %.3f seconds, %,d messages per second%n",
+                    fair ? "Fair" : "Default", writers, (long) writers * messages, time / 1e3,
+                    1000L * writers * messages / Math.max(1, time));
+        } finally {
+            System.gc(); // make sure its cleaned up for windows to delete.
+            IOTools.deleteDirWithFiles(base, 2);
+        }
+    }
+
+    private static void write(String base, boolean fair, long startAt) {
+        Bytes<?> message = Bytes.allocateDirect(size);
+        for (int i = 0; i < size; i++)
+            message.writeByte((byte) i);
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(base)
+                .fairWriteLock(fair)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            while (System.currentTimeMillis() < startAt)
+                Thread.yield();
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++)
+                appender.writeBytes(message);
+            long time = System.nanoTime() - start;
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("PID %d wrote %,d messages in %.3f seconds", OS.getProcessId(), messages, time / 1e9));
+            Histogram waitTimes = queue.writeLockWaitTimes();
+            Histogram holdTimes = queue.writeLockHoldTimes();
+            if (waitTimes != null && holdTimes != null)
+                sb.append(", wait us: ").append(waitTimes.toMicrosFormat())
+                        .append(", hold us: ").append(holdTimes.toMicrosFormat());
+            System.out.println(sb);
+        } finally {
+            message.release();
+        }
+    }
+}
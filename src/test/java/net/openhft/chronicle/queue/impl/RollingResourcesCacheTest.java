@@ -2,6 +2,7 @@ package net.openhft.chronicle.queue.impl;
 
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.SizeRollCycle;
 import org.junit.Test;
 
 import java.io.File;
@@ -96,6 +97,18 @@ public class RollingResourcesCacheTest {
                 DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneId.of("GMT")));
     }
 
+    @Test
+    public void shouldConvertSubCyclesToResourceNames() {
+        RollCycle rollCycle = SizeRollCycle.of(RollCycles.DAILY, 1 << 20);
+        int cycle = AM_DAILY_CYCLE_NUMBER * SizeRollCycle.SUB_CYCLES + 3;
+        doTestCycleAndResourceNames(AM_EPOCH, rollCycle, cycle, AM_DAILY_FILE_NAME + ".003");
+
+        RollingResourcesCache cache =
+                new RollingResourcesCache(rollCycle, AM_EPOCH, File::new, File::getName);
+        assertEquals(cycle, (long) cache.toLong(new File(AM_DAILY_FILE_NAME + ".003")));
+        assertEquals(cycle + 1, (long) cache.toLong(new File(AM_DAILY_FILE_NAME + ".004")));
+    }
+
     private static void assertCorrectConversion(final RollingResourcesCache cache, final int cycle,
                                                 final Instant instant, final DateTimeFormatter formatter) {
         final String expectedFileName = formatter.format(instant);
@@ -2,14 +2,27 @@ package net.openhft.chronicle.queue.impl;
 
 import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
 import net.openhft.chronicle.queue.impl.table.Metadata;
 import net.openhft.chronicle.queue.impl.table.SingleTableBuilder;
+import net.openhft.chronicle.queue.impl.table.SingleTableStore;
+import org.junit.Assume;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class TableStoreTest {
     @Test
@@ -70,4 +83,94 @@ public class TableStoreTest {
             System.out.println(table.dump());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void acquireValueForWithHashSlots() throws Exception {
+        String file = OS.TARGET + "/table-" + System.nanoTime() + ".cq4t";
+        new File(file).deleteOnExit();
+        String longKey = "a key which is too long to be held in a slot of the hash table";
+        try (TableStore table = SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).hashSlots(16).build()) {
+            assertEquals(16, ((SingleTableStore) table).hashSlots());
+            LongValue a = table.acquireValueFor("a");
+            assertEquals(Long.MIN_VALUE, a.getVolatileValue());
+            assertTrue(a.compareAndSwapValue(Long.MIN_VALUE, 1));
+            // keys ignore case, as they do when held in documents.
+            assertEquals(1, table.acquireValueFor("A").getVolatileValue());
+            LongValue b = table.acquireValueFor(longKey, 2);
+            assertEquals(2, b.getVolatileValue());
+
+            // every thread gets the same value for a key.
+            ExecutorService service = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++)
+                    futures.add(service.submit(() -> {
+                        for (int i = 0; i < 40; i++)
+                            table.acquireValueFor("key-" + i, 0).addAtomicValue(1);
+                    }));
+                for (Future<?> future : futures)
+                    future.get();
+            } finally {
+                service.shutdown();
+            }
+            for (int i = 0; i < 40; i++)
+                assertEquals(4, table.acquireValueFor("key-" + i).getVolatileValue());
+        }
+
+        try (TableStore table = SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).build()) {
+            assertEquals(16, ((SingleTableStore) table).hashSlots());
+            assertEquals(1, table.acquireValueFor("a").getVolatileValue());
+            assertEquals(2, table.acquireValueFor(longKey).getVolatileValue());
+            String dump = table.dump();
+            assertTrue(dump, dump.contains("slots: 16\n"));
+            assertTrue(dump, dump.contains("\na: 1\n"));
+            assertTrue(dump, dump.contains(longKey + ": 2\n"));
+        }
+    }
+
+    @Test(timeout = 5_000)
+    public void slotClaimedByDeadProcessIsTakenOver() throws IOException {
+        Assume.assumeTrue(OS.isLinux());
+        String file = OS.TARGET + "/table-" + System.nanoTime() + ".cq4t";
+        new File(file).deleteOnExit();
+        try (TableStore table = SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).hashSlots(8).build()) {
+            assertEquals(8, ((SingleTableStore) table).hashSlots());
+        }
+        // every slot is left claimed by a process which has died.
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer slot = ByteBuffer.allocate(SingleTableStore.SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            slot.putInt(0, 1);
+            slot.putLong(SingleTableStore.SLOT_SIZE - 8, LockOwner.ownerOf(Integer.MAX_VALUE));
+            for (int i = 0; i < 8; i++) {
+                slot.clear();
+                channel.write(slot, SingleTableStore.SLOTS_POSITION + i * SingleTableStore.SLOT_SIZE);
+            }
+        }
+
+        try (TableStore table = SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).build()) {
+            table.acquireValueFor("a").setValue(1);
+            assertEquals(1, table.acquireValueFor("a").getVolatileValue());
+            String dump = table.dump();
+            assertTrue(dump, dump.contains("\na: 1\n"));
+        }
+    }
+
+    @Test
+    public void migrateToHashSlots() {
+        String file = OS.TARGET + "/table-" + System.nanoTime() + ".cq4t";
+        new File(file).deleteOnExit();
+        try (TableStore table = SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).hashSlots(0).build()) {
+            table.acquireValueFor("a").setValue(1);
+            table.acquireValueFor("b").setValue(2);
+        }
+
+        SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).hashSlots(8).migrate();
+
+        try (TableStore table = SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).build()) {
+            assertEquals(8, ((SingleTableStore) table).hashSlots());
+            assertEquals(1, table.acquireValueFor("a").getVolatileValue());
+            assertEquals(2, table.acquireValueFor("b").getVolatileValue());
+            assertEquals(Long.MIN_VALUE, table.acquireValueFor("c").getVolatileValue());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.openhft.chronicle.queue.impl;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class WireStorePoolTest {
+    @Test
+    public void acquireAndReleaseAreNotifiedInOrder() throws Exception {
+        File dir = DirectoryUtils.tempDir("acquireAndReleaseAreNotifiedInOrder");
+        List<String> events = new ArrayList<>();
+        StoreFileListener listener = new StoreFileListener() {
+            @Override
+            public void onAcquired(int cycle, File file) {
+                synchronized (events) {
+                    events.add("acquired");
+                }
+            }
+
+            @Override
+            public void onReleased(int cycle, File file) {
+                synchronized (events) {
+                    events.add("released");
+                }
+            }
+        };
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .storeFileListener(listener)
+                .build()) {
+            int cycle = queue.cycle();
+            queue.release(queue.storeForCycle(cycle, queue.epoch(), true));
+
+            // each thread takes the only reference to the store for the cycle and drops it again.
+            ExecutorService service = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++)
+                    futures.add(service.submit(() -> {
+                        for (int i = 0; i < 200; i++) {
+                            WireStore store = queue.storeForCycle(cycle, queue.epoch(), false);
+                            assertNotNull(store);
+                            queue.release(store);
+                        }
+                    }));
+                for (Future<?> future : futures)
+                    future.get();
+            } finally {
+                service.shutdown();
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+
+        synchronized (events) {
+            assertFalse(events.isEmpty());
+            // a store is only acquired once the last one for the cycle has been released.
+            for (int i = 0; i < events.size(); i++)
+                assertEquals(events.toString(), i % 2 == 0 ? "acquired" : "released", events.get(i));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class BulkReplayTailerTest {
+    private static final int CYCLES = 4;
+    private static final int PER_CYCLE = 300;
+
+    private static String message(int i) {
+        StringBuilder sb = new StringBuilder("msg-").append(i);
+        // an occasional excerpt larger than the buffer.
+        int padding = i % 97 == 0 ? 10_000 : i % 50;
+        for (int j = 0; j < padding; j++)
+            sb.append('.');
+        return sb.toString();
+    }
+
+    @Test
+    public void sealedCyclesAreReplayedWithoutMapping() throws IOException {
+        File dir = DirectoryUtils.tempDir("sealedCyclesAreReplayedWithoutMapping");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        long[] indexes = new long[CYCLES * PER_CYCLE];
+        Bytes<?> bytes = Bytes.allocateElasticDirect();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < indexes.length; i++) {
+                if (i > 0 && i % PER_CYCLE == 0)
+                    timeProvider.advanceMillis(1000);
+                appender.writeBytes(Bytes.from(message(i)));
+                indexes[i] = appender.lastIndexAppended();
+            }
+            // the first cycle is read from its archive.
+            File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+            assertNotNull(files);
+            Arrays.sort(files);
+            File first = files[0];
+            assertTrue(CycleArchiver.archive(first, CycleArchiver.archiveFileFor(first), queue.indexSpacing(), 512,
+                    Deflater.DEFAULT_COMPRESSION));
+            Files.delete(first.toPath());
+
+            try (BulkReplayTailer tailer = new BulkReplayTailer(queue, 4096)) {
+                // the last cycle is still being written to, so isn't replayed.
+                for (int i = 0; i < (CYCLES - 1) * PER_CYCLE; i++) {
+                    bytes.clear();
+                    assertTrue(tailer.readExcerpt(bytes));
+                    assertEquals(message(i), bytes.toString());
+                    assertEquals(indexes[i], tailer.index());
+                }
+                bytes.clear();
+                assertFalse(tailer.readExcerpt(bytes));
+                assertTrue(tailer.bytesRead() > 0);
+
+                int secondCycle = queue.rollCycle().toCycle(indexes[PER_CYCLE]);
+                assertTrue(tailer.moveToCycle(secondCycle));
+                bytes.clear();
+                assertTrue(tailer.readExcerpt(bytes));
+                assertEquals(message(PER_CYCLE), bytes.toString());
+                assertEquals(indexes[PER_CYCLE], tailer.index());
+
+                assertFalse(tailer.moveToCycle(queue.lastCycle()));
+                assertFalse(tailer.readExcerpt(bytes));
+            }
+        } finally {
+            bytes.release();
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.QueueVerifyMain;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ChecksumTest {
+    private static final int MESSAGES = 100;
+    private static final String CORRUPTED = "corrupted-excerpt";
+
+    private static SingleChronicleQueue queue(File dir, boolean verifyChecksums) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_DAILY)
+                .testBlockSize()
+                .checksums(true)
+                .verifyChecksums(verifyChecksums)
+                .build();
+    }
+
+    @Test
+    public void checksumsAreNotPartOfTheExcerpt() {
+        File dir = DirectoryUtils.tempDir("checksumsAreNotPartOfTheExcerpt");
+        Bytes<?> bytes = Bytes.allocateElasticDirect();
+        try (SingleChronicleQueue queue = queue(dir, true)) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MESSAGES; i++) {
+                appender.writeText("text-" + i);
+                appender.writeBytes(Bytes.from("bytes-" + i));
+            }
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < MESSAGES; i++) {
+                assertEquals("text-" + i, tailer.readText());
+                bytes.clear();
+                assertTrue(tailer.readBytes(bytes));
+                assertEquals("bytes-" + i, bytes.toString());
+            }
+            assertNull(tailer.readText());
+        } finally {
+            bytes.release();
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void corruptedExcerptsAreDetected() throws Exception {
+        File dir = DirectoryUtils.tempDir("corruptedExcerptsAreDetected");
+        try {
+            File file;
+            try (SingleChronicleQueue queue = queue(dir, false)) {
+                ExcerptAppender appender = queue.acquireAppender();
+                for (int i = 0; i < MESSAGES; i++)
+                    appender.writeText(i == MESSAGES / 2 ? CORRUPTED : "text-" + i);
+                file = queue.cycleFile(queue.lastCycle());
+            }
+            corrupt(file);
+
+            try (SingleChronicleQueue queue = queue(dir, false)) {
+                // without verification the corruption goes unnoticed.
+                ExcerptTailer tailer = queue.createTailer();
+                for (int i = 0; i < MESSAGES; i++)
+                    assertNotNull(tailer.readText());
+            }
+
+            try (SingleChronicleQueue queue = queue(dir, true)) {
+                ExcerptTailer tailer = queue.createTailer();
+                for (int i = 0; i < MESSAGES / 2; i++)
+                    assertEquals("text-" + i, tailer.readText());
+                try {
+                    tailer.readText();
+                    fail();
+                } catch (IllegalStateException e) {
+                    assertTrue(e.getCause() instanceof StreamCorruptedException);
+                }
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(1, QueueVerifyMain.verify(dir, 2, new PrintStream(out, true)));
+            assertTrue(out.toString(), out.toString().contains("Checksum mismatch"));
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    private static void corrupt(File file) throws Exception {
+        byte[] content = Files.readAllBytes(file.toPath());
+        byte[] text = CORRUPTED.getBytes(StandardCharsets.ISO_8859_1);
+        int offset = indexOf(content, text);
+        assertTrue(offset > 0);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+            raf.write('C');
+        }
+    }
+
+    private static int indexOf(byte[] content, byte[] text) {
+        outer:
+        for (int i = 0; i <= content.length - text.length; i++) {
+            for (int j = 0; j < text.length; j++)
+                if (content[i + j] != text[j])
+                    continue outer;
+            return i;
+        }
+        return -1;
+    }
+}
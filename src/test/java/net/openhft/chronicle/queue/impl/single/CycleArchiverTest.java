@@ -0,0 +1,149 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class CycleArchiverTest {
+    private static final int CYCLES = 3;
+    private static final int PER_CYCLE = 200;
+
+    @Test
+    public void archivedCyclesAreReadTransparently() throws IOException {
+        File dir = DirectoryUtils.tempDir("archivedCyclesAreReadTransparently");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        long[] indexes = new long[CYCLES * PER_CYCLE];
+        try {
+            try (SingleChronicleQueue queue = builder(dir, timeProvider).build()) {
+                ExcerptAppender appender = queue.acquireAppender();
+                for (int i = 0; i < indexes.length; i++) {
+                    if (i > 0 && i % PER_CYCLE == 0)
+                        timeProvider.advanceMillis(1000);
+                    appender.writeBytes(Bytes.from("msg-" + i));
+                    indexes[i] = appender.lastIndexAppended();
+                }
+            }
+
+            Bytes<?> bytes = Bytes.allocateElasticDirect();
+            try (SingleChronicleQueue queue = builder(dir, timeProvider).build()) {
+                int[] cycles = CycleArchiver.of(queue)
+                        .blockSize(512)
+                        .deleteSource(true)
+                        .archiveSealedCycles();
+                assertEquals(CYCLES - 1, cycles.length);
+
+                File[] archived = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.ARCHIVE_SUFFIX));
+                assertNotNull(archived);
+                assertEquals(CYCLES - 1, archived.length);
+                for (File archiveFile : archived)
+                    assertFalse(CycleArchiver.cycleFileFor(archiveFile).exists());
+
+                // seek within an archive without restoring it.
+                File first = archived[0].getName().compareTo(archived[1].getName()) < 0 ? archived[0] : archived[1];
+                try (ArchivedCycleReader reader = new ArchivedCycleReader(first)) {
+                    assertEquals(PER_CYCLE, reader.excerpts());
+                    assertTrue(reader.blocks() > 1);
+                    assertTrue(reader.moveToSequence(PER_CYCLE - 1));
+                    bytes.clear();
+                    assertTrue(reader.readExcerpt(bytes));
+                    assertEquals("msg-" + (PER_CYCLE - 1), bytes.toString());
+                    assertFalse(reader.readExcerpt(bytes));
+                    assertEquals(1, reader.blocksInflated());
+
+                    assertTrue(reader.moveToSequence(5));
+                    for (int i = 5; i < PER_CYCLE; i++) {
+                        bytes.clear();
+                        assertTrue(reader.readExcerpt(bytes));
+                        assertEquals("msg-" + i, bytes.toString());
+                    }
+                    assertFalse(reader.moveToSequence(PER_CYCLE));
+                }
+
+                // a tailer reads the blocks of the archives as it needs them.
+                ExcerptTailer tailer = queue.createTailer();
+                for (int i = 0; i < indexes.length; i++) {
+                    bytes.clear();
+                    assertTrue(tailer.readBytes(bytes));
+                    assertEquals("msg-" + i, bytes.toString());
+                }
+                for (int i = indexes.length - 1; i >= 0; i -= 7) {
+                    assertTrue(tailer.moveToIndex(indexes[i]));
+                    bytes.clear();
+                    assertTrue(tailer.readBytes(bytes));
+                    assertEquals("msg-" + i, bytes.toString());
+                }
+                assertEquals(indexes.length, queue.entryCount());
+                for (File archiveFile : archived)
+                    assertFalse(CycleArchiver.cycleFileFor(archiveFile).exists());
+            } finally {
+                bytes.release();
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void cyclesInStripesAreArchivedNextToThem() throws IOException {
+        File dir = DirectoryUtils.tempDir("cyclesInStripesAreArchivedNextToThem");
+        File stripe = DirectoryUtils.tempDir("cyclesInStripesAreArchivedNextToThem-1");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        int cycles = 4;
+        Bytes<?> bytes = Bytes.allocateElasticDirect();
+        try {
+            try (SingleChronicleQueue queue = builder(dir, timeProvider)
+                    .stripingPolicy(StripingPolicy.create().stripe(stripe))
+                    .build()) {
+                ExcerptAppender appender = queue.acquireAppender();
+                for (int i = 0; i < cycles * PER_CYCLE; i++) {
+                    if (i > 0 && i % PER_CYCLE == 0)
+                        timeProvider.advanceMillis(1000);
+                    appender.writeBytes(Bytes.from("msg-" + i));
+                }
+
+                int[] archived = CycleArchiver.of(queue)
+                        .blockSize(512)
+                        .deleteSource(true)
+                        .archiveSealedCycles();
+                assertEquals(cycles - 1, archived.length);
+                assertEquals(cycles - 1, archiveFiles(dir) + archiveFiles(stripe));
+                assertTrue(archiveFiles(stripe) > 0);
+
+                ExcerptTailer tailer = queue.createTailer();
+                for (int i = 0; i < cycles * PER_CYCLE; i++) {
+                    bytes.clear();
+                    assertTrue(tailer.readBytes(bytes));
+                    assertEquals("msg-" + i, bytes.toString());
+                }
+            }
+        } finally {
+            bytes.release();
+            DirectoryUtils.deleteDir(dir);
+            DirectoryUtils.deleteDir(stripe);
+        }
+    }
+
+    private static int archiveFiles(File dir) {
+        File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.ARCHIVE_SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    private static SingleChronicleQueueBuilder builder(File dir, SetTimeProvider timeProvider) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .indexCount(16)
+                .indexSpacing(4)
+                .archivedCycles(true)
+                .timeProvider(timeProvider);
+    }
+}
@@ -0,0 +1,117 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class CycleDirectoryWatcherTest {
+    private static final int CYCLES = 5;
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long timeoutAt = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.currentTimeMillis() < timeoutAt);
+            Jvm.pause(10);
+        }
+    }
+
+    @Test
+    public void cycleFilesAreWatched() throws Exception {
+        File dir = DirectoryUtils.tempDir("cycleFilesAreWatched");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .watchDirectory(true)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < CYCLES; i++) {
+                if (i > 0)
+                    timeProvider.advanceMillis(1000);
+                appender.writeText("msg-" + i);
+            }
+
+            try (SingleChronicleQueue readOnly = SingleChronicleQueueBuilder.binary(dir)
+                    .rollCycle(RollCycles.TEST_SECONDLY)
+                    .testBlockSize()
+                    .timeProvider(timeProvider)
+                    .watchDirectory(true)
+                    .readOnly(true)
+                    .build()) {
+                // one watcher for the directory.
+                CycleDirectoryWatcher watcher = queue.directoryWatcher();
+                assertNotNull(watcher);
+                assertSame(watcher, readOnly.directoryWatcher());
+                awaitTrue(() -> watcher.cycleTree().size() == CYCLES);
+
+                ExcerptTailer tailer = readOnly.createTailer();
+                for (int i = 0; i < CYCLES; i++)
+                    assertEquals("msg-" + i, tailer.readText());
+                assertNull(tailer.readText());
+
+                // a deleted cycle is seen without listing the directory.
+                int firstCycle = readOnly.firstCycle();
+                File first = queue.cycleFile(firstCycle);
+                long modCount = watcher.modCount();
+                assertTrue(first.delete());
+                awaitTrue(() -> watcher.modCount() > modCount);
+                assertEquals(CYCLES - 1, watcher.cycleTree().size());
+                assertTrue(watcher.minCycle() > firstCycle);
+                assertEquals(queue.lastCycle(), watcher.maxCycle());
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void queuesWithOtherTiersHaveTheirOwnWatcher() {
+        File hot = DirectoryUtils.tempDir("queuesWithOtherTiersHaveTheirOwnWatcher");
+        File cold = DirectoryUtils.tempDir("queuesWithOtherTiersHaveTheirOwnWatcher-cold");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue tiered = SingleChronicleQueueBuilder.binary(hot)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .tieringPolicy(TieringPolicy.create()
+                        .tier(cold, 2, TimeUnit.SECONDS))
+                .watchDirectory(true)
+                .build();
+             SingleChronicleQueue untiered = SingleChronicleQueueBuilder.binary(hot)
+                     .rollCycle(RollCycles.TEST_SECONDLY)
+                     .testBlockSize()
+                     .timeProvider(timeProvider)
+                     .watchDirectory(true)
+                     .build()) {
+            CycleDirectoryWatcher tieredWatcher = tiered.directoryWatcher();
+            CycleDirectoryWatcher untieredWatcher = untiered.directoryWatcher();
+            assertNotNull(tieredWatcher);
+            assertNotSame(tieredWatcher, untieredWatcher);
+
+            ExcerptAppender appender = tiered.acquireAppender();
+            for (int i = 0; i < CYCLES; i++) {
+                if (i > 0)
+                    timeProvider.advanceMillis(1000);
+                appender.writeText("msg-" + i);
+            }
+            // only the two oldest cycles are two seconds old.
+            tiered.tierMover().moveCycles();
+            awaitTrue(() -> tieredWatcher.cycleTree().size() == CYCLES);
+            awaitTrue(() -> untieredWatcher.cycleTree().size() == CYCLES - 2);
+        } finally {
+            DirectoryUtils.deleteDir(hot);
+            DirectoryUtils.deleteDir(cold);
+        }
+    }
+}
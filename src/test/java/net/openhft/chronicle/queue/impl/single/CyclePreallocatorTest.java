@@ -0,0 +1,93 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CyclePreallocatorTest {
+    private static final int CHUNKS = 4;
+
+    @Test
+    public void sealedCyclesAreNotTruncatedByDefault() {
+        File dir = DirectoryUtils.tempDir("sealedCyclesAreNotTruncatedByDefault");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .preallocateChunks(CHUNKS)
+                .build()) {
+            CyclePreallocator preallocator = queue.preallocator();
+            long chunkSize = queue.chunkSize();
+
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("first");
+            preallocator.preallocate();
+            File first = cycleFiles(dir)[0];
+            long length = (2 + CHUNKS) * chunkSize + queue.mappedOverlapSize();
+            assertEquals(length, first.length());
+
+            timeProvider.advanceMillis(1000);
+            appender.writeText("second");
+            preallocator.preallocate();
+            assertEquals(0, preallocator.cyclesTruncated());
+            assertEquals(length, first.length());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void cyclesArePreallocatedAndTruncatedWhenSealed() {
+        File dir = DirectoryUtils.tempDir("cyclesArePreallocatedAndTruncatedWhenSealed");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        System.setProperty("chronicle.queue.preallocator.truncate", "true");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .preallocateChunks(CHUNKS)
+                .build()) {
+            CyclePreallocator preallocator = queue.preallocator();
+            assertNotNull(preallocator);
+            long chunkSize = queue.chunkSize();
+
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("first");
+            preallocator.preallocate();
+            assertEquals(CHUNKS * chunkSize, preallocator.bytesAllocated());
+            File first = cycleFiles(dir)[0];
+            assertEquals((2 + CHUNKS) * chunkSize + queue.mappedOverlapSize(), first.length());
+
+            timeProvider.advanceMillis(1000);
+            appender.writeText("second");
+            preallocator.preallocate();
+            assertEquals(1, preallocator.cyclesTruncated());
+            assertEquals(chunkSize + queue.mappedOverlapSize(), first.length());
+            assertEquals(2 * CHUNKS * chunkSize, preallocator.bytesAllocated());
+
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("first", tailer.readText());
+            assertEquals("second", tailer.readText());
+            assertNull(tailer.readText());
+        } finally {
+            System.clearProperty("chronicle.queue.preallocator.truncate");
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    private static File[] cycleFiles(File dir) {
+        File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+        assertNotNull(files);
+        Arrays.sort(files);
+        return files;
+    }
+}
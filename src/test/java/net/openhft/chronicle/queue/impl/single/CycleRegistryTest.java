@@ -0,0 +1,102 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.TailerDirection;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.table.Metadata;
+import net.openhft.chronicle.queue.impl.table.SingleTableBuilder;
+import net.openhft.chronicle.queue.impl.table.SingleTableStore;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CycleRegistryTest {
+
+    @Test
+    public void entriesAreReadInOrderUntilOverwritten() {
+        File dir = DirectoryUtils.tempDir("entriesAreReadInOrderUntilOverwritten");
+        dir.mkdirs();
+        try (TableStore<Metadata.NoMeta> store = SingleTableBuilder.binary(
+                new File(dir, "registry" + SingleTableStore.SUFFIX), Metadata.NoMeta.INSTANCE).build()) {
+            CycleRegistry registry = store.doWithExclusiveLock(ts -> CycleRegistry.acquire(ts, 4));
+            // the capacity is decided by the first to use it.
+            CycleRegistry other = store.doWithExclusiveLock(ts -> CycleRegistry.acquire(ts, 8));
+            assertEquals(4, other.capacity());
+
+            registry.onCreated(1);
+            registry.onCreated(2);
+            other.onDeleted(1);
+            assertEquals(3, other.length());
+
+            List<String> read = new ArrayList<>();
+            assertTrue(other.read(0, 3, (cycle, deleted) -> read.add((deleted ? "-" : "+") + cycle)));
+            assertEquals("[+1, +2, -1]", read.toString());
+
+            registry.onCreated(3);
+            registry.onCreated(4);
+            // the first entry has been overwritten.
+            assertFalse(other.read(0, 5, (cycle, deleted) -> {
+            }));
+            assertFalse(other.read(0, 1, (cycle, deleted) -> {
+            }));
+            read.clear();
+            assertTrue(other.read(1, 5, (cycle, deleted) -> read.add((deleted ? "-" : "+") + cycle)));
+            assertEquals("[+2, -1, +3, +4]", read.toString());
+            // not written yet.
+            assertFalse(other.read(5, 6, (cycle, deleted) -> {
+            }));
+
+            registry.close();
+            other.close();
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void readerFollowsRollsOfAnotherQueue() {
+        File dir = DirectoryUtils.tempDir("readerFollowsRollsOfAnotherQueue");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        // more rolls than the registry holds, while the reader isn't looking.
+        int cycles = CycleRegistry.DEFAULT_CAPACITY + 8;
+        try (SingleChronicleQueue writer = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .build();
+             SingleChronicleQueue reader = SingleChronicleQueueBuilder.binary(dir)
+                     .rollCycle(RollCycles.TEST_SECONDLY)
+                     .testBlockSize()
+                     .timeProvider(timeProvider)
+                     .build()) {
+            ExcerptAppender appender = writer.acquireAppender();
+            ExcerptTailer tailer = reader.createTailer();
+            for (int i = 0; i < 4; i++) {
+                timeProvider.advanceMillis(1000);
+                appender.writeText("msg-" + i);
+                assertEquals("msg-" + i, tailer.readText());
+            }
+            for (int i = 4; i < cycles; i++) {
+                timeProvider.advanceMillis(1000);
+                appender.writeText("msg-" + i);
+            }
+            for (int i = 4; i < cycles; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            assertNull(tailer.readText());
+
+            ExcerptTailer backwards = reader.createTailer().direction(TailerDirection.BACKWARD).toEnd();
+            for (int i = cycles - 1; i >= 0; i--)
+                assertEquals("msg-" + i, backwards.readText());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
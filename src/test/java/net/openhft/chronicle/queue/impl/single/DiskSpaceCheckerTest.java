@@ -0,0 +1,60 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class DiskSpaceCheckerTest {
+
+    @Test
+    public void bytesFreeIsOnlyCheckedInThePoll() {
+        File dir = DirectoryUtils.tempDir("bytesFreeIsOnlyCheckedInThePoll");
+        dir.mkdirs();
+        try {
+            DiskSpaceChecker checker = new DiskSpaceChecker(0, 0, 0);
+            assertEquals(DiskSpaceChecker.UNKNOWN, checker.bytesFree(dir));
+            checker.poll();
+            assertTrue(checker.bytesFree(dir) > 0);
+            assertFalse(checker.isLow(dir));
+
+            // no longer checked once deleted.
+            DirectoryUtils.deleteDir(dir);
+            checker.poll();
+            assertEquals(DiskSpaceChecker.UNKNOWN, checker.bytesFree(dir));
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void lowWhenBelowTheThreshold() {
+        File dir = DirectoryUtils.tempDir("lowWhenBelowTheThreshold");
+        dir.mkdirs();
+        try {
+            // more than any disk has free.
+            DiskSpaceChecker checker = new DiskSpaceChecker(0, 100, Long.MAX_VALUE);
+            assertFalse(checker.isLow(dir));
+            checker.poll();
+            assertTrue(checker.isLow(dir));
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void queueReportsTheLastCheck() {
+        File dir = DirectoryUtils.tempDir("queueReportsTheLastCheck");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir).testBlockSize().build()) {
+            queue.acquireAppender().writeText("hello");
+            // checked from when it is first asked for, without waiting for the check.
+            queue.diskSpaceFree();
+            DiskSpaceChecker.INSTANCE.poll();
+            assertTrue(queue.diskSpaceFree() > 0);
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.StoreFileListener;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ExcerptCloseTest {
+
+    @Test
+    public void closeReleasesStoresImmediately() {
+        File dir = DirectoryUtils.tempDir("closeReleasesStoresImmediately");
+        AtomicInteger acquired = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .storeFileListener(new StoreFileListener() {
+                    @Override
+                    public void onAcquired(int cycle, File file) {
+                        acquired.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onReleased(int cycle, File file) {
+                        released.incrementAndGet();
+                    }
+                })
+                .build()) {
+            long lateReleases = StoreComponentReferenceHandler.lateReleases();
+
+            try (ExcerptAppender appender = queue.acquireAppender()) {
+                appender.writeText("one");
+            }
+            assertEquals(acquired.get(), released.get());
+
+            try (ExcerptTailer tailer = queue.createTailer()) {
+                assertEquals("one", tailer.readText());
+            }
+            assertEquals(acquired.get(), released.get());
+            assertEquals(lateReleases, StoreComponentReferenceHandler.lateReleases());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void closedAppenderCanBeUsedAgain() {
+        File dir = DirectoryUtils.tempDir("closedAppenderCanBeUsedAgain");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("one");
+            long first = appender.lastIndexAppended();
+            appender.close();
+            appender.writeText("two");
+            assertEquals(first + 1, appender.lastIndexAppended());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTailerCanNotBeRead() {
+        File dir = DirectoryUtils.tempDir("closedTailerCanNotBeRead");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .build()) {
+            queue.acquireAppender().writeText("one");
+            ExcerptTailer tailer = queue.createTailer();
+            tailer.close();
+            tailer.readText();
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ExcerptPoolTest {
+    private static final int TASKS = 10_000;
+    private static final int THREADS = 16;
+    private static final int APPENDERS = 4;
+
+    private static SingleChronicleQueueBuilder builder(File dir) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_DAILY)
+                .testBlockSize()
+                .timeoutMS(200);
+    }
+
+    @Test
+    public void manyTasksShareTheAppenders() throws Exception {
+        File dir = DirectoryUtils.tempDir("manyTasksShareTheAppenders");
+        ExecutorService service = Executors.newFixedThreadPool(THREADS);
+        try (SingleChronicleQueue queue = builder(dir).build()) {
+            ExcerptPool<ExcerptAppender> appenders = queue.appenderPool(APPENDERS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < TASKS; i++) {
+                int task = i;
+                futures.add(service.submit(() -> appenders.use(appender -> appender.writeText(Integer.toString(task)))));
+            }
+            for (Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+            assertEquals(APPENDERS, appenders.size());
+            assertTrue(appenders.created() <= APPENDERS);
+
+            BitSet written = new BitSet();
+            ExcerptTailer tailer = queue.createTailer();
+            for (String text; (text = tailer.readText()) != null; )
+                written.set(Integer.parseInt(text));
+            assertEquals(TASKS, written.cardinality());
+        } finally {
+            service.shutdownNow();
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void acquireWaitsForARelease() throws Exception {
+        File dir = DirectoryUtils.tempDir("acquireWaitsForARelease");
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try (SingleChronicleQueue queue = builder(dir).build()) {
+            ExcerptPool<ExcerptAppender> appenders = queue.appenderPool(1);
+            ExcerptAppender appender = appenders.acquire();
+            try {
+                appenders.acquire();
+                fail();
+            } catch (IllegalStateException expected) {
+                // none released within the timeout.
+            }
+
+            Future<ExcerptAppender> next = service.submit(appenders::acquire);
+            Thread.sleep(50);
+            appenders.release(appender);
+            // the same appender, now used by another thread.
+            assertSame(appender, next.get(10, TimeUnit.SECONDS));
+            assertEquals(1, appenders.created());
+        } finally {
+            service.shutdownNow();
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void tailersKeepTheirPosition() {
+        File dir = DirectoryUtils.tempDir("tailersKeepTheirPosition");
+        try (SingleChronicleQueue queue = builder(dir).build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("one");
+            appender.writeText("two");
+
+            ExcerptPool<ExcerptTailer> tailers = queue.tailerPool(1);
+            tailers.use(tailer -> assertEquals("one", tailer.readText()));
+            tailers.use(tailer -> assertEquals("two", tailer.readText()));
+
+            queue.close();
+            assertTrue(tailers.isClosed());
+            try {
+                tailers.acquire();
+                fail();
+            } catch (IllegalStateException expected) {
+                // closed with the queue.
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class ExcerptRollbackTest {
+    // beyond the largest pid Linux allows.
+    private static final long DEAD_OWNER = LockOwner.ownerOf(Integer.MAX_VALUE);
+    private static final long TIMEOUT_MS = 20_000;
+
+    private static SingleChronicleQueueBuilder builder(File dir) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_DAILY)
+                .testBlockSize()
+                .timeoutMS(TIMEOUT_MS);
+    }
+
+    @Test
+    public void excerptOfDeadWriterIsRolledBack() {
+        Assume.assumeTrue(OS.isLinux());
+        File dir = DirectoryUtils.tempDir("excerptOfDeadWriterIsRolledBack");
+        try (SingleChronicleQueue crashed = builder(dir).build();
+             SingleChronicleQueue queue = builder(dir).build()) {
+            crashed.acquireAppender().writeText("one");
+
+            // never closed, as if the process had died writing it.
+            DocumentContext unfinished = crashed.acquireAppender().writingDocument();
+            long position = unfinished.wire().bytes().writePosition();
+            StringBuilder junk = new StringBuilder();
+            for (int i = 0; i < 1000; i++)
+                junk.append('x');
+            unfinished.wire().write("junk").text(junk);
+            LongValue lock = crashed.metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("chronicle.write.lock"));
+            lock.setValue(DEAD_OWNER);
+            Closeable.closeQuietly(lock);
+
+            long start = System.currentTimeMillis();
+            queue.acquireAppender().writeText("two");
+            assertTrue(System.currentTimeMillis() - start < TIMEOUT_MS / 2);
+
+            // written where the unfinished excerpt was, with nothing left of it after.
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("one", tailer.readText());
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertTrue(dc.isPresent());
+                assertEquals(position, dc.wire().bytes().readPosition());
+            }
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertFalse(dc.isPresent());
+            }
+
+            ExcerptTailer texts = queue.createTailer();
+            assertEquals("one", texts.readText());
+            assertEquals("two", texts.readText());
+            assertNull(texts.readText());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void zerosWrittenByDeadWriterDontEndRollBack() {
+        Assume.assumeTrue(OS.isLinux());
+        File dir = DirectoryUtils.tempDir("zerosWrittenByDeadWriterDontEndRollBack");
+        try (SingleChronicleQueue crashed = builder(dir).build();
+             SingleChronicleQueue queue = builder(dir).build()) {
+            crashed.acquireAppender().writeText("one");
+
+            // a payload with a long run of zeros before the rest of it, never finished.
+            DocumentContext unfinished = crashed.acquireAppender().writingDocument();
+            Bytes<?> bytes = unfinished.wire().bytes();
+            bytes.write(new byte[8 << 10]);
+            for (int i = 0; i < 4 << 10; i++)
+                bytes.writeByte((byte) 'x');
+            LongValue lock = crashed.metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("chronicle.write.lock"));
+            lock.setValue(DEAD_OWNER);
+            Closeable.closeQuietly(lock);
+
+            // ends where the rest of the payload was, so what follows it is read as the next header.
+            StringBuilder two = new StringBuilder();
+            for (int i = 0; i < 10 << 10; i++)
+                two.append('y');
+            queue.acquireAppender().writeText(two);
+
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("one", tailer.readText());
+            assertEquals(two.toString(), tailer.readText());
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertFalse(dc.isPresent());
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class HugePagesTest {
+    @Test
+    public void align() {
+        long size = HugePages.HUGE_PAGE_SIZE;
+        assertEquals(size, HugePages.align(0));
+        assertEquals(size, HugePages.align(1));
+        assertEquals(size, HugePages.align(size));
+        assertEquals(2 * size, HugePages.align(size + 1));
+    }
+
+    @Test
+    public void blockSizeIsAlignedToHugePages() {
+        File dir = DirectoryUtils.tempDir("blockSizeIsAlignedToHugePages");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_DAILY)
+                .testBlockSize()
+                .hugePages(true)
+                .build()) {
+            assertTrue(queue.hugePages());
+            assertEquals(0, queue.blockSize() % HugePages.HUGE_PAGE_SIZE);
+
+            queue.acquireAppender().writeText("hello");
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("hello", tailer.readText());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void missingDirIsNotHugeTlbFs() {
+        assertFalse(HugePages.isHugeTlbFs(new File("/no/such/dir")));
+    }
+}
@@ -0,0 +1,53 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class IndexSnapshotTest {
+    private static final int MESSAGES = 300;
+
+    @Test
+    public void sealedCycleIsReadFromSnapshot() {
+        File dir = DirectoryUtils.tempDir("sealedCycleIsReadFromSnapshot");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .indexCount(16)
+                .indexSpacing(4)
+                .timeProvider(timeProvider)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            long[] indexes = new long[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                appender.writeText("msg-" + i);
+                indexes[i] = appender.lastIndexAppended();
+            }
+            // rolling writes the end of file marker which seals the first cycle.
+            timeProvider.advanceMillis(1000);
+            appender.writeText("next");
+            long nextIndex = appender.lastIndexAppended();
+
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = MESSAGES - 1; i >= 0; i--) {
+                assertTrue(tailer.moveToIndex(indexes[i]));
+                assertEquals("msg-" + i, tailer.readText());
+                assertEquals(indexes[i] + 1, tailer.index());
+            }
+            assertTrue(IndexSnapshotCache.INSTANCE.size() > 0);
+            assertTrue(IndexSnapshotCache.INSTANCE.bytesUsed() > 0);
+
+            assertEquals(MESSAGES, queue.countExcerpts(indexes[0], nextIndex));
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
+import net.openhft.chronicle.queue.impl.table.Metadata;
+import net.openhft.chronicle.queue.impl.table.SingleTableBuilder;
+import net.openhft.chronicle.queue.impl.table.SingleTableStore;
+import net.openhft.chronicle.threads.TimeoutPauser;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class LockOwnerTest {
+    // beyond the largest pid Linux allows, but still held in the 23 bits of the owner.
+    private static final long DEAD_OWNER = LockOwner.ownerOf(Integer.MAX_VALUE);
+    private static final long TIMEOUT_MS = 20_000;
+
+    private File dir;
+    private TableStore<Metadata.NoMeta> tableStore;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(OS.isLinux());
+        dir = DirectoryUtils.tempDir(getClass().getSimpleName());
+        dir.mkdirs();
+        tableStore = SingleTableBuilder.binary(new File(dir, "lock" + SingleTableStore.SUFFIX), Metadata.NoMeta.INSTANCE).build();
+    }
+
+    @After
+    public void tearDown() {
+        if (tableStore != null)
+            tableStore.close();
+        if (dir != null)
+            DirectoryUtils.deleteDir(dir);
+    }
+
+    @Test
+    public void ownerIsCheckedByStartTime() {
+        assertFalse(LockOwner.isDead(LockOwner.CURRENT));
+        // only the pid, as an older version wrote.
+        assertFalse(LockOwner.isDead(OS.getProcessId()));
+        assertTrue(LockOwner.isDead(DEAD_OWNER));
+        // the same pid but a different process.
+        assertTrue(LockOwner.isDead(LockOwner.CURRENT ^ (1L << 32)));
+        // a pid in another pid namespace, e.g. another container, can't be looked up here.
+        assertFalse(LockOwner.isDead(DEAD_OWNER ^ (1L << 50)));
+        // nor one whose namespace is not known.
+        assertFalse(LockOwner.isDead(DEAD_OWNER & ~(0x1F_FFFFL << 41)));
+        // namespaces are told apart by more than their low 12 bits.
+        assertFalse(LockOwner.isDead(DEAD_OWNER ^ (1L << (41 + 12))));
+    }
+
+    private void setOwner(String key, long owner) {
+        LongValue value = tableStore.doWithExclusiveLock(ts -> ts.acquireValueFor(key));
+        value.setValue(owner);
+        Closeable.closeQuietly(value);
+    }
+
+    @Test
+    public void writeLockOfDeadOwnerIsTakenStraightAway() {
+        setOwner("chronicle.write.lock", DEAD_OWNER);
+        try (TableStoreWriteLock lock = new TableStoreWriteLock(tableStore, () -> new TimeoutPauser(500_000), TIMEOUT_MS)) {
+            long start = System.currentTimeMillis();
+            lock.lock();
+            assertTrue(System.currentTimeMillis() - start < TIMEOUT_MS / 2);
+            lock.unlock();
+            assertFalse(lock.locked());
+        }
+    }
+
+    @Test
+    public void ticketOfDeadOwnerIsSkippedStraightAway() {
+        try (TicketWriteLock dead = new TicketWriteLock(tableStore, () -> new TimeoutPauser(500_000), TIMEOUT_MS);
+             TicketWriteLock live = new TicketWriteLock(tableStore, () -> new TimeoutPauser(500_000), TIMEOUT_MS)) {
+            dead.lock();
+            // as if the process holding it had died.
+            setOwner("chronicle.write.lock", DEAD_OWNER);
+            long start = System.currentTimeMillis();
+            live.lock();
+            assertTrue(System.currentTimeMillis() - start < TIMEOUT_MS / 2);
+            live.unlock();
+        }
+    }
+
+    @Test
+    public void queueLockOfDeadOwnerIsReleasedStraightAway() {
+        setOwner("chronicle.queue.lock", DEAD_OWNER);
+        try (TSQueueLock lock = new TSQueueLock(tableStore, () -> new TimeoutPauser(500_000), TIMEOUT_MS)) {
+            long start = System.currentTimeMillis();
+            lock.waitForLock();
+            lock.acquireLock();
+            assertTrue(System.currentTimeMillis() - start < TIMEOUT_MS / 2);
+            lock.unlock();
+        }
+    }
+}
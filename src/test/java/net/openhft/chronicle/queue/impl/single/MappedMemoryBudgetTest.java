@@ -0,0 +1,71 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class MappedMemoryBudgetTest {
+    private final MappedMemoryBudget budget = MappedMemoryBudget.INSTANCE;
+
+    @After
+    public void resetLimits() {
+        budget.limit(Long.MAX_VALUE).openLimit(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void tracksMappedCycleFiles() {
+        File dir = DirectoryUtils.tempDir("tracksMappedCycleFiles");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .build()) {
+            queue.acquireAppender().writeText("hello");
+            assertTrue(budget.mappedFiles() > 0);
+            assertTrue(budget.mappedBytes() >= queue.blockSize());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void softLimitReleasesPendingResources() {
+        File dir = DirectoryUtils.tempDir("softLimitReleasesPendingResources");
+        long reclaims = budget.reclaims();
+        budget.limit(1);
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .build()) {
+            queue.acquireAppender().writeText("hello");
+            assertEquals("hello", queue.createTailer().readText());
+            assertTrue(budget.reclaims() > reclaims);
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void openLimitRejectsNewFiles() {
+        File dir = DirectoryUtils.tempDir("openLimitRejectsNewFiles");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .build()) {
+            long rejected = budget.rejected();
+            budget.openLimit(1);
+            try {
+                queue.storeForCycle(queue.cycle(), queue.epoch(), true);
+                fail();
+            } catch (IllegalStateException expected) {
+                assertEquals(rejected + 1, budget.rejected());
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
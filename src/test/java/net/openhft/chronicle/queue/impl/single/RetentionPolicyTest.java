@@ -0,0 +1,107 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RetentionPolicyTest {
+    private static final int CYCLES = 5;
+
+    private static int cycleFiles(File dir) {
+        File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    private static SingleChronicleQueue queue(File dir, SetTimeProvider timeProvider, RetentionPolicy policy) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .retentionPolicy(policy.checkIntervalMS(60_000))
+                .build();
+    }
+
+    private static long[] write(SingleChronicleQueue queue, SetTimeProvider timeProvider) {
+        ExcerptAppender appender = queue.acquireAppender();
+        long[] indexes = new long[CYCLES];
+        for (int i = 0; i < CYCLES; i++) {
+            if (i > 0)
+                timeProvider.advanceMillis(1000);
+            appender.writeText("msg-" + i);
+            indexes[i] = appender.lastIndexAppended();
+        }
+        return indexes;
+    }
+
+    @Test
+    public void oldCyclesAreDeletedByAge() {
+        File dir = DirectoryUtils.tempDir("oldCyclesAreDeletedByAge");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = queue(dir, timeProvider,
+                RetentionPolicy.create().maxAge(1500, TimeUnit.MILLISECONDS))) {
+            long[] indexes = write(queue, timeProvider);
+
+            assertEquals(2, queue.retentionManager().deleteExpiredCycles());
+            assertEquals(CYCLES - 2, cycleFiles(dir));
+            assertEquals(indexes[2], queue.firstIndex());
+
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 2; i < CYCLES; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            assertNull(tailer.readText());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void cyclesAreKeptUntilAllNamedTailersHaveReadThem() {
+        File dir = DirectoryUtils.tempDir("cyclesAreKeptUntilAllNamedTailersHaveReadThem");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = queue(dir, timeProvider,
+                RetentionPolicy.create().namedTailers("a", "b"))) {
+            long[] indexes = write(queue, timeProvider);
+
+            queue.namedTailerIndex("a").setOrderedValue(indexes[3]);
+            assertEquals(0, queue.retentionManager().deleteExpiredCycles());
+            assertEquals(CYCLES, cycleFiles(dir));
+
+            queue.namedTailerIndex("b").setOrderedValue(indexes[1]);
+            assertEquals(1, queue.retentionManager().deleteExpiredCycles());
+            assertEquals(CYCLES - 1, cycleFiles(dir));
+            assertEquals(indexes[1], queue.firstIndex());
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void cyclesInUseAreNotDeleted() {
+        File dir = DirectoryUtils.tempDir("cyclesInUseAreNotDeleted");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = queue(dir, timeProvider,
+                RetentionPolicy.create().maxBytes(1))) {
+            write(queue, timeProvider);
+
+            // holds the store of the first cycle
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("msg-0", tailer.readText());
+            assertEquals(0, queue.retentionManager().deleteExpiredCycles());
+            assertEquals(CYCLES, cycleFiles(dir));
+
+            tailer.close();
+            assertEquals(CYCLES - 1, queue.retentionManager().deleteExpiredCycles());
+            assertEquals(1, cycleFiles(dir));
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
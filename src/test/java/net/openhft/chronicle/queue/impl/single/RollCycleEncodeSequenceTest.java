@@ -74,6 +74,19 @@ public class RollCycleEncodeSequenceTest {
         assertEquals(sequenceInitial, sequence);
     }
 
+    @Test
+    public void positionOfRecorded() {
+        long position = 0x123456789abL;
+        rollCycleEncodeSequence.setSequence(0xb, position);
+        long recorded = rollCycleEncodeSequence.recorded();
+        assertEquals(0xb, rollCycleEncodeSequence.toSequenceNumber(recorded));
+        assertEquals(position, rollCycleEncodeSequence.positionOf(recorded, position));
+        // recorded before the write position
+        assertEquals(position, rollCycleEncodeSequence.positionOf(recorded, position + 0x100));
+        // recorded after the write position was read
+        assertEquals(-1, rollCycleEncodeSequence.positionOf(recorded, position - 0x100));
+    }
+
     @Test
     public void setGetPositionMinus1() {
         int sequenceInitial = 0xb;
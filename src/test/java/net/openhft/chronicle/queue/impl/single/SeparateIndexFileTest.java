@@ -0,0 +1,99 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class SeparateIndexFileTest {
+    private static final int MESSAGES = 500;
+
+    private static SingleChronicleQueueBuilder builder(File dir) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .indexCount(16)
+                .indexSpacing(4);
+    }
+
+    private static long[] write(SingleChronicleQueue queue, int from, int to) {
+        ExcerptAppender appender = queue.acquireAppender();
+        long[] indexes = new long[to - from];
+        for (int i = from; i < to; i++) {
+            appender.writeText("msg-" + i);
+            indexes[i - from] = appender.lastIndexAppended();
+        }
+        return indexes;
+    }
+
+    private static void assertMoveToIndex(SingleChronicleQueue queue, long[] indexes) {
+        ExcerptTailer tailer = queue.createTailer();
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            assertTrue(tailer.moveToIndex(indexes[i]));
+            assertEquals("msg-" + i, tailer.readText());
+        }
+    }
+
+    @Test
+    public void indexIsWrittenToSeparateFile() {
+        File dir = DirectoryUtils.tempDir("indexIsWrittenToSeparateFile");
+        try (SingleChronicleQueue queue = builder(dir).separateIndexFile(true).build()) {
+            long[] indexes = write(queue, 0, MESSAGES);
+            assertMoveToIndex(queue, indexes);
+
+            File[] indexFiles = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.INDEX_SUFFIX));
+            assertNotNull(indexFiles);
+            assertEquals(1, indexFiles.length);
+            assertFalse(queue.dump().contains("index2index"));
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void layoutIsReadFromTheStoreHeader() {
+        File dir = DirectoryUtils.tempDir("layoutIsReadFromTheStoreHeader");
+        try {
+            long[] indexes;
+            try (SingleChronicleQueue queue = builder(dir).separateIndexFile(true).build()) {
+                indexes = write(queue, 0, MESSAGES / 2);
+            }
+            // the option only applies to new cycle files, a restarted appender keeps the existing layout.
+            try (SingleChronicleQueue queue = builder(dir).build()) {
+                long[] more = write(queue, MESSAGES / 2, MESSAGES);
+                assertEquals(indexes[indexes.length - 1] + 1, more[0]);
+                long[] all = new long[MESSAGES];
+                System.arraycopy(indexes, 0, all, 0, indexes.length);
+                System.arraycopy(more, 0, all, indexes.length, more.length);
+                assertMoveToIndex(queue, all);
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void existingLayoutIsStillReadable() {
+        File dir = DirectoryUtils.tempDir("existingLayoutIsStillReadable");
+        try {
+            long[] indexes;
+            try (SingleChronicleQueue queue = builder(dir).build()) {
+                indexes = write(queue, 0, MESSAGES);
+            }
+            try (SingleChronicleQueue queue = builder(dir).separateIndexFile(true).build()) {
+                assertMoveToIndex(queue, indexes);
+                assertTrue(queue.dump().contains("index2index"));
+            }
+            File[] indexFiles = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.INDEX_SUFFIX));
+            assertNotNull(indexFiles);
+            assertEquals(0, indexFiles.length);
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SharedIndexArraysTest {
+    private static final int INDEX_COUNT = 128;
+    // more index arrays than are kept bound.
+    private static final int MESSAGES = INDEX_COUNT * 80;
+
+    @Test
+    public void indexArraysEvictedWhileOtherThreadsReadThem() throws Exception {
+        File dir = DirectoryUtils.tempDir("indexArraysEvictedWhileOtherThreadsReadThem");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .testBlockSize()
+                .indexCount(INDEX_COUNT)
+                .indexSpacing(1)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            long[] indexes = new long[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                appender.writeText("msg-" + i);
+                indexes[i] = appender.lastIndexAppended();
+            }
+
+            ExecutorService service = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int seed = t;
+                    futures.add(service.submit(() -> {
+                        Random random = new Random(seed);
+                        try (ExcerptTailer tailer = queue.createTailer()) {
+                            for (int i = 0; i < 2_000; i++) {
+                                int n = random.nextInt(MESSAGES);
+                                assertTrue(tailer.moveToIndex(indexes[n]));
+                                assertEquals("msg-" + n, tailer.readText());
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+            } finally {
+                service.shutdown();
+            }
+
+            SingleChronicleQueueStore store = (SingleChronicleQueueStore) queue.storeForCycle(queue.cycle(), queue.epoch(), false);
+            assertNotNull(store);
+            try {
+                int bound = store.indexing.indexArraysBound();
+                assertTrue("bound " + bound, bound > 0 && bound <= 64);
+            } finally {
+                queue.release(store);
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
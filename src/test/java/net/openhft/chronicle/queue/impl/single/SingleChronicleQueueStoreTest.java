@@ -69,6 +69,32 @@ public class SingleChronicleQueueStoreTest {
         });
     }
 
+    @Test
+    public void shouldFindTheLastSequenceWithoutAScan() throws Exception {
+        runTest(queue -> {
+            final ExcerptAppender appender = queue.acquireAppender();
+            final ExcerptTailer tailer = queue.createTailer();
+            final long[] indices = writeMessagesStoreIndices(appender, tailer);
+            final SingleChronicleQueueStore wireStore = (SingleChronicleQueueStore)
+                    queue.storeForCycle(queue.cycle(), 0L, true);
+            final SCQIndexing indexing = wireStore.indexing;
+
+            // as if the writer of the last two messages died before recording their sequence.
+            final int recorded = RECORD_COUNT - 3;
+            final long position;
+            assertThat(tailer.moveToIndex(indices[recorded]), is(true));
+            try (final DocumentContext ctx = tailer.readingDocument()) {
+                position = ctx.wire().bytes().readPosition() - 4;
+            }
+            indexing.sequence.setSequence(recorded, position);
+
+            final int startLinearScanCount = indexing.linearScanByPositionCount;
+            final long lastSequence = wireStore.lastSequenceNumber((SingleChronicleQueueExcerpts.StoreTailer) queue.createTailer());
+            assertThat(lastSequence, is((long) RECORD_COUNT - 1));
+            assertThat(indexing.linearScanByPositionCount, is(startLinearScanCount));
+        });
+    }
+
     private void runTest(final ThrowingConsumer<RollingChronicleQueue, Exception> testMethod) throws Exception {
         try (final RollingChronicleQueue queue = ChronicleQueue.singleBuilder(tmpDir.newFolder()).
                 testBlockSize().timeProvider(clock::get).
@@ -0,0 +1,159 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.table.LockOwner;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SingleWriterTest {
+
+    private static SingleChronicleQueueBuilder builder(File dir) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_DAILY)
+                .testBlockSize()
+                .timeoutMS(200);
+    }
+
+    @Test
+    public void otherWritersWaitForTheLease() {
+        File dir = DirectoryUtils.tempDir("otherWritersWaitForTheLease");
+        try {
+            try (SingleChronicleQueue single = builder(dir).singleWriter(true).build();
+                 SingleChronicleQueue other = builder(dir).build()) {
+                ExcerptAppender appender = single.acquireAppender();
+                assertTrue(single.writeLock().locked());
+                appender.writeText("one");
+                appender.writeText("two");
+
+                // the lease isn't forced after the timeout.
+                try {
+                    other.acquireAppender().writeText("other");
+                    fail();
+                } catch (IllegalStateException expected) {
+                    assertTrue(expected.getMessage(), expected.getMessage().contains("single writer"));
+                }
+                appender.writeText("three");
+            }
+
+            // released on close.
+            try (SingleChronicleQueue other = builder(dir).build()) {
+                other.acquireAppender().writeText("four");
+                ExcerptTailer tailer = other.createTailer();
+                for (String expected : new String[]{"one", "two", "three", "four"})
+                    assertEquals(expected, tailer.readText());
+                assertNull(tailer.readText());
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void leaseIsKeptUntilTheLastQueueCloses() {
+        File dir = DirectoryUtils.tempDir("leaseIsKeptUntilTheLastQueueCloses");
+        try {
+            try (SingleChronicleQueue last = builder(dir).singleWriter(true).build()) {
+                try (SingleChronicleQueue first = builder(dir).singleWriter(true).build()) {
+                    first.acquireAppender().writeText("one");
+                    last.acquireAppender().writeText("two");
+                }
+                // still held by this process, so the other queue writes without taking it again.
+                assertEquals(LockOwner.lease(LockOwner.CURRENT), leaseOf(last));
+                last.acquireAppender().writeText("three");
+            }
+
+            try (SingleChronicleQueue other = builder(dir).build()) {
+                other.acquireAppender().writeText("four");
+                ExcerptTailer tailer = other.createTailer();
+                for (String expected : new String[]{"one", "two", "three", "four"})
+                    assertEquals(expected, tailer.readText());
+                assertNull(tailer.readText());
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void threadsOfTheProcessTakeTurnsWithTheLease() throws Exception {
+        File dir = DirectoryUtils.tempDir("threadsOfTheProcessTakeTurnsWithTheLease");
+        int threads = 4, messages = 2_000;
+        try (SingleChronicleQueue queue = builder(dir).rollCycle(RollCycles.DAILY).timeoutMS(10_000).singleWriter(true).build()) {
+            ExecutorService service = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    // each thread has its own appender.
+                    futures.add(service.submit(() -> {
+                        for (int i = 0; i < messages; i++)
+                            queue.acquireAppender().writeText(thread + ":" + i);
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+            } finally {
+                service.shutdown();
+            }
+
+            int[] next = new int[threads];
+            ExcerptTailer tailer = queue.createTailer();
+            for (String text; (text = tailer.readText()) != null; ) {
+                String[] parts = text.split(":");
+                int thread = Integer.parseInt(parts[0]);
+                assertEquals(text, next[thread]++, Integer.parseInt(parts[1]));
+            }
+            for (int count : next)
+                assertEquals(messages, count);
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    private static long leaseOf(SingleChronicleQueue queue) {
+        LongValue lock = queue.metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("chronicle.write.lock"));
+        try {
+            return lock.getVolatileValue();
+        } finally {
+            Closeable.closeQuietly(lock);
+        }
+    }
+
+    @Test
+    public void leaseOfDeadWriterIsTakenOver() {
+        Assume.assumeTrue(OS.isLinux());
+        File dir = DirectoryUtils.tempDir("leaseOfDeadWriterIsTakenOver");
+        try {
+            try (SingleChronicleQueue queue = builder(dir).build()) {
+                LongValue lock = queue.metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("chronicle.write.lock"));
+                // as if held by a process which has died, beyond the largest pid Linux allows.
+                lock.setValue(LockOwner.lease(LockOwner.ownerOf(Integer.MAX_VALUE)));
+                Closeable.closeQuietly(lock);
+            }
+
+            try (SingleChronicleQueue single = builder(dir).timeoutMS(20_000).singleWriter(true).build()) {
+                long start = System.currentTimeMillis();
+                single.acquireAppender().writeText("taken over");
+                assertTrue(System.currentTimeMillis() - start < 10_000);
+                assertEquals("taken over", single.createTailer().readText());
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.*;
+import net.openhft.chronicle.queue.impl.WireStore;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class SizeRollCycleTest {
+    private static final int MESSAGES = 2000;
+    private static final long MAX_CYCLE_SIZE = 64 << 10;
+
+    private static SingleChronicleQueue queue(File dir, SetTimeProvider timeProvider) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(SizeRollCycle.of(RollCycles.DAILY, MAX_CYCLE_SIZE))
+                .testBlockSize()
+                .indexCount(16)
+                .indexSpacing(4)
+                .timeProvider(timeProvider)
+                .build();
+    }
+
+    @Test
+    public void cyclesRollOnSize() {
+        File dir = DirectoryUtils.tempDir("cyclesRollOnSize");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        Bytes<?> message = Bytes.allocateElasticDirect(100);
+        message.writeSkip(100);
+        try {
+            long[] indexes = new long[MESSAGES];
+            try (SingleChronicleQueue queue = queue(dir, timeProvider)) {
+                ExcerptAppender appender = queue.acquireAppender();
+                for (int i = 0; i < MESSAGES / 2; i++) {
+                    appender.writeBytes(message);
+                    indexes[i] = appender.lastIndexAppended();
+                }
+            }
+
+            // carries on in the last sub cycle written to.
+            try (SingleChronicleQueue queue = queue(dir, timeProvider)) {
+                int cycle = queue.rollCycle().toCycle(indexes[MESSAGES / 2 - 1]);
+                assertEquals(cycle, queue.cycle());
+                ExcerptAppender appender = queue.acquireAppender();
+                for (int i = MESSAGES / 2; i < MESSAGES; i++) {
+                    appender.writeBytes(message);
+                    indexes[i] = appender.lastIndexAppended();
+                }
+
+                File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+                assertNotNull(files);
+                assertTrue(files.length > 2);
+                for (File file : files) {
+                    assertTrue(file.getName(), file.getName().matches("\\d{8}\\.\\d{3}\\.cq4"));
+                    WireStore store = queue.storeForCycle(queue.fileToCycle(file), queue.epoch(), false);
+                    try {
+                        // allow for the excerpt which crossed the limit.
+                        assertTrue(file.getName(), store.writePosition() < MAX_CYCLE_SIZE + 1024);
+                    } finally {
+                        queue.release(store);
+                    }
+                }
+                for (int i = 1; i < MESSAGES; i++)
+                    assertTrue(indexes[i] > indexes[i - 1]);
+
+                ExcerptTailer tailer = queue.createTailer();
+                Bytes<?> bytes = Bytes.allocateElasticDirect();
+                try {
+                    for (int i = 0; i < MESSAGES; i++) {
+                        bytes.clear();
+                        assertTrue(tailer.readBytes(bytes));
+                        assertEquals(100, bytes.readRemaining());
+                    }
+                    bytes.clear();
+                    assertFalse(tailer.readBytes(bytes));
+
+                    for (int i = MESSAGES - 1; i >= 0; i -= 37) {
+                        assertTrue(tailer.moveToIndex(indexes[i]));
+                        assertEquals(indexes[i], tailer.index());
+                    }
+                } finally {
+                    bytes.release();
+                }
+                assertEquals(MESSAGES, queue.countExcerpts(indexes[0], indexes[MESSAGES - 1]) + 1);
+            }
+        } finally {
+            message.release();
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void rollCyclesWithoutRoomForTheSubCyclesAreRejected() {
+        for (RollCycles rollCycle : new RollCycles[]{RollCycles.MINUTELY, RollCycles.LARGE_HOURLY_XSPARSE,
+                RollCycles.XLARGE_DAILY, RollCycles.HUGE_DAILY, RollCycles.HUGE_DAILY_XSPARSE}) {
+            try {
+                SizeRollCycle.of(rollCycle, MAX_CYCLE_SIZE);
+                fail(rollCycle.toString());
+            } catch (IllegalArgumentException expected) {
+                // the cycle numbers would overflow into the sign bit of the index.
+            }
+        }
+        for (RollCycles rollCycle : new RollCycles[]{RollCycles.HOURLY, RollCycles.DAILY, RollCycles.LARGE_DAILY}) {
+            SizeRollCycle sizeRollCycle = SizeRollCycle.of(rollCycle, MAX_CYCLE_SIZE);
+            int cycle = sizeRollCycle.current(new SetTimeProvider(System.currentTimeMillis()), 0)
+                    + SizeRollCycle.SUB_CYCLES - 1;
+            assertEquals(cycle, sizeRollCycle.toCycle(sizeRollCycle.toIndex(cycle, 0)));
+        }
+    }
+}
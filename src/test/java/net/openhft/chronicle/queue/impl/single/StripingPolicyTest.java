@@ -0,0 +1,69 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class StripingPolicyTest {
+    private static final int CYCLES = 6;
+
+    private static int cycleFiles(File dir) {
+        File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    private static SingleChronicleQueue queue(File dir, File stripe1, File stripe2, SetTimeProvider timeProvider) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .stripingPolicy(StripingPolicy.create()
+                        .stripe(stripe1)
+                        .stripe(stripe2))
+                .build();
+    }
+
+    @Test
+    public void cyclesAreSpreadAcrossStripes() {
+        File dir = DirectoryUtils.tempDir("cyclesAreSpreadAcrossStripes");
+        File stripe1 = DirectoryUtils.tempDir("cyclesAreSpreadAcrossStripes-1");
+        File stripe2 = DirectoryUtils.tempDir("cyclesAreSpreadAcrossStripes-2");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try {
+            try (SingleChronicleQueue queue = queue(dir, stripe1, stripe2, timeProvider)) {
+                ExcerptAppender appender = queue.acquireAppender();
+                for (int i = 0; i < CYCLES; i++) {
+                    if (i > 0)
+                        timeProvider.advanceMillis(1000);
+                    appender.writeText("msg-" + i);
+                }
+            }
+            assertEquals(CYCLES / 3, cycleFiles(dir));
+            assertEquals(CYCLES / 3, cycleFiles(stripe1));
+            assertEquals(CYCLES / 3, cycleFiles(stripe2));
+            assertTrue(new File(dir, SingleChronicleQueue.QUEUE_METADATA_FILE).exists());
+            assertFalse(new File(stripe1, SingleChronicleQueue.QUEUE_METADATA_FILE).exists());
+
+            try (SingleChronicleQueue queue = queue(dir, stripe1, stripe2, timeProvider)) {
+                ExcerptTailer tailer = queue.createTailer();
+                for (int i = 0; i < CYCLES; i++)
+                    assertEquals("msg-" + i, tailer.readText());
+                assertNull(tailer.readText());
+                assertEquals(CYCLES - 1, queue.lastCycle() - queue.firstCycle());
+                assertEquals(CYCLES, queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()).size());
+                assertEquals(CYCLES, queue.entryCount());
+            }
+        } finally {
+            DirectoryUtils.deleteDir(dir);
+            DirectoryUtils.deleteDir(stripe1);
+            DirectoryUtils.deleteDir(stripe2);
+        }
+    }
+}
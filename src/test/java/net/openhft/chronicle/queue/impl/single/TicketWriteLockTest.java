@@ -0,0 +1,138 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.table.Metadata;
+import net.openhft.chronicle.queue.impl.table.SingleTableBuilder;
+import net.openhft.chronicle.queue.impl.table.SingleTableStore;
+import net.openhft.chronicle.threads.TimeoutPauser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class TicketWriteLockTest {
+    private static final int THREADS = 4;
+    private static final int LOCKS = 10_000;
+
+    private File dir;
+    private TableStore<Metadata.NoMeta> tableStore;
+
+    @Before
+    public void setUp() {
+        dir = DirectoryUtils.tempDir(getClass().getSimpleName());
+        dir.mkdirs();
+        tableStore = SingleTableBuilder.binary(new File(dir, "lock" + SingleTableStore.SUFFIX), Metadata.NoMeta.INSTANCE).build();
+    }
+
+    @After
+    public void tearDown() {
+        tableStore.close();
+        DirectoryUtils.deleteDir(dir);
+    }
+
+    private TicketWriteLock newLock(long timeoutMs) {
+        return new TicketWriteLock(tableStore, () -> new TimeoutPauser(500_000), timeoutMs);
+    }
+
+    @Test
+    public void locksExcludeEachOther() throws Exception {
+        ExecutorService service = Executors.newFixedThreadPool(THREADS);
+        List<TicketWriteLock> locks = new ArrayList<>();
+        try {
+            // one lock per thread, as each process would have.
+            int[] counter = {0};
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                TicketWriteLock lock = newLock(10_000);
+                locks.add(lock);
+                futures.add(service.submit(() -> {
+                    for (int i = 0; i < LOCKS; i++) {
+                        lock.lock();
+                        try {
+                            counter[0]++;
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+            assertEquals(THREADS * LOCKS, counter[0]);
+            for (TicketWriteLock lock : locks) {
+                assertEquals(LOCKS, lock.waitTimes().totalCount());
+                assertEquals(LOCKS, lock.holdTimes().totalCount());
+                assertFalse(lock.locked());
+            }
+        } finally {
+            service.shutdownNow();
+            locks.forEach(TicketWriteLock::close);
+        }
+    }
+
+    @Test
+    public void locksAreGrantedInTurn() throws Exception {
+        TicketWriteLock first = newLock(10_000);
+        TicketWriteLock second = newLock(10_000);
+        TicketWriteLock third = newLock(10_000);
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        try {
+            BlockingQueue<String> order = new LinkedBlockingQueue<>();
+            first.lock();
+            Future<?> f2 = service.submit(() -> lockAndRecord(second, "second", order));
+            // wait for the second to take its ticket before the third.
+            Thread.sleep(100);
+            Future<?> f3 = service.submit(() -> lockAndRecord(third, "third", order));
+            Thread.sleep(100);
+            assertTrue(order.isEmpty());
+            first.unlock();
+            f2.get(10, TimeUnit.SECONDS);
+            f3.get(10, TimeUnit.SECONDS);
+            assertEquals("second", order.poll());
+            assertEquals("third", order.poll());
+        } finally {
+            service.shutdownNow();
+            first.close();
+            second.close();
+            third.close();
+        }
+    }
+
+    private static void lockAndRecord(TicketWriteLock lock, String name, BlockingQueue<String> order) {
+        lock.lock();
+        try {
+            order.add(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    public void ticketOfDeadWriterIsSkipped() {
+        TicketWriteLock dead = newLock(200);
+        TicketWriteLock live = newLock(200);
+        try {
+            // never unlocked, as if the process had died.
+            dead.lock();
+            long start = System.currentTimeMillis();
+            live.lock();
+            assertTrue(System.currentTimeMillis() - start >= 200);
+            live.unlock();
+            // the next writer doesn't wait.
+            start = System.currentTimeMillis();
+            live.lock();
+            live.unlock();
+            assertTrue(System.currentTimeMillis() - start < 200);
+        } finally {
+            dead.close();
+            live.close();
+        }
+    }
+}
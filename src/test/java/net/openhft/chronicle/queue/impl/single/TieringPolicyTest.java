@@ -0,0 +1,103 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TieringPolicyTest {
+    private static final int CYCLES = 5;
+
+    private static int cycleFiles(File dir) {
+        File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    @Test
+    public void oldCyclesMoveByAge() {
+        File hot = DirectoryUtils.tempDir("oldCyclesMoveByAge");
+        File cold = DirectoryUtils.tempDir("oldCyclesMoveByAge-cold");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(hot)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .tieringPolicy(TieringPolicy.create()
+                        .tier(cold, 2, TimeUnit.SECONDS))
+                .build()) {
+            long[] indexes = write(queue, timeProvider);
+
+            // cycles end a second after they start, so only the two oldest are two seconds old.
+            queue.tierMover().moveCycles();
+            assertEquals(CYCLES - 2, cycleFiles(hot));
+            assertEquals(2, cycleFiles(cold));
+
+            readAll(queue, indexes);
+        } finally {
+            DirectoryUtils.deleteDir(hot);
+            DirectoryUtils.deleteDir(cold);
+        }
+    }
+
+    @Test
+    public void oldCyclesMoveBySize() {
+        File hot = DirectoryUtils.tempDir("oldCyclesMoveBySize");
+        File cold = DirectoryUtils.tempDir("oldCyclesMoveBySize-cold");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(hot)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .tieringPolicy(TieringPolicy.create()
+                        .tier(cold)
+                        .maxHotBytes(1))
+                .build()) {
+            long[] indexes = write(queue, timeProvider);
+
+            // everything but the cycle being written to
+            queue.tierMover().moveCycles();
+            assertEquals(1, cycleFiles(hot));
+            assertEquals(CYCLES - 1, cycleFiles(cold));
+
+            readAll(queue, indexes);
+        } finally {
+            DirectoryUtils.deleteDir(hot);
+            DirectoryUtils.deleteDir(cold);
+        }
+    }
+
+    private long[] write(SingleChronicleQueue queue, SetTimeProvider timeProvider) {
+        ExcerptAppender appender = queue.acquireAppender();
+        long[] indexes = new long[CYCLES];
+        for (int i = 0; i < CYCLES; i++) {
+            if (i > 0)
+                timeProvider.advanceMillis(1000);
+            appender.writeText("msg-" + i);
+            indexes[i] = appender.lastIndexAppended();
+        }
+        return indexes;
+    }
+
+    private void readAll(SingleChronicleQueue queue, long[] indexes) {
+        ExcerptTailer tailer = queue.createTailer();
+        for (int i = 0; i < CYCLES; i++)
+            assertEquals("msg-" + i, tailer.readText());
+        assertNull(tailer.readText());
+
+        for (int i = CYCLES - 1; i >= 0; i--) {
+            assertTrue(tailer.moveToIndex(indexes[i]));
+            assertEquals("msg-" + i, tailer.readText());
+        }
+
+        // the range starts in the cold tier.
+        assertEquals(CYCLES, queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()).size());
+        assertEquals(CYCLES, queue.entryCount());
+    }
+}
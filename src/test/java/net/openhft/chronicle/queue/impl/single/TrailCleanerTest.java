@@ -0,0 +1,115 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.queue.DirectoryUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.core.OS;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class TrailCleanerTest {
+    private static final int MESSAGES = 2000;
+
+    @Test
+    public void chunksAreCleanedOnceEveryTailerHasPassed() {
+        File dir = DirectoryUtils.tempDir("chunksAreCleanedOnceEveryTailerHasPassed");
+        Bytes<?> message = Bytes.allocateElasticDirect(100);
+        message.writeSkip(100);
+        Bytes<?> bytes = Bytes.allocateElasticDirect();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .indexCount(256)
+                .testBlockSize()
+                .trailCleaner(true)
+                .build()) {
+            TrailCleaner cleaner = queue.trailCleaner();
+            assertNotNull(cleaner);
+
+            ExcerptTailer tailer = queue.createTailer();
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MESSAGES; i++)
+                appender.writeBytes(message);
+            assertTrue(MESSAGES * 100L > 2 * queue.chunkSize());
+
+            // the tailer hasn't read anything yet.
+            cleaner.clean();
+            assertEquals(0, cleaner.chunksCleaned());
+
+            for (int i = 0; i < MESSAGES; i++) {
+                bytes.clear();
+                assertTrue(tailer.readBytes(bytes));
+            }
+            cleaner.clean();
+            assertTrue(cleaner.chunksCleaned() >= 2);
+
+            tailer.close();
+            long cleaned = cleaner.chunksCleaned();
+            cleaner.clean();
+            assertEquals(cleaned, cleaner.chunksCleaned());
+        } finally {
+            message.release();
+            bytes.release();
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void chunksPassedAreNoLongerMapped() throws IOException {
+        Assume.assumeTrue(OS.isLinux());
+        File dir = DirectoryUtils.tempDir("chunksPassedAreNoLongerMapped");
+        Bytes<?> message = Bytes.allocateElasticDirect(1024);
+        message.writeSkip(1024);
+        Bytes<?> bytes = Bytes.allocateElasticDirect();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.DAILY)
+                .indexCount(256)
+                .testBlockSize()
+                .trailCleaner(true)
+                .build()) {
+            long chunkSize = queue.chunkSize();
+            int messages = (int) (40 * chunkSize / 1024);
+            ExcerptAppender appender = queue.acquireAppender();
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < messages; i++) {
+                appender.writeBytes(message);
+                bytes.clear();
+                assertTrue(tailer.readBytes(bytes));
+            }
+            StoreComponentReferenceHandler.releasePending();
+
+            // the header, the chunk the appender and tailer are on, and any holding the index.
+            File file = queue.cycleFile(queue.cycle());
+            long mapped = mappedBytes(file);
+            assertTrue(mapped + " of " + file.length(), mapped <= 8 * (chunkSize + queue.mappedOverlapSize()));
+            assertTrue(file.length() >= 40 * chunkSize);
+        } finally {
+            message.release();
+            bytes.release();
+            DirectoryUtils.deleteDir(dir);
+        }
+    }
+
+    /**
+     * @return the bytes of the file mapped by this process.
+     */
+    private static long mappedBytes(File file) throws IOException {
+        String path = file.getCanonicalPath();
+        long mapped = 0;
+        for (String line : Files.readAllLines(Paths.get("/proc/self/maps"))) {
+            if (!line.endsWith(" " + path))
+                continue;
+            String[] range = line.substring(0, line.indexOf(' ')).split("-");
+            mapped += Long.parseUnsignedLong(range[1], 16) - Long.parseUnsignedLong(range[0], 16);
+        }
+        return mapped;
+    }
+}